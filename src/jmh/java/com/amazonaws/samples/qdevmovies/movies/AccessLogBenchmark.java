@@ -0,0 +1,78 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging overhead per request on the request thread. {@code synchronousInfo} writes the three INFO lines a search
+ * used to log (controller, hunt start, hunt complete) through a synchronous file appender; the others run the access
+ * log interceptor, which records one asynchronous line for a sampled request and nothing otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessLogBenchmark {
+    private static final Logger syncLog = LogManager.getLogger("movies.bench.sync");
+
+    private final AccessLogInterceptor sampledOut = new AccessLogInterceptor(0, 500);
+    private final AccessLogInterceptor onePercent = new AccessLogInterceptor(0.01, 500);
+    private final AccessLogInterceptor everyRequest = new AccessLogInterceptor(1, 500);
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/movies/search");
+        request.setQueryString("name=the&genre=drama&yearFrom=1990");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/movies/search");
+        response = new MockHttpServletResponse();
+    }
+
+    private MockHttpServletRequest handle(AccessLogInterceptor interceptor) {
+        request.removeAttribute(AccessLogInterceptor.START);
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return request;
+    }
+
+    @Benchmark
+    public void synchronousInfo() {
+        syncLog.info("Ahoy! API treasure hunt requested with name: '{}', id: {}, genre: '{}', page: {}, size: {}",
+                     "the", null, "drama", 0, 50);
+        syncLog.info("Ahoy! Starting treasure hunt with {}", "name: 'the', genre: 'drama', years: 1990..null");
+        syncLog.info("Treasure hunt complete! Found {} movie treasures", 7);
+    }
+
+    @Benchmark
+    public MockHttpServletRequest accessLogSampledOut() {
+        return handle(sampledOut);
+    }
+
+    @Benchmark
+    public MockHttpServletRequest accessLogOnePercent() {
+        return handle(onePercent);
+    }
+
+    @Benchmark
+    public MockHttpServletRequest accessLogEveryRequest() {
+        return handle(everyRequest);
+    }
+}
@@ -0,0 +1,83 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the MovieService catalog paths (search, genre listing, id lookup) over synthetic catalogs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogSearchBenchmark {
+
+    private static final String[] NAME_QUERIES = {"prison", "The", "heist 4", "wise guys 12", "ring", "zz"};
+    private static final String[] GENRE_QUERIES = {"drama", "Sci", "crime/", "fantasy"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private long[] lookupIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        lookupIds = new long[1024];
+        for (int i = 0; i < lookupIds.length; i++) {
+            lookupIds[i] = 1 + (i * 7919L) % catalogSize;
+        }
+    }
+
+    private int next() {
+        return cursor++ & 0x3FF;
+    }
+
+    @Benchmark
+    public List<Movie> huntByName() {
+        return movieService.huntForMovieTreasures(NAME_QUERIES[next() % NAME_QUERIES.length], null, null);
+    }
+
+    @Benchmark
+    public List<Movie> huntByGenre() {
+        return movieService.huntForMovieTreasures(null, null, GENRE_QUERIES[next() % GENRE_QUERIES.length]);
+    }
+
+    @Benchmark
+    public List<Movie> huntByNameAndGenre() {
+        int i = next();
+        return movieService.huntForMovieTreasures(NAME_QUERIES[i % NAME_QUERIES.length], null, GENRE_QUERIES[i % GENRE_QUERIES.length]);
+    }
+
+    @Benchmark
+    public List<Movie> huntById() {
+        return movieService.huntForMovieTreasures(null, lookupIds[next()], null);
+    }
+
+    @Benchmark
+    public List<String> getAllTreasureGenres() {
+        return movieService.getAllTreasureGenres();
+    }
+
+    @Benchmark
+    public Optional<Movie> getMovieById() {
+        return movieService.getMovieById(lookupIds[next()]);
+    }
+}
@@ -0,0 +1,115 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side cost of handing one full-catalog copy to a mirroring client (run with {@code -prof gc}).
+ * {@code jacksonPerRequest} serializes every movie for the request, as scraping the JSON API does;
+ * {@code snapshotTransfer} is the snapshot endpoint without sendfile, a {@code transferTo} from the pre-encoded file.
+ * With Tomcat's sendfile the request thread does not copy the body at all. Bodies go to a discarding stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogSnapshotBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+    private List<Movie> movies;
+    private CatalogSnapshot.Encoded snapshot;
+    private MockHttpServletRequest request;
+    private HttpServletResponseWrapper response;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-bench");
+        movies = SyntheticCatalog.movies(catalogSize);
+        snapshot = new CatalogSnapshot(objectMapper, directory.toString())
+            .encoded(movies, new MovieService(movies).getCatalogVersion());
+        request = new MockHttpServletRequest("GET", "/movies/snapshot");
+        response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            private final ServletOutputStream discard = new Discard();
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return discard;
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot.json.file);
+        Files.deleteIfExists(snapshot.gzip.file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void jacksonPerRequest() throws IOException {
+        objectMapper.writeValue((OutputStream) response.getOutputStream(), movies);
+    }
+
+    @Benchmark
+    public void snapshotTransfer() throws IOException {
+        CatalogSnapshot.transfer(snapshot.json.file, 0, snapshot.json.length, request, response);
+    }
+
+    @Benchmark
+    public void snapshotTransferGzip() throws IOException {
+        CatalogSnapshot.transfer(snapshot.gzip.file, 0, snapshot.gzip.length, request, response);
+    }
+
+    private static final class Discard extends ServletOutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void close() {
+            // the benchmark reuses this stream, so closing it must not end it
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
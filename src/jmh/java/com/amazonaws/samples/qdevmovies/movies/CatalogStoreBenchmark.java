@@ -0,0 +1,125 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the object and columnar catalog layouts and a memory-mapped {@link BinaryCatalog}: full-catalog field
+ * scans, id lookups and page materialization. Run {@link #main} for the retained heap of each layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"objects", "columnar", "mapped"})
+    public String store;
+
+    static final String MAPPED = "mapped";
+
+    private MovieStore movieStore;
+    private long[] lookupIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        movieStore = build(store, SyntheticCatalog.movies(catalogSize));
+        lookupIds = new long[1024];
+        for (int i = 0; i < lookupIds.length; i++) {
+            lookupIds[i] = 1 + (i * 7919L) % catalogSize;
+        }
+    }
+
+    private static MovieStore build(String layout, List<Movie> movies) throws IOException {
+        if (MAPPED.equals(layout)) {
+            return mapped(new ObjectMovieStore(movies));
+        }
+        return MovieService.STORE_COLUMNAR.equals(layout) ? ColumnarMovieStore.of(movies) : new ObjectMovieStore(movies);
+    }
+
+    @Benchmark
+    public double scanRatings() {
+        double total = 0;
+        for (int ordinal = 0; ordinal < movieStore.size(); ordinal++) {
+            total += movieStore.imdbRating(ordinal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int countLongMoviesOfTheNineties() {
+        int count = 0;
+        for (int ordinal = 0; ordinal < movieStore.size(); ordinal++) {
+            int year = movieStore.year(ordinal);
+            if (year >= 1990 && year < 2000 && movieStore.duration(ordinal) > 150) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Movie lookupById() {
+        return movieStore.movieAt(movieStore.ordinalOf(lookupIds[cursor++ & 0x3FF]));
+    }
+
+    /**
+     * Compiles the movies into a temporary binary catalog and maps it.
+     */
+    private static MovieStore mapped(MovieStore movies) throws IOException {
+        Path file = Files.createTempFile("catalog-bench", ".bin");
+        file.toFile().deleteOnExit();
+        BinaryCatalog.write(movies, Collections.emptyMap(), MovieService.fingerprint(movies).getTag(), file);
+        return BinaryCatalog.open(file).movies();
+    }
+
+    /**
+     * Prints the heap retained by each layout for the given catalog size (default 1,000,000).
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (String layout : new String[] {MovieService.STORE_OBJECTS, MovieService.STORE_COLUMNAR, MAPPED}) {
+            long before = usedHeap();
+            // Built from a stream of fresh records, so only the layout itself stays reachable
+            MovieStore.Builder builder = MovieService.STORE_COLUMNAR.equals(layout)
+                ? ColumnarMovieStore.builder() : ObjectMovieStore.builder();
+            for (Movie movie : SyntheticCatalog.movies(size)) {
+                builder.add(movie);
+            }
+            MovieStore built = MAPPED.equals(layout) ? mapped(builder.build()) : builder.build();
+            long retained = usedHeap() - before;
+            System.out.printf("%-8s %,d movies: %,d bytes retained (%.1f bytes/movie)%n",
+                              layout, built.size(), retained, (double) retained / built.size());
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
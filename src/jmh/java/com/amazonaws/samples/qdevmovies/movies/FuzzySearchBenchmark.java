@@ -0,0 +1,61 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read p50/p99 off the sample-time histogram) of typo-tolerant title and director search over
+ * synthetic catalogs. Synthetic titles repeat the 12 real ones with a copy number, so a misspelled title word matches
+ * a twelfth of the catalog, while a title with its copy number narrows to a single movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FuzzySearchBenchmark {
+
+    private static final String[] TYPO_QUERIES = {"prisn escape", "cris moviemakr", "the virtal wrold", "dreem heist",
+                                                  "qeust ring", "facotry ownr", "martin filmaker"};
+    private static final String[] NUMBERED_QUERIES = {"dreem heist 42", "the virtal world 4711", "wise guyz 808",
+                                                      "undergrond club 31337"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+    }
+
+    private int next() {
+        return cursor++ & 0x3FF;
+    }
+
+    @Benchmark
+    public MoviePage typoFirstPage() {
+        MovieQuery query = MovieQuery.ALL.withFuzzy(TYPO_QUERIES[next() % TYPO_QUERIES.length]);
+        return movieService.findMovieTreasures(query, MovieSort.RELEVANCE, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage typoWithCopyNumber() {
+        MovieQuery query = MovieQuery.ALL.withFuzzy(NUMBERED_QUERIES[next() % NUMBERED_QUERIES.length]);
+        return movieService.findMovieTreasures(query, MovieSort.RELEVANCE, 0, 50);
+    }
+}
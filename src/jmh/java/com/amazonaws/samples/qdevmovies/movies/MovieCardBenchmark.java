@@ -0,0 +1,91 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation (run with {@code -prof gc}) to render the list page's grid of movie cards.
+ * {@code thEachNoTemplateCache} is the old setup, parsing the templates on every render as {@code cache: false}
+ * does; {@code thEach} renders every card through {@code th:each} with parsed templates cached;
+ * {@code cardCacheWarm} concatenates cached cards and {@code cardCacheCold} renders each card on its own first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MovieCardBenchmark {
+
+    @Param({"1000", "10000"})
+    public int cards;
+
+    private SpringTemplateEngine uncachedEngine;
+    private SpringTemplateEngine cachedEngine;
+    private Context context;
+    private List<Movie> movies;
+    private DataVersion version;
+    private MovieCardCache warmCache;
+    private MovieCardCache coldCache;
+
+    @Setup
+    public void setUp() {
+        uncachedEngine = engine(false);
+        cachedEngine = engine(true);
+        movies = SyntheticCatalog.movies(cards);
+        version = new MovieService(movies).getCatalogVersion();
+        context = new Context(Locale.ENGLISH);
+        context.setVariable("movies", movies);
+        context.setVariable("contextPath", "");
+        warmCache = new MovieCardCache(cachedEngine, cards, "");
+        warmCache.cards(movies, version);
+        coldCache = new MovieCardCache(cachedEngine, 0, "");
+    }
+
+    private static SpringTemplateEngine engine(boolean cacheable) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cacheable);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    @Benchmark
+    public String thEachNoTemplateCache() {
+        return uncachedEngine.process("bench-cards", context);
+    }
+
+    @Benchmark
+    public String thEach() {
+        return cachedEngine.process("bench-cards", context);
+    }
+
+    @Benchmark
+    public String cardCacheWarm() {
+        return warmCache.cards(movies, version);
+    }
+
+    @Benchmark
+    public String cardCacheCold() {
+        return coldCache.cards(movies, version);
+    }
+}
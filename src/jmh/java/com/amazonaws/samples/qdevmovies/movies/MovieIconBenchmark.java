@@ -0,0 +1,53 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a card icon: resolving it from the title mapping, as rendering did per card before movies were enriched at
+ * load, against reading the icon stored on the movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieIconBenchmark {
+
+    private Movie[] movies;
+    private String[] movieNames;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<Movie> catalog = SyntheticCatalog.movies(1024);
+        movies = catalog.toArray(new Movie[0]);
+        movieNames = new String[movies.length];
+        for (int i = 0; i < movieNames.length; i++) {
+            movieNames[i] = movies[i].getMovieName();
+        }
+    }
+
+    @Benchmark
+    public String getMovieIcon() {
+        return MovieIconUtils.getMovieIcon(movieNames[cursor++ & 0x3FF]);
+    }
+
+    @Benchmark
+    public String precomputedIcon() {
+        return movies[cursor++ & 0x3FF].getIcon();
+    }
+}
@@ -0,0 +1,81 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read p50/p99 off the sample-time histogram) of the year, duration and rating range filters
+ * over synthetic catalogs, one first page per call. The scan benchmark answers the three-range query with chained
+ * stream filters over every movie, as the hunt did before the range indexes, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RangeFilterBenchmark {
+
+    /** About a quarter of the synthetic catalog. */
+    private static final MovieQuery NINETIES = MovieQuery.ALL.withYears(1990, 1999);
+    /** Three dense ranges, about 2% of the catalog together. */
+    private static final MovieQuery THREE_RANGES = NINETIES.withMaxDuration(150).withMinRating(4.5);
+    /** A narrow year range leading, so the other ranges only check its few survivors. */
+    private static final MovieQuery SELECTIVE_YEAR = MovieQuery.ALL.withYears(1960, 1960).withMaxDuration(150)
+        .withMinRating(3.0);
+    private static final MovieQuery GENRE_AND_RANGES = MovieQuery.of(null, null, "sci-fi").withYears(1990, 1999)
+        .withMinRating(4.0);
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private List<Movie> movies;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        movies = movieService.getAllMovies();
+    }
+
+    @Benchmark
+    public MoviePage oneRange() {
+        return movieService.findMovieTreasures(NINETIES, MovieSort.CATALOG_ORDER, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage threeRanges() {
+        return movieService.findMovieTreasures(THREE_RANGES, MovieSort.CATALOG_ORDER, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage selectiveYear() {
+        return movieService.findMovieTreasures(SELECTIVE_YEAR, MovieSort.CATALOG_ORDER, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage genreAndRanges() {
+        return movieService.findMovieTreasures(GENRE_AND_RANGES, MovieSort.CATALOG_ORDER, 0, 50);
+    }
+
+    @Benchmark
+    public long threeRangesScan() {
+        return movies.stream()
+            .filter(movie -> movie.getYear() >= 1990 && movie.getYear() <= 1999)
+            .filter(movie -> movie.getDuration() <= 150)
+            .filter(movie -> movie.getImdbRating() >= 4.5)
+            .count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of loading a movie's reviews for the details page.
+ * {@code perRequestParse} reproduces the original behaviour of parsing the whole review document on every
+ * request; {@code indexedLookup} is the current ReviewService index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReviewLookupBenchmark {
+
+    private static final int REVIEWS_PER_MOVIE = 3;
+
+    @Param({"10000", "1000000"})
+    public int reviewCount;
+
+    private ReviewService reviewService;
+    private String reviewDocument;
+    private int movieCount;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        movieCount = reviewCount / REVIEWS_PER_MOVIE;
+        reviewService = new ReviewService(SyntheticCatalog.reviews(movieCount, REVIEWS_PER_MOVIE));
+        StringWriter json = new StringWriter();
+        SyntheticCatalog.writeReviewsJson(SyntheticCatalog.reviews(movieCount, REVIEWS_PER_MOVIE), json);
+        reviewDocument = json.toString();
+    }
+
+    private long nextMovieId() {
+        return 1 + (cursor++ * 7919L) % movieCount;
+    }
+
+    @Benchmark
+    public List<Review> indexedLookup() {
+        return reviewService.getReviewsForMovie(nextMovieId());
+    }
+
+    @Benchmark
+    public List<Review> perRequestParse() {
+        String key = String.valueOf(nextMovieId());
+        List<Review> reviews = new ArrayList<>();
+        JSONObject reviewsData = new JSONObject(reviewDocument);
+        if (reviewsData.has(key)) {
+            JSONArray movieReviews = reviewsData.getJSONArray(key);
+            for (int i = 0; i < movieReviews.length(); i++) {
+                JSONObject reviewObj = movieReviews.getJSONObject(i);
+                reviews.add(new Review(
+                    reviewObj.getString("userName"),
+                    reviewObj.getString("avatarEmoji"),
+                    reviewObj.getDouble("rating"),
+                    reviewObj.getString("comment")
+                ));
+            }
+        }
+        return reviews;
+    }
+}
@@ -0,0 +1,61 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read p50/p99 off the sample-time histogram) of type-ahead suggestions over synthetic
+ * catalogs. The prefixes replay typing a title or director one keystroke at a time, so short prefixes hit the
+ * precomputed large ranges and longer ones the ranges ranked when asked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SuggestBenchmark {
+
+    private static final String[] TYPED = {"dream heist 42", "the virtual world 1", "chris moviemaker", "wise 9",
+                                           "space wars: the beginning 77", "underground club 31337", "quest"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private String[] prefixes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        int count = 0;
+        for (String typed : TYPED) {
+            count += typed.length();
+        }
+        prefixes = new String[count];
+        int i = 0;
+        for (String typed : TYPED) {
+            for (int length = 1; length <= typed.length(); length++) {
+                prefixes[i++] = typed.substring(0, length);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MovieSuggestion> suggestWhileTyping() {
+        return movieService.suggestMovieTreasures(prefixes[cursor++ % prefixes.length], 10);
+    }
+}
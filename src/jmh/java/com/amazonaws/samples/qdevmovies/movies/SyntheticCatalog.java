@@ -0,0 +1,182 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Scales the 12-entry movies.json and mock-reviews.json up to benchmark-sized catalogs.
+ * Output is deterministic for a given size so runs stay comparable across commits.
+ *
+ * <p>Run as a program to write the scaled JSON files:
+ * {@code SyntheticCatalog <movieCount> <reviewsPerMovie> <outputDir>}.
+ */
+public final class SyntheticCatalog {
+
+    private static final List<Movie> BASE_MOVIES = loadBaseMovies();
+    private static final List<List<Review>> BASE_REVIEWS = loadBaseReviews();
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Builds a catalog of the given size with ids 1..size. The first 12 entries are the real catalog;
+     * later copies get a numbered title suffix and shifted year, duration and rating so the values spread out.
+     */
+    public static List<Movie> movies(int size) {
+        List<Movie> catalog = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Movie base = BASE_MOVIES.get(i % BASE_MOVIES.size());
+            int copy = i / BASE_MOVIES.size();
+            catalog.add(new Movie(
+                i + 1,
+                copy == 0 ? base.getMovieName() : base.getMovieName() + " " + copy,
+                base.getDirector(),
+                base.getYear() - (copy % 40),
+                base.getGenre(),
+                base.getDescription(),
+                base.getDuration() + (copy % 30),
+                Math.max(1.0, base.getImdbRating() - (copy % 9) * 0.5)
+            ));
+        }
+        return catalog;
+    }
+
+    /**
+     * Builds {@code reviewsPerMovie} reviews for each of the movies 1..movieCount, cycling the mock reviews.
+     */
+    public static Map<Long, List<Review>> reviews(int movieCount, int reviewsPerMovie) {
+        Map<Long, List<Review>> reviews = new HashMap<>(movieCount * 2);
+        for (int i = 0; i < movieCount; i++) {
+            List<Review> baseReviews = BASE_REVIEWS.get(i % BASE_REVIEWS.size());
+            List<Review> movieReviews = new ArrayList<>(reviewsPerMovie);
+            for (int r = 0; r < reviewsPerMovie; r++) {
+                movieReviews.add(baseReviews.get((i + r) % baseReviews.size()));
+            }
+            reviews.put((long) (i + 1), Collections.unmodifiableList(movieReviews));
+        }
+        return reviews;
+    }
+
+    /**
+     * Writes a catalog in the movies.json format.
+     */
+    public static void writeMoviesJson(List<Movie> movies, Writer out) {
+        JSONWriter json = new JSONWriter(out).array();
+        for (Movie movie : movies) {
+            json.object()
+                .key("id").value(movie.getId())
+                .key("movieName").value(movie.getMovieName())
+                .key("director").value(movie.getDirector())
+                .key("year").value(movie.getYear())
+                .key("genre").value(movie.getGenre())
+                .key("description").value(movie.getDescription())
+                .key("duration").value(movie.getDuration())
+                .key("imdbRating").value(movie.getImdbRating())
+                .endObject();
+        }
+        json.endArray();
+    }
+
+    /**
+     * Writes reviews in the mock-reviews.json format (an object keyed by movie id).
+     */
+    public static void writeReviewsJson(Map<Long, List<Review>> reviews, Writer out) {
+        JSONWriter json = new JSONWriter(out).object();
+        for (Map.Entry<Long, List<Review>> entry : reviews.entrySet()) {
+            json.key(String.valueOf(entry.getKey())).array();
+            for (Review review : entry.getValue()) {
+                json.object()
+                    .key("userName").value(review.getUserName())
+                    .key("avatarEmoji").value(review.getAvatarEmoji())
+                    .key("rating").value(review.getRating())
+                    .key("comment").value(review.getComment())
+                    .endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SyntheticCatalog <movieCount> <reviewsPerMovie> <outputDir>");
+            System.exit(1);
+        }
+        int movieCount = Integer.parseInt(args[0]);
+        int reviewsPerMovie = Integer.parseInt(args[1]);
+        Path outputDir = Paths.get(args[2]);
+        Files.createDirectories(outputDir);
+
+        try (BufferedWriter out = Files.newBufferedWriter(outputDir.resolve("movies-" + movieCount + ".json"), StandardCharsets.UTF_8)) {
+            writeMoviesJson(movies(movieCount), out);
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(outputDir.resolve("mock-reviews-" + movieCount + ".json"), StandardCharsets.UTF_8)) {
+            writeReviewsJson(reviews(movieCount, reviewsPerMovie), out);
+        }
+    }
+
+    private static List<Movie> loadBaseMovies() {
+        JSONArray moviesArray = new JSONArray(readResource("movies.json"));
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < moviesArray.length(); i++) {
+            JSONObject movieObj = moviesArray.getJSONObject(i);
+            movies.add(new Movie(
+                movieObj.getLong("id"),
+                movieObj.getString("movieName"),
+                movieObj.getString("director"),
+                movieObj.getInt("year"),
+                movieObj.getString("genre"),
+                movieObj.getString("description"),
+                movieObj.getInt("duration"),
+                movieObj.getDouble("imdbRating")
+            ));
+        }
+        return movies;
+    }
+
+    private static List<List<Review>> loadBaseReviews() {
+        JSONObject reviewsData = new JSONObject(readResource("mock-reviews.json"));
+        List<List<Review>> reviews = new ArrayList<>();
+        for (String key : reviewsData.keySet()) {
+            JSONArray movieReviews = reviewsData.getJSONArray(key);
+            List<Review> movie = new ArrayList<>();
+            for (int i = 0; i < movieReviews.length(); i++) {
+                JSONObject reviewObj = movieReviews.getJSONObject(i);
+                movie.add(new Review(
+                    reviewObj.getString("userName"),
+                    reviewObj.getString("avatarEmoji"),
+                    reviewObj.getDouble("rating"),
+                    reviewObj.getString("comment")
+                ));
+            }
+            reviews.add(movie);
+        }
+        return reviews;
+    }
+
+    private static String readResource(String name) {
+        InputStream inputStream = SyntheticCatalog.class.getClassLoader().getResourceAsStream(name);
+        if (inputStream == null) {
+            throw new IllegalStateException(name + " not found on the classpath");
+        }
+        try (Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
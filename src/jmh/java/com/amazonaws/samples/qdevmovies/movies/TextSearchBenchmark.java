@@ -0,0 +1,75 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (read p50/p99 off the sample-time histogram) of ranked full-text search over synthetic
+ * catalogs. The synthetic catalog repeats the 12 real descriptions, so every description word matches at least a
+ * twelfth of the catalog: a worst case for ranking compared with real, more varied descriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TextSearchBenchmark {
+
+    private static final String[] TEXT_QUERIES = {"world", "mob wife", "hobbit ring", "computer reality matrix",
+                                                  "heist 4", "redemption", "galaxy empire station"};
+    private static final String[] GENRE_QUERIES = {"drama", "Sci", "crime/", "fantasy"};
+    private static final MovieSort BY_YEAR = MovieSort.parse("year,desc");
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+    }
+
+    private int next() {
+        return cursor++ & 0x3FF;
+    }
+
+    @Benchmark
+    public MoviePage rankedFirstPage() {
+        MovieQuery query = MovieQuery.ALL.withText(TEXT_QUERIES[next() % TEXT_QUERIES.length]);
+        return movieService.findMovieTreasures(query, MovieSort.RELEVANCE, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage rankedFirstPageWithGenre() {
+        int i = next();
+        MovieQuery query = MovieQuery.of(null, null, GENRE_QUERIES[i % GENRE_QUERIES.length])
+            .withText(TEXT_QUERIES[i % TEXT_QUERIES.length]);
+        return movieService.findMovieTreasures(query, MovieSort.RELEVANCE, 0, 50);
+    }
+
+    @Benchmark
+    public MoviePage rankedDeepPage() {
+        MovieQuery query = MovieQuery.ALL.withText(TEXT_QUERIES[next() % TEXT_QUERIES.length]);
+        return movieService.findMovieTreasures(query, MovieSort.RELEVANCE, 19, 50);
+    }
+
+    @Benchmark
+    public MoviePage textSortedByYear() {
+        MovieQuery query = MovieQuery.ALL.withText(TEXT_QUERIES[next() % TEXT_QUERIES.length]);
+        return movieService.findMovieTreasures(query, BY_YEAR, 0, 50);
+    }
+}
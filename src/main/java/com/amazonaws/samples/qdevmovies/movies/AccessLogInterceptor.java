@@ -0,0 +1,136 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one compact JSON access record per request to the {@code movies.access} logger, which log4j2.xml makes an
+ * asynchronous ring-buffer logger, so request threads only enqueue the record. Successful requests are sampled;
+ * errors and slow requests are always recorded, at WARN so a full ring buffer never discards them.
+ */
+@Component
+public class AccessLogInterceptor implements HandlerInterceptor {
+    static final String LOGGER_NAME = "movies.access";
+    private static final Logger accessLog = LogManager.getLogger(LOGGER_NAME);
+    static final String START = AccessLogInterceptor.class.getName() + ".start";
+
+    @Value("${movies.access-log.sample-rate:0.01}")
+    private double sampleRate = 0.01;
+
+    @Value("${movies.access-log.slow-ms:500}")
+    private long slowMillis = 500;
+
+    public AccessLogInterceptor() {
+    }
+
+    /**
+     * @param sampleRate share of successful, fast requests recorded, from 0 to 1
+     * @param slowMillis requests taking at least this long are always recorded
+     */
+    AccessLogInterceptor(double sampleRate, long slowMillis) {
+        this.sampleRate = sampleRate;
+        this.slowMillis = slowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streamed responses come back through preHandle on their async dispatch; keep the original start
+        if (request.getAttribute(START) == null) {
+            request.setAttribute(START, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START);
+        if (!(start instanceof Long)) {
+            return;
+        }
+        long endNanos = System.nanoTime();
+        String reason = reason(response.getStatus(), ex, endNanos - (Long) start);
+        if (reason == null) {
+            return;
+        }
+        String record = record(request, response.getStatus(), ex, (Long) start, endNanos, reason);
+        if (ex != null || response.getStatus() >= 400 || reason.equals("slow")) {
+            accessLog.warn(record);
+        } else {
+            accessLog.info(record);
+        }
+    }
+
+    /**
+     * @return why the request is recorded ("error", "slow" or "sampled"), or null when it is sampled out
+     */
+    String reason(int status, Exception ex, long durationNanos) {
+        if (ex != null || status >= 400) {
+            return "error";
+        }
+        if (durationNanos >= TimeUnit.MILLISECONDS.toNanos(slowMillis)) {
+            return "slow";
+        }
+        if (sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return "sampled";
+        }
+        return null;
+    }
+
+    /**
+     * @return the record's JSON fields without the enclosing braces; the layout adds the timestamp and braces
+     */
+    static String record(HttpServletRequest request, int status, Exception ex, long startNanos, long endNanos,
+                         String reason) {
+        StringBuilder record = new StringBuilder(192);
+        field(record, "method", request.getMethod());
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            record.append(',');
+            field(record, "route", route.toString());
+        }
+        record.append(',');
+        field(record, "path", request.getRequestURI());
+        if (request.getQueryString() != null) {
+            record.append(',');
+            field(record, "query", request.getQueryString());
+        }
+        record.append(",\"status\":").append(status);
+        record.append(",\"durationUs\":").append(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos));
+        // Rendering is timed from the handler's return, so the handler's own share is the rest of the duration
+        Object renderStart = request.getAttribute(RenderTimingInterceptor.RENDER_START);
+        if (renderStart instanceof Long) {
+            record.append(",\"renderUs\":").append(TimeUnit.NANOSECONDS.toMicros(endNanos - (Long) renderStart));
+        }
+        if (ex != null) {
+            record.append(',');
+            field(record, "exception", ex.getClass().getName());
+        }
+        record.append(',');
+        field(record, "reason", reason);
+        return record.toString();
+    }
+
+    private static void field(StringBuilder record, String name, String value) {
+        record.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                record.append('\\').append(c);
+            } else if (c < 0x20) {
+                record.append(String.format("\\u%04x", (int) c));
+            } else {
+                record.append(c);
+            }
+        }
+        record.append('"');
+    }
+}
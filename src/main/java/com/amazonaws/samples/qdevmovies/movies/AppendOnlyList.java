@@ -0,0 +1,73 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list whose appends return a new, one-longer list sharing the same backing array, so appending costs
+ * amortized O(1) instead of copying the whole list. Each list sees only its own prefix of the array, so a list handed
+ * to readers never changes. Appends must come from one writer at a time (the review committer).
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The writer's view of a chain: the array currently appended to and how much of it is in use.
+     */
+    private static final class Backing {
+        Object[] elements;
+        int used;
+
+        Backing(Object[] elements, int used) {
+            this.elements = elements;
+            this.used = used;
+        }
+    }
+
+    private final Backing backing;
+    /** The array as it was when this list was made; its first size elements were written before and never change. */
+    private final Object[] elements;
+    private final int size;
+
+    private AppendOnlyList(Backing backing, int size) {
+        this.backing = backing;
+        this.elements = backing.elements;
+        this.size = size;
+    }
+
+    /**
+     * @return a list of the given elements followed by one more; only the last list of a chain appends in place
+     */
+    static <E> List<E> append(List<E> list, E element) {
+        if (list instanceof AppendOnlyList) {
+            AppendOnlyList<E> tail = (AppendOnlyList<E>) list;
+            Backing backing = tail.backing;
+            if (tail.size == backing.used) {
+                if (backing.used == backing.elements.length) {
+                    // Lists already handed out keep reading the old array, which is never written again
+                    backing.elements = Arrays.copyOf(backing.elements, backing.used * 2);
+                }
+                backing.elements[backing.used++] = element;
+                return new AppendOnlyList<>(backing, tail.size + 1);
+            }
+        }
+        Object[] elements = Arrays.copyOf(list.toArray(), Math.max(4, list.size() * 2));
+        elements[list.size()] = element;
+        return new AppendOnlyList<>(new Backing(elements, list.size() + 1), list.size() + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
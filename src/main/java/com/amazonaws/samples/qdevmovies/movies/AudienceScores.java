@@ -0,0 +1,204 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Audience-rating aggregates aligned to catalog ordinals, with a precomputed sort order by audience score.
+ * Movies without reviews rank below every reviewed movie. Instances are immutable, so readers always see a
+ * consistent order.
+ *
+ * Changed summaries are kept in a small sorted overlay on top of the catalog-sized arrays, so they are visible at once
+ * without copying the arrays. The sort order catches up when the overlay is folded in by {@link #reranked()}: once it
+ * reaches {@value #RERANK_DIVISOR}th of the catalog, which bounds the copying to that many slots per change, or when
+ * the owner re-ranks on a timer.
+ */
+final class AudienceScores {
+    static final int RERANK_DIVISOR = 64;
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final ReviewSummary[] NO_SUMMARIES = new ReviewSummary[0];
+
+    private final ReviewSummary[] summaries;
+    /** Ordinals ascending by (has reviews, mean, count, ordinal), as of the last re-rank. */
+    private final int[] order;
+    /** Position of each ordinal within {@link #order}. */
+    private final int[] rank;
+    /** Ordinals changed since the last re-rank, ascending, and their new summaries. */
+    private final int[] pendingOrdinals;
+    private final ReviewSummary[] pendingSummaries;
+
+    private AudienceScores(ReviewSummary[] summaries, int[] order, int[] rank) {
+        this(summaries, order, rank, NO_ORDINALS, NO_SUMMARIES);
+    }
+
+    private AudienceScores(ReviewSummary[] summaries, int[] order, int[] rank, int[] pendingOrdinals,
+                           ReviewSummary[] pendingSummaries) {
+        this.summaries = summaries;
+        this.order = order;
+        this.rank = rank;
+        this.pendingOrdinals = pendingOrdinals;
+        this.pendingSummaries = pendingSummaries;
+    }
+
+    static AudienceScores empty(int catalogSize) {
+        return build(null, catalogSize, null);
+    }
+
+    /**
+     * @param store catalog whose ordinals the scores align to; may be null only when summaries is null
+     * @param summaries aggregates keyed by movie id, or null for none
+     */
+    static AudienceScores build(MovieStore store, int catalogSize, Map<Long, ReviewSummary> summaries) {
+        ReviewSummary[] byOrdinal = new ReviewSummary[catalogSize];
+        for (int ordinal = 0; ordinal < catalogSize; ordinal++) {
+            ReviewSummary summary = summaries == null ? null : summaries.get(store.id(ordinal));
+            byOrdinal[ordinal] = summary != null && summary.getCount() > 0 ? summary : ReviewSummary.NONE;
+        }
+        // Sort ordinals by their summary with boxed comparators only once per full rebuild
+        Integer[] boxed = new Integer[catalogSize];
+        for (int ordinal = 0; ordinal < catalogSize; ordinal++) {
+            boxed[ordinal] = ordinal;
+        }
+        Arrays.sort(boxed, (a, b) -> compare(byOrdinal, a, b));
+        int[] order = new int[catalogSize];
+        int[] rank = new int[catalogSize];
+        for (int position = 0; position < catalogSize; position++) {
+            order[position] = boxed[position];
+            rank[boxed[position]] = position;
+        }
+        return new AudienceScores(byOrdinal, order, rank);
+    }
+
+    private static int compare(ReviewSummary[] summaries, int a, int b) {
+        ReviewSummary left = summaries[a];
+        ReviewSummary right = summaries[b];
+        int result = Boolean.compare(left.getCount() > 0, right.getCount() > 0);
+        if (result == 0) {
+            result = Double.compare(left.getAverageRating(), right.getAverageRating());
+        }
+        if (result == 0) {
+            result = Integer.compare(left.getCount(), right.getCount());
+        }
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    /**
+     * Returns a copy with one movie's summary replaced.
+     */
+    AudienceScores with(int ordinal, ReviewSummary summary) {
+        return with(Collections.singletonMap(ordinal, summary));
+    }
+
+    /**
+     * Returns a copy with several movies' summaries replaced. The summaries go into the overlay, costing the size of
+     * the overlay rather than of the catalog; the order is re-ranked once the overlay has grown large enough.
+     */
+    AudienceScores with(Map<Integer, ReviewSummary> changed) {
+        TreeMap<Integer, ReviewSummary> pending = new TreeMap<>(changed);
+        for (int i = 0; i < pendingOrdinals.length; i++) {
+            pending.putIfAbsent(pendingOrdinals[i], pendingSummaries[i]);
+        }
+        int[] ordinals = new int[pending.size()];
+        ReviewSummary[] updated = new ReviewSummary[pending.size()];
+        int i = 0;
+        for (Map.Entry<Integer, ReviewSummary> entry : pending.entrySet()) {
+            ordinals[i] = entry.getKey();
+            updated[i++] = entry.getValue();
+        }
+        AudienceScores scores = new AudienceScores(summaries, order, rank, ordinals, updated);
+        return ordinals.length >= Math.max(1, summaries.length / RERANK_DIVISOR) ? scores.reranked() : scores;
+    }
+
+    /**
+     * @return these scores with the overlay folded into the arrays and the order up to date; copies the arrays once
+     *         and moves each changed movie within the order without re-sorting
+     */
+    AudienceScores reranked() {
+        if (pendingOrdinals.length == 0) {
+            return this;
+        }
+        ReviewSummary[] updatedSummaries = Arrays.copyOf(summaries, summaries.length);
+        int[] updatedOrder = Arrays.copyOf(order, order.length);
+        int[] updatedRank = Arrays.copyOf(rank, rank.length);
+        for (int i = 0; i < pendingOrdinals.length; i++) {
+            updatedSummaries[pendingOrdinals[i]] = pendingSummaries[i];
+            move(updatedSummaries, updatedOrder, updatedRank, pendingOrdinals[i]);
+        }
+        return new AudienceScores(updatedSummaries, updatedOrder, updatedRank);
+    }
+
+    /**
+     * @return movies whose summary changed since the order was last re-ranked
+     */
+    int pendingChanges() {
+        return pendingOrdinals.length;
+    }
+
+    /**
+     * Bubbles one movie towards its new place in an otherwise sorted order; everything it passes shifts one slot.
+     */
+    private static void move(ReviewSummary[] summaries, int[] order, int[] rank, int ordinal) {
+        int position = rank[ordinal];
+        while (position + 1 < order.length && compare(summaries, ordinal, order[position + 1]) > 0) {
+            order[position] = order[position + 1];
+            rank[order[position]] = position;
+            position++;
+        }
+        while (position > 0 && compare(summaries, ordinal, order[position - 1]) < 0) {
+            order[position] = order[position - 1];
+            rank[order[position]] = position;
+            position--;
+        }
+        order[position] = ordinal;
+        rank[ordinal] = position;
+    }
+
+    ReviewSummary summary(int ordinal) {
+        if (pendingOrdinals.length > 0) {
+            int pending = Arrays.binarySearch(pendingOrdinals, ordinal);
+            if (pending >= 0) {
+                return pendingSummaries[pending];
+            }
+        }
+        return summaries[ordinal];
+    }
+
+    /**
+     * @return ordinals in audience order as of the last re-rank; summaries changed since then keep their old place
+     */
+    int[] order() {
+        return order;
+    }
+
+    int[] rank() {
+        return rank;
+    }
+
+    /**
+     * Keeps the matches whose mean audience rating is at least the minimum; movies without reviews never pass.
+     *
+     * @param matches ascending matching ordinals, or null for the whole catalog
+     * @return ascending ordinals of the matches that pass
+     */
+    int[] filterMinimum(int[] matches, double minimum) {
+        int total = matches == null ? summaries.length : matches.length;
+        int[] kept = new int[total];
+        int size = 0;
+        int pending = 0;
+        for (int i = 0; i < total; i++) {
+            int ordinal = matches == null ? i : matches[i];
+            // Both walks are ascending, so the overlay is merged in rather than searched per match
+            while (pending < pendingOrdinals.length && pendingOrdinals[pending] < ordinal) {
+                pending++;
+            }
+            ReviewSummary summary = pending < pendingOrdinals.length && pendingOrdinals[pending] == ordinal
+                ? pendingSummaries[pending] : summaries[ordinal];
+            if (summary.getCount() > 0 && summary.getAverageRating() >= minimum) {
+                kept[size++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+}
@@ -0,0 +1,582 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Arrr! The catalog and its seed reviews compiled into one binary file that is memory-mapped at startup instead of
+ * parsed, so movie data lives in the page cache rather than on the heap. {@link CatalogCompiler} writes it.
+ *
+ * Layout, all little-endian: a 64-byte header (magic, format version, counts, body length, CRC-32 of the body and
+ * the catalog's content fingerprint), then fixed-width columns, eight-byte columns first so every column is aligned.
+ * Text fields are indexes into a deduplicated string table of UTF-8 bytes. Genres and icons are codes into small
+ * dictionaries, which also hold each genre's set of parts; the dictionaries are decoded onto the heap when the file is
+ * opened, so reading a genre or icon decodes nothing. Movie ids are resolved by binary search
+ * over a sorted id column; reviews sit in columns grouped by movie, found through a sorted movie id column with
+ * offsets into them. The checksum is verified when the file is opened, reading through the file channel rather than
+ * the mapping so that verifying does not count against the process's resident memory.
+ *
+ * The file is written to a temporary file and renamed into place. Replace a mapped file the same way: overwriting
+ * it in place changes the bytes under running searches.
+ */
+final class BinaryCatalog {
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 64;
+    private static final byte[] MAGIC = "MOVIECAT".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final ByteBuffer data;
+    private final Layout layout;
+    private final String contentTag;
+    private final String[] genreNames;
+    private final List<String>[] genreSets;
+    private final String[] icons;
+
+    private BinaryCatalog(ByteBuffer data, Layout layout, String contentTag) {
+        this.data = data;
+        this.layout = layout;
+        this.contentTag = contentTag;
+        this.genreNames = new String[layout.genreCount];
+        this.genreSets = newGenreSets(layout.genreCount);
+        for (int code = 0; code < layout.genreCount; code++) {
+            genreNames[code] = string(intAt(layout.genreNames, code));
+            String[] parts = new String[intAt(layout.genreSetStarts, code + 1) - intAt(layout.genreSetStarts, code)];
+            for (int part = 0; part < parts.length; part++) {
+                parts[part] = string(intAt(layout.genreSetParts, intAt(layout.genreSetStarts, code) + part));
+            }
+            genreSets[code] = Collections.unmodifiableList(Arrays.asList(parts));
+        }
+        this.icons = new String[layout.iconCount];
+        for (int code = 0; code < layout.iconCount; code++) {
+            icons[code] = string(intAt(layout.icons, code));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newGenreSets(int size) {
+        return (List<String>[]) new List<?>[size];
+    }
+
+    /**
+     * Byte offsets of every column, derived from the counts in the header so the writer and reader cannot disagree.
+     */
+    private static final class Layout {
+        final int movies;
+        final int reviewedMovies;
+        final int reviews;
+        final int strings;
+        final int genreCount;
+        final int genreParts;
+        final int iconCount;
+        final long ids;
+        final long sortedIds;
+        final long reviewMovieIds;
+        final long ratings;
+        final long reviewRatings;
+        final long ordinalsBySortedId;
+        final long years;
+        final long durations;
+        final long names;
+        final long directors;
+        final long genreCodes;
+        final long descriptions;
+        final long iconCodes;
+        final long reviewStarts;
+        final long reviewUsers;
+        final long reviewAvatars;
+        final long reviewComments;
+        final long genreNames;
+        final long genreSetStarts;
+        final long genreSetParts;
+        final long icons;
+        final long stringOffsets;
+        final long stringData;
+
+        Layout(int movies, int reviewedMovies, int reviews, int strings, int genreCount, int genreParts, int iconCount) {
+            this.movies = movies;
+            this.reviewedMovies = reviewedMovies;
+            this.reviews = reviews;
+            this.strings = strings;
+            this.genreCount = genreCount;
+            this.genreParts = genreParts;
+            this.iconCount = iconCount;
+            this.ids = HEADER_BYTES;
+            this.sortedIds = ids + 8L * movies;
+            this.reviewMovieIds = sortedIds + 8L * movies;
+            this.ratings = reviewMovieIds + 8L * reviewedMovies;
+            this.reviewRatings = ratings + 8L * movies;
+            this.ordinalsBySortedId = reviewRatings + 8L * reviews;
+            this.years = ordinalsBySortedId + 4L * movies;
+            this.durations = years + 4L * movies;
+            this.names = durations + 4L * movies;
+            this.directors = names + 4L * movies;
+            this.genreCodes = directors + 4L * movies;
+            this.descriptions = genreCodes + 4L * movies;
+            this.iconCodes = descriptions + 4L * movies;
+            this.reviewStarts = iconCodes + 4L * movies;
+            this.reviewUsers = reviewStarts + 4L * (reviewedMovies + 1);
+            this.reviewAvatars = reviewUsers + 4L * reviews;
+            this.reviewComments = reviewAvatars + 4L * reviews;
+            this.genreNames = reviewComments + 4L * reviews;
+            this.genreSetStarts = genreNames + 4L * genreCount;
+            this.genreSetParts = genreSetStarts + 4L * (genreCount + 1);
+            this.icons = genreSetParts + 4L * genreParts;
+            this.stringOffsets = icons + 4L * iconCount;
+            this.stringData = stringOffsets + 4L * (strings + 1);
+        }
+    }
+
+    /**
+     * @return true if the file starts with the binary catalog magic; false if it does not or cannot be read
+     */
+    static boolean isBinaryCatalog(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic is complete or the file ends
+            }
+            return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verifies and maps a binary catalog.
+     *
+     * @throws IOException if the file cannot be read, is not a binary catalog of this format version, is cut short
+     *                     or fails its checksum
+     */
+    static BinaryCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            byte[] magic = new byte[MAGIC.length];
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || !Arrays.equals(read(header, magic), MAGIC)) {
+                throw new IOException(file + " is not a binary movie catalog");
+            }
+            int formatVersion = header.getInt(8);
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(file + " has binary catalog format " + formatVersion + ", expected " + FORMAT_VERSION);
+            }
+            Layout layout = new Layout(header.getInt(12), header.getInt(16), header.getInt(20), header.getInt(24),
+                                       header.getInt(28), header.getInt(56), header.getInt(60));
+            long bodyLength = header.getLong(32);
+            if (channel.size() != HEADER_BYTES + bodyLength || layout.stringData > HEADER_BYTES + bodyLength) {
+                throw new IOException(file + " is cut short: " + channel.size() + " bytes, header promises "
+                                      + (HEADER_BYTES + bodyLength));
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than 2 GB and cannot be mapped in one piece");
+            }
+            if (checksum(channel) != header.getLong(40)) {
+                throw new IOException(file + " fails its checksum");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryCatalog(mapped.order(ByteOrder.LITTLE_ENDIAN), layout, Long.toHexString(header.getLong(48)));
+        }
+    }
+
+    private static byte[] read(ByteBuffer buffer, byte[] into) {
+        buffer.get(into);
+        return into;
+    }
+
+    private static long checksum(FileChannel channel) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        long position = HEADER_BYTES;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            position += read;
+            buffer.flip();
+            crc.update(buffer);
+            buffer.clear();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The movies of the catalog, read straight from the mapping.
+     */
+    MovieStore movies() {
+        return new MappedStore();
+    }
+
+    /**
+     * Decodes the seed reviews into lists by movie id.
+     */
+    Map<Long, List<Review>> reviews() {
+        Map<Long, List<Review>> reviews = new HashMap<>(layout.reviewedMovies * 2);
+        for (int i = 0; i < layout.reviewedMovies; i++) {
+            int start = intAt(layout.reviewStarts, i);
+            int end = intAt(layout.reviewStarts, i + 1);
+            List<Review> movieReviews = new ArrayList<>(end - start);
+            for (int review = start; review < end; review++) {
+                movieReviews.add(new Review(string(intAt(layout.reviewUsers, review)),
+                                            string(intAt(layout.reviewAvatars, review)),
+                                            data.getDouble((int) (layout.reviewRatings + 8L * review)),
+                                            string(intAt(layout.reviewComments, review))));
+            }
+            reviews.put(data.getLong((int) (layout.reviewMovieIds + 8L * i)), Collections.unmodifiableList(movieReviews));
+        }
+        return reviews;
+    }
+
+    private int intAt(long column, int index) {
+        return data.getInt((int) (column + 4L * index));
+    }
+
+    private String string(int index) {
+        int start = intAt(layout.stringOffsets, index);
+        byte[] bytes = new byte[intAt(layout.stringOffsets, index + 1) - start];
+        ByteBuffer view = data.duplicate();
+        view.position((int) layout.stringData + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Catalog columns read from the mapping on every access; text fields are decoded into a new String each time.
+     */
+    private final class MappedStore implements MovieStore {
+
+        @Override
+        public int size() {
+            return layout.movies;
+        }
+
+        @Override
+        public int ordinalOf(long id) {
+            int low = 0;
+            int high = layout.movies - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long candidate = data.getLong((int) (layout.sortedIds + 8L * middle));
+                if (candidate < id) {
+                    low = middle + 1;
+                } else if (candidate > id) {
+                    high = middle - 1;
+                } else {
+                    return intAt(layout.ordinalsBySortedId, middle);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Movie movieAt(int ordinal) {
+            return new Movie(id(ordinal), movieName(ordinal), director(ordinal), year(ordinal), genre(ordinal),
+                             description(ordinal), duration(ordinal), imdbRating(ordinal), icon(ordinal), genres(ordinal));
+        }
+
+        @Override
+        public long id(int ordinal) {
+            return data.getLong((int) (layout.ids + 8L * ordinal));
+        }
+
+        @Override
+        public String movieName(int ordinal) {
+            return string(intAt(layout.names, ordinal));
+        }
+
+        @Override
+        public String director(int ordinal) {
+            return string(intAt(layout.directors, ordinal));
+        }
+
+        @Override
+        public int year(int ordinal) {
+            return intAt(layout.years, ordinal);
+        }
+
+        @Override
+        public String genre(int ordinal) {
+            return genreNames[intAt(layout.genreCodes, ordinal)];
+        }
+
+        @Override
+        public String description(int ordinal) {
+            return string(intAt(layout.descriptions, ordinal));
+        }
+
+        @Override
+        public int duration(int ordinal) {
+            return intAt(layout.durations, ordinal);
+        }
+
+        @Override
+        public double imdbRating(int ordinal) {
+            return data.getDouble((int) (layout.ratings + 8L * ordinal));
+        }
+
+        @Override
+        public String icon(int ordinal) {
+            return icons[intAt(layout.iconCodes, ordinal)];
+        }
+
+        @Override
+        public List<String> genres(int ordinal) {
+            return genreSets[intAt(layout.genreCodes, ordinal)];
+        }
+
+        @Override
+        public String contentTag() {
+            return contentTag;
+        }
+    }
+
+    /**
+     * Compiles a catalog and its reviews into a binary catalog file. The file is written beside the target and moved
+     * over it in one step, so a running service never maps a partial file.
+     *
+     * @param contentTag the catalog's content fingerprint, as {@link DataVersion#getTag()} reports it
+     * @return the size of the written file in bytes
+     */
+    static long write(MovieStore store, Map<Long, List<Review>> reviews, String contentTag, Path target) throws IOException {
+        StringTable strings = new StringTable();
+        int movies = store.size();
+        int[] names = new int[movies];
+        int[] directors = new int[movies];
+        int[] genreCodes = new int[movies];
+        int[] descriptions = new int[movies];
+        int[] iconCodes = new int[movies];
+        Map<String, Integer> genreDictionary = new LinkedHashMap<>();
+        List<Integer> genreSetStarts = new ArrayList<>(Collections.singletonList(0));
+        List<Integer> genreSetParts = new ArrayList<>();
+        Map<String, Integer> iconDictionary = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < movies; ordinal++) {
+            names[ordinal] = strings.add(store.movieName(ordinal));
+            directors[ordinal] = strings.add(store.director(ordinal));
+            descriptions[ordinal] = strings.add(store.description(ordinal));
+            Integer genre = genreDictionary.get(store.genre(ordinal));
+            if (genre == null) {
+                genre = genreDictionary.size();
+                genreDictionary.put(store.genre(ordinal), genre);
+                for (String part : store.genres(ordinal)) {
+                    genreSetParts.add(strings.add(part));
+                }
+                genreSetStarts.add(genreSetParts.size());
+            }
+            genreCodes[ordinal] = genre;
+            iconCodes[ordinal] = iconDictionary.computeIfAbsent(store.icon(ordinal), icon -> iconDictionary.size());
+        }
+        int[] genreNames = new int[genreDictionary.size()];
+        genreDictionary.forEach((genre, code) -> genreNames[code] = strings.add(genre));
+        int[] iconNames = new int[iconDictionary.size()];
+        iconDictionary.forEach((icon, code) -> iconNames[code] = strings.add(icon));
+
+        long[] reviewMovieIds = reviews.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] reviewStarts = new int[reviewMovieIds.length + 1];
+        List<Review> flattened = new ArrayList<>();
+        for (int i = 0; i < reviewMovieIds.length; i++) {
+            flattened.addAll(reviews.get(reviewMovieIds[i]));
+            reviewStarts[i + 1] = flattened.size();
+        }
+        int[] reviewUsers = new int[flattened.size()];
+        int[] reviewAvatars = new int[flattened.size()];
+        int[] reviewComments = new int[flattened.size()];
+        for (int review = 0; review < flattened.size(); review++) {
+            reviewUsers[review] = strings.add(flattened.get(review).getUserName());
+            reviewAvatars[review] = strings.add(flattened.get(review).getAvatarEmoji());
+            reviewComments[review] = strings.add(flattened.get(review).getComment());
+        }
+
+        Layout layout = new Layout(movies, reviewMovieIds.length, flattened.size(), strings.size(), genreNames.length,
+                                   genreSetParts.size(), iconNames.length);
+        long length = layout.stringData + strings.bytes;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Catalog of " + movies + " movies needs " + length + " bytes, more than the 2 GB a binary catalog can hold");
+        }
+
+        Integer[] bySortedId = new Integer[movies];
+        for (int ordinal = 0; ordinal < movies; ordinal++) {
+            bySortedId[ordinal] = ordinal;
+        }
+        Arrays.sort(bySortedId, (a, b) -> Long.compare(store.id(a), store.id(b)));
+
+        Path partial = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            ColumnWriter out = new ColumnWriter(channel);
+            for (int ordinal = 0; ordinal < movies; ordinal++) {
+                out.putLong(store.id(ordinal));
+            }
+            for (Integer ordinal : bySortedId) {
+                out.putLong(store.id(ordinal));
+            }
+            for (long movieId : reviewMovieIds) {
+                out.putLong(movieId);
+            }
+            for (int ordinal = 0; ordinal < movies; ordinal++) {
+                out.putDouble(store.imdbRating(ordinal));
+            }
+            for (Review review : flattened) {
+                out.putDouble(review.getRating());
+            }
+            for (Integer ordinal : bySortedId) {
+                out.putInt(ordinal);
+            }
+            for (int ordinal = 0; ordinal < movies; ordinal++) {
+                out.putInt(store.year(ordinal));
+            }
+            for (int ordinal = 0; ordinal < movies; ordinal++) {
+                out.putInt(store.duration(ordinal));
+            }
+            out.putInts(names);
+            out.putInts(directors);
+            out.putInts(genreCodes);
+            out.putInts(descriptions);
+            out.putInts(iconCodes);
+            out.putInts(reviewStarts);
+            out.putInts(reviewUsers);
+            out.putInts(reviewAvatars);
+            out.putInts(reviewComments);
+            out.putInts(genreNames);
+            for (int start : genreSetStarts) {
+                out.putInt(start);
+            }
+            for (int part : genreSetParts) {
+                out.putInt(part);
+            }
+            out.putInts(iconNames);
+            int offset = 0;
+            out.putInt(offset);
+            for (byte[] string : strings.values) {
+                offset += string.length;
+                out.putInt(offset);
+            }
+            for (byte[] string : strings.values) {
+                out.putBytes(string);
+            }
+            long body = out.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(FORMAT_VERSION).putInt(movies).putInt(reviewMovieIds.length)
+                .putInt(flattened.size()).putInt(strings.size()).putInt(genreNames.length)
+                .putLong(body).putLong(out.crc.getValue()).putLong(Long.parseUnsignedLong(contentTag, 16))
+                .putInt(genreSetParts.size()).putInt(iconNames.length);
+            header.clear();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return length;
+    }
+
+    /**
+     * Deduplicated UTF-8 strings in first-seen order.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private long bytes;
+
+        int add(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                index = values.size();
+                values.add(encoded);
+                indexes.put(value, index);
+                bytes += encoded.length;
+            }
+            return index;
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Buffered little-endian writer of the body, which starts right after the space left for the header.
+     */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private long position = HEADER_BYTES;
+        private long written;
+
+        ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8).putDouble(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4).putInt(value);
+        }
+
+        void putInts(int[] values) throws IOException {
+            for (int value : values) {
+                putInt(value);
+            }
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int offset = 0; offset < bytes.length; ) {
+                int chunk = Math.min(bytes.length - offset, ensure(1).remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            ByteBuffer checked = buffer.duplicate();
+            crc.update(checked);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            written += checked.limit();
+            buffer.clear();
+        }
+
+        /**
+         * @return the number of body bytes written
+         */
+        long finish() throws IOException {
+            flush();
+            return written;
+        }
+    }
+}
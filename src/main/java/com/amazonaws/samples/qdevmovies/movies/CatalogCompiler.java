@@ -0,0 +1,58 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrr! Command-line tool that compiles a movies.json catalog and a mock-reviews.json file into one
+ * {@link BinaryCatalog}. Point {@code movies.catalog.location} and {@code movies.reviews.location} at the output
+ * and the service maps it at startup instead of parsing JSON.
+ *
+ * <pre>
+ * java -cp target/sample-qdev-movies-0.1.0.jar \
+ *      -Dloader.main=com.amazonaws.samples.qdevmovies.movies.CatalogCompiler \
+ *      org.springframework.boot.loader.PropertiesLauncher movies.json mock-reviews.json catalog.bin
+ * </pre>
+ */
+public final class CatalogCompiler {
+    private static final Logger logger = LogManager.getLogger(CatalogCompiler.class);
+
+    private CatalogCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: CatalogCompiler <movies.json> <mock-reviews.json> <output file>");
+            System.exit(2);
+        }
+        compile(Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]));
+    }
+
+    /**
+     * Reads both JSON files and writes the binary catalog, replacing the output file in one step.
+     *
+     * @throws IOException if either file cannot be read, the catalog is cut short or the output cannot be written
+     */
+    static void compile(Path catalog, Path reviewsFile, Path output) throws IOException {
+        long start = System.nanoTime();
+        MovieStore store = MovieCatalogLoader.loadStrict(catalog.toString(), ColumnarMovieStore::builder).getStore();
+        Map<Long, List<Review>> reviews;
+        try (InputStream in = Files.newInputStream(reviewsFile)) {
+            reviews = ReviewService.readReviews(in);
+        }
+        String contentTag = MovieService.fingerprint(store).getTag();
+        long bytes = BinaryCatalog.write(store, reviews, contentTag, output);
+        logger.info("Ahoy! Compiled {} movies and reviews for {} movies into {} ({} bytes, catalog {}) in {} ms",
+                    store.size(), reviews.size(), output, bytes, contentTag,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,156 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facet values and counts for the catalog, computed once at load.
+ * Each movie's facet values are stored as dictionary ids in compressed rows, so counting a search result
+ * only walks the matched ordinals and never rescans the catalog or its strings.
+ */
+final class CatalogFacets {
+
+    enum Dimension {
+        GENRE, DECADE, DIRECTOR, RATING;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+
+    /** Sorted facet labels per dimension; a value id is an index into this array. */
+    private final String[][] labels;
+    /** Row offsets per dimension: the values of ordinal i are valueIds[offsets[i]..offsets[i + 1]). */
+    private final int[][] offsets;
+    private final int[][] valueIds;
+    /** Whole-catalog counts per dimension, indexed by value id. */
+    private final int[][] totals;
+
+    private CatalogFacets(String[][] labels, int[][] offsets, int[][] valueIds, int[][] totals) {
+        this.labels = labels;
+        this.offsets = offsets;
+        this.valueIds = valueIds;
+        this.totals = totals;
+    }
+
+    static CatalogFacets build(List<Movie> movies) {
+        String[][] labels = new String[DIMENSIONS.length][];
+        int[][] offsets = new int[DIMENSIONS.length][];
+        int[][] valueIds = new int[DIMENSIONS.length][];
+        int[][] totals = new int[DIMENSIONS.length][];
+
+        for (Dimension dimension : DIMENSIONS) {
+            int d = dimension.ordinal();
+            List<List<String>> rows = new ArrayList<>(movies.size());
+            Set<String> distinct = new LinkedHashSet<>();
+            int valueCount = 0;
+            for (Movie movie : movies) {
+                List<String> row = facetValues(dimension, movie);
+                rows.add(row);
+                distinct.addAll(row);
+                valueCount += row.size();
+            }
+
+            String[] sortedLabels = distinct.toArray(new String[0]);
+            Arrays.sort(sortedLabels);
+            Map<String, Integer> idByLabel = new HashMap<>(sortedLabels.length * 2);
+            for (int id = 0; id < sortedLabels.length; id++) {
+                idByLabel.put(sortedLabels[id], id);
+            }
+
+            int[] rowOffsets = new int[movies.size() + 1];
+            int[] ids = new int[valueCount];
+            int[] counts = new int[sortedLabels.length];
+            int next = 0;
+            for (int ordinal = 0; ordinal < rows.size(); ordinal++) {
+                rowOffsets[ordinal] = next;
+                for (String value : rows.get(ordinal)) {
+                    int id = idByLabel.get(value);
+                    ids[next++] = id;
+                    counts[id]++;
+                }
+            }
+            rowOffsets[movies.size()] = next;
+
+            labels[d] = sortedLabels;
+            offsets[d] = rowOffsets;
+            valueIds[d] = ids;
+            totals[d] = counts;
+        }
+        return new CatalogFacets(labels, offsets, valueIds, totals);
+    }
+
+    /**
+     * Facet values of one movie. Compound genres such as "Crime/Drama" count towards each part, using the genre set
+     * split when the movie was loaded.
+     */
+    static List<String> facetValues(Dimension dimension, Movie movie) {
+        switch (dimension) {
+            case GENRE:
+                return movie.getGenres();
+            case DECADE:
+                return Collections.singletonList((movie.getYear() / 10) * 10 + "s");
+            case DIRECTOR:
+                return Collections.singletonList(movie.getDirector());
+            case RATING:
+                return Collections.singletonList(ratingBucket(movie.getImdbRating()));
+            default:
+                throw new IllegalArgumentException("Unknown facet dimension " + dimension);
+        }
+    }
+
+    /**
+     * Whole-star rating buckets: "4.0-4.9", with a perfect score in its own "5.0" bucket.
+     */
+    static String ratingBucket(double rating) {
+        int star = (int) Math.floor(rating);
+        if (star >= 5) {
+            return "5.0";
+        }
+        return Math.max(0, star) + ".0-" + Math.max(0, star) + ".9";
+    }
+
+    /**
+     * Counts facet values over a set of matches.
+     *
+     * @param ordinals matching catalog ordinals, or null for the whole catalog
+     * @return per dimension key, the non-zero counts in label order
+     */
+    Map<String, Map<String, Integer>> counts(int[] ordinals) {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (Dimension dimension : DIMENSIONS) {
+            int d = dimension.ordinal();
+            int[] counts;
+            if (ordinals == null) {
+                counts = totals[d];
+            } else {
+                counts = new int[labels[d].length];
+                int[] rowOffsets = offsets[d];
+                int[] ids = valueIds[d];
+                for (int ordinal : ordinals) {
+                    for (int i = rowOffsets[ordinal]; i < rowOffsets[ordinal + 1]; i++) {
+                        counts[ids[i]]++;
+                    }
+                }
+            }
+            Map<String, Integer> dimensionCounts = new LinkedHashMap<>();
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    dimensionCounts.put(labels[d][id], counts[id]);
+                }
+            }
+            facets.put(dimension.key(), dimensionCounts);
+        }
+        return facets;
+    }
+}
@@ -0,0 +1,54 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes catalog gauges (size and load duration) and the search result and movie card cache counters to the
+ * actuator registry. Cache sizes are gauges; hits, misses and evictions only grow, so they are function counters
+ * and rate queries work on them.
+ */
+@Component
+public class CatalogMetricsBinder implements MeterBinder {
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieCardCache movieCardCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(MovieMetrics.CATALOG_SIZE, movieService, service -> service.getAllMovies().size())
+            .description("Movies in the loaded catalog")
+            .register(registry);
+        TimeGauge.builder(MovieMetrics.CATALOG_LOAD, movieService, TimeUnit.NANOSECONDS,
+                          MovieService::getCatalogLoadDurationNanos)
+            .description("Time taken to read the catalog and build its indexes")
+            .register(registry);
+        Gauge.builder("movies.search.cache.entries", movieService, service -> service.getResultCacheStats().getEntries())
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.hits", movieService,
+                                service -> service.getResultCacheStats().getHits())
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.misses", movieService,
+                                service -> service.getResultCacheStats().getMisses())
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.evictions", movieService,
+                                service -> service.getResultCacheStats().getEvictions())
+            .register(registry);
+        Gauge.builder("movies.view.card-cache.entries", movieCardCache, MovieCardCache::size)
+            .register(registry);
+        FunctionCounter.builder("movies.view.card-cache.hits", movieCardCache, MovieCardCache::hits)
+            .register(registry);
+        FunctionCounter.builder("movies.view.card-cache.misses", movieCardCache, MovieCardCache::misses)
+            .register(registry);
+    }
+}
@@ -0,0 +1,272 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Arrr! The whole catalog as one JSON array, encoded once per catalog version into a plain and a gzip file, for
+ * services that mirror the catalog.
+ *
+ * Requests never serialize anything: the file of the negotiated encoding is handed to Tomcat's sendfile, which
+ * copies it to the socket with {@link FileChannel#transferTo} from its poller thread, or, under containers without
+ * sendfile, transferred straight from the file channel into the response. Single byte ranges are honoured (with
+ * {@code If-Range}) so interrupted downloads can resume; each encoding has its own strong ETag.
+ *
+ * Snapshots are written to temporary files and moved into place, so a request never sees a partial file. The
+ * previous version's files are kept until the next version replaces them, in case a transfer is still reading them.
+ */
+@Component
+public class CatalogSnapshot {
+    private static final Logger logger = LogManager.getLogger(CatalogSnapshot.class);
+    static final String FILE_PREFIX = "catalog-";
+    static final String GZIP = "gzip";
+
+    /** Request attributes of Tomcat's sendfile support (org.apache.tomcat.util.net.Constants). */
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private volatile Encoded current;
+    private Encoded previous;
+
+    /**
+     * @param directory where snapshot files are written; blank uses a new temporary directory
+     */
+    @Autowired
+    public CatalogSnapshot(ObjectMapper objectMapper, @Value("${movies.snapshot.dir:}") String directory) {
+        this.objectMapper = objectMapper;
+        try {
+            this.directory = directory == null || directory.trim().isEmpty()
+                ? Files.createTempDirectory("movie-snapshots")
+                : Files.createDirectories(Paths.get(directory.trim()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Snapshot directory " + directory + " could not be created", e);
+        }
+        deleteStaleFiles();
+    }
+
+    /**
+     * One encoding of a snapshot on disk.
+     */
+    static final class Variant {
+        final Path file;
+        final long length;
+        final String etag;
+
+        private Variant(Path file, String etag) throws IOException {
+            this.file = file;
+            this.length = Files.size(file);
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Both encodings of the snapshot of one catalog version.
+     */
+    static final class Encoded {
+        final DataVersion version;
+        final Variant json;
+        final Variant gzip;
+
+        private Encoded(DataVersion version, Variant json, Variant gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+
+    /**
+     * @return the snapshot of this catalog version, encoding it first if it is not on disk yet
+     */
+    Encoded encoded(List<Movie> movies, DataVersion version) throws IOException {
+        Encoded snapshot = current;
+        if (snapshot != null && snapshot.version.getTag().equals(version.getTag())) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            if (snapshot != null && snapshot.version.getTag().equals(version.getTag())) {
+                return snapshot;
+            }
+            snapshot = encode(movies, version);
+            if (previous != null && !previous.version.getTag().equals(version.getTag())) {
+                delete(previous);
+            }
+            previous = current;
+            current = snapshot;
+            return snapshot;
+        }
+    }
+
+    private Encoded encode(List<Movie> movies, DataVersion version) throws IOException {
+        long start = System.nanoTime();
+        String name = FILE_PREFIX + version.getTag();
+        Path json = directory.resolve(name + ".json");
+        Path gzip = directory.resolve(name + ".json.gz");
+
+        Path partial = Files.createTempFile(directory, name, ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+            objectMapper.writeValue(out, movies);
+        }
+        Files.move(partial, json, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        partial = Files.createTempFile(directory, name, ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+            Files.copy(json, out);
+        }
+        Files.move(partial, gzip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Encoded encoded = new Encoded(version, new Variant(json, "\"s-" + version.getTag() + "\""),
+                                      new Variant(gzip, "\"s-" + version.getTag() + "-gz\""));
+        logger.info("Ahoy! Encoded catalog snapshot {} of {} movies ({} bytes, {} gzipped) in {} ms",
+                    version.getTag(), movies.size(), encoded.json.length, encoded.gzip.length,
+                    (System.nanoTime() - start) / 1_000_000);
+        return encoded;
+    }
+
+    private void delete(Encoded snapshot) {
+        try {
+            Files.deleteIfExists(snapshot.json.file);
+            Files.deleteIfExists(snapshot.gzip.file);
+        } catch (IOException e) {
+            logger.warn("Arrr! Old catalog snapshot {} could not be deleted: {}", snapshot.version.getTag(), e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a snapshot request: picks the gzip file when the client accepts it, answers conditional requests
+     * and byte ranges, and sends the file without serializing anything.
+     */
+    public void send(List<Movie> movies, DataVersion version, HttpServletRequest request,
+                     HttpServletResponse response) throws IOException {
+        Encoded snapshot = encoded(movies, version);
+        Variant variant = acceptsGzip(request) ? snapshot.gzip : snapshot.json;
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(variant.etag, version.getLoadedAt())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (variant == snapshot.gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+
+        long start = 0;
+        long end = variant.length;
+        HttpRange range = range(request, variant, version);
+        if (range != null) {
+            if (variant.length == 0 || !satisfiable(range, variant.length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + variant.length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            start = range.getRangeStart(variant.length);
+            end = range.getRangeEnd(variant.length) + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + variant.length);
+        }
+        response.setContentLengthLong(end - start);
+        if (!"HEAD".equals(request.getMethod())) {
+            transfer(variant.file, start, end, request, response);
+        }
+    }
+
+    /**
+     * @return the one range to send, or null for the whole file: no Range header, an If-Range naming another
+     *         version, or several ranges (answered with the whole file rather than a multipart body)
+     */
+    private static HttpRange range(HttpServletRequest request, Variant variant, DataVersion version) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        try {
+            if (ifRange != null && (ifRange.startsWith("\"") || ifRange.startsWith("W/")
+                ? !ifRange.equals(variant.etag)
+                : request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 != version.getLoadedAt() / 1000)) {
+                return null;
+            }
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean satisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase().contains(GZIP);
+    }
+
+    /**
+     * Sends bytes {@code [start, end)} of the file: through Tomcat's sendfile when the connector offers it, otherwise
+     * with {@link FileChannel#transferTo} into the response stream.
+     */
+    static void transfer(Path file, long start, long end, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    /**
+     * Removes snapshot files left behind by an earlier run that used the same directory.
+     */
+    private void deleteStaleFiles() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Arrr! Stale catalog snapshots in {} could not be removed: {}", directory, e.getMessage());
+        }
+    }
+}
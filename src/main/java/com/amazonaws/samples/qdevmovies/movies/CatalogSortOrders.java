@@ -0,0 +1,138 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed sort permutations of the catalog, one per {@link MovieSort.Field}.
+ * Unfiltered pages are read straight out of a permutation; filtered matches are ordered by their precomputed rank,
+ * so no page request ever runs a Movie comparator.
+ */
+final class CatalogSortOrders {
+
+    /** Catalog ordinals in ascending sort order, per field. */
+    private final Map<MovieSort.Field, int[]> orders;
+    /** Position of each catalog ordinal within its field's order. */
+    private final Map<MovieSort.Field, int[]> ranks;
+    private final int catalogSize;
+
+    private CatalogSortOrders(Map<MovieSort.Field, int[]> orders, Map<MovieSort.Field, int[]> ranks, int catalogSize) {
+        this.orders = orders;
+        this.ranks = ranks;
+        this.catalogSize = catalogSize;
+    }
+
+    /**
+     * Builds the permutations of every field with a Movie comparator; other fields are added with {@link #with}.
+     */
+    static CatalogSortOrders build(List<Movie> movies) {
+        Map<MovieSort.Field, int[]> orders = new EnumMap<>(MovieSort.Field.class);
+        Map<MovieSort.Field, int[]> ranks = new EnumMap<>(MovieSort.Field.class);
+        for (MovieSort.Field field : MovieSort.Field.values()) {
+            if (field.comparator() == null) {
+                continue;
+            }
+            Integer[] boxedOrder = new Integer[movies.size()];
+            for (int ordinal = 0; ordinal < boxedOrder.length; ordinal++) {
+                boxedOrder[ordinal] = ordinal;
+            }
+            Arrays.sort(boxedOrder, (a, b) -> field.comparator().compare(movies.get(a), movies.get(b)));
+
+            int[] order = new int[boxedOrder.length];
+            int[] rank = new int[boxedOrder.length];
+            for (int position = 0; position < order.length; position++) {
+                order[position] = boxedOrder[position];
+                rank[order[position]] = position;
+            }
+            orders.put(field, order);
+            ranks.put(field, rank);
+        }
+        return new CatalogSortOrders(orders, ranks, movies.size());
+    }
+
+    /**
+     * @return catalog ordinals in ascending order of the field, shared rather than copied
+     */
+    int[] order(MovieSort.Field field) {
+        return orders.get(field);
+    }
+
+    /**
+     * @return position of each catalog ordinal within the field's order, shared rather than copied
+     */
+    int[] rank(MovieSort.Field field) {
+        return ranks.get(field);
+    }
+
+    /**
+     * Returns a copy that orders the given field by a permutation computed elsewhere, e.g. audience score.
+     */
+    CatalogSortOrders with(MovieSort.Field field, int[] order, int[] rank) {
+        Map<MovieSort.Field, int[]> updatedOrders = new EnumMap<>(orders);
+        Map<MovieSort.Field, int[]> updatedRanks = new EnumMap<>(ranks);
+        updatedOrders.put(field, order);
+        updatedRanks.put(field, rank);
+        return new CatalogSortOrders(updatedOrders, updatedRanks, catalogSize);
+    }
+
+    /**
+     * Returns the ordinals at sorted positions {@code [from, to)} of the match set.
+     *
+     * @param matches ascending matching ordinals, or null for the whole catalog
+     * @param from first position, inclusive
+     * @param to last position, exclusive; must not exceed the number of matches
+     */
+    int[] slice(int[] matches, MovieSort sort, int from, int to) {
+        int total = matches == null ? catalogSize : matches.length;
+        int[] sorted = sortedPositions(matches, sort.getField());
+        int[] slice = new int[Math.max(0, to - from)];
+        for (int i = 0; i < slice.length; i++) {
+            int position = sort.isDescending() ? total - 1 - (from + i) : from + i;
+            slice[i] = sorted == null ? position : sorted[position];
+        }
+        return slice;
+    }
+
+    /**
+     * Lazily walks the match set in sort order. Catalog order and unfiltered sorts read the shared match or
+     * permutation arrays in place, so only a filtered field sort allocates (one array of the matches).
+     *
+     * @param matches ascending matching ordinals, or null for the whole catalog
+     */
+    IntStream stream(int[] matches, MovieSort sort) {
+        int total = matches == null ? catalogSize : matches.length;
+        int[] sorted = sortedPositions(matches, sort.getField());
+        boolean descending = sort.isDescending();
+        return IntStream.range(0, total).map(i -> {
+            int position = descending ? total - 1 - i : i;
+            return sorted == null ? position : sorted[position];
+        });
+    }
+
+    /**
+     * @return the matches in ascending field order; null means the identity order over the whole catalog
+     */
+    private int[] sortedPositions(int[] matches, MovieSort.Field field) {
+        if (field == MovieSort.Field.CATALOG || !orders.containsKey(field)) {
+            return matches;
+        }
+        if (matches == null) {
+            return orders.get(field);
+        }
+        // Pack rank and ordinal into one long so a primitive sort orders the matches without boxing
+        int[] rank = ranks.get(field);
+        long[] keyed = new long[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            keyed[i] = ((long) rank[matches[i]] << 32) | matches[i];
+        }
+        Arrays.sort(keyed);
+        int[] sorted = new int[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            sorted[i] = (int) keyed[i];
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,178 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Arrr! Watches the external catalog and review files and reloads whichever of them changed, so titles can be added
+ * without a restart.
+ *
+ * One background thread waits on a {@link WatchService} for events in the files' directories. A file is usually
+ * written in several steps, so the thread waits until the directory has been quiet for {@code quietMillis}, then
+ * reloads each file whose modification time or size moved. Comparing the files rather than event names also catches
+ * files replaced by a rename or a symlink swap. The reload itself runs on this thread; requests keep being answered
+ * from the current catalog until the new one is swapped in, and a failed reload keeps it.
+ */
+@Component
+public class CatalogWatcher implements InitializingBean, DisposableBean {
+    private static final Logger logger = LogManager.getLogger(CatalogWatcher.class);
+
+    private final List<Source> sources = new ArrayList<>();
+    private final long quietMillis;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param enabled false to never reload after startup
+     * @param quietMillis how long a directory must be free of changes before a changed file is reloaded
+     */
+    @Autowired
+    public CatalogWatcher(MovieService movieService, ReviewService reviewService,
+                          @Value("${movies.catalog.location:}") String catalogLocation,
+                          @Value("${movies.reviews.location:}") String reviewsLocation,
+                          @Value("${movies.reload.enabled:true}") boolean enabled,
+                          @Value("${movies.reload.quiet-ms:500}") long quietMillis) {
+        this.quietMillis = quietMillis;
+        if (enabled) {
+            addSource("catalog", catalogLocation, movieService::reloadCatalog);
+            addSource("reviews", reviewsLocation, reviewService::reloadReviews);
+        }
+    }
+
+    private void addSource(String name, String location, BooleanSupplier reload) {
+        if (location != null && !location.trim().isEmpty()) {
+            sources.add(new Source(name, Paths.get(location.trim()).toAbsolutePath().normalize(), reload));
+        }
+    }
+
+    /**
+     * A watched file and the state it was last loaded in.
+     */
+    private static final class Source {
+        final String name;
+        final Path file;
+        /** Reloads the file, answering whether something new was published; failures are reported by the reload. */
+        final BooleanSupplier reload;
+        String stamp;
+
+        Source(String name, Path file, BooleanSupplier reload) {
+            this.name = name;
+            this.file = file;
+            this.reload = reload;
+            this.stamp = stamp(file);
+        }
+
+        boolean changed() {
+            String current = stamp(file);
+            if (Objects.equals(current, stamp)) {
+                return false;
+            }
+            stamp = current;
+            return current != null;
+        }
+
+        /**
+         * @return modification time and size of the file, or null while it does not exist
+         */
+        private static String stamp(Path file) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                return modified.toMillis() + "/" + Files.size(file);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (sources.isEmpty()) {
+            logger.debug("No external catalog or review file configured, nothing to watch");
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Source source : sources) {
+            Path directory = source.file.getParent();
+            if (directories.add(directory)) {
+                try {
+                    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_MODIFY);
+                } catch (IOException e) {
+                    logger.warn("Arrr! Cannot watch {} for {} changes: {}", directory, source.name, e.getMessage());
+                }
+            }
+            logger.info("Watching {} for {} changes", source.file, source.name);
+        }
+        thread = new Thread(this::watch, "catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                drain(watchService.take());
+                WatchKey key;
+                while ((key = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+                reloadChanged();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Catalog watcher stopped");
+        }
+    }
+
+    private static void drain(WatchKey key) {
+        // Which files changed is decided by comparing them, so the events themselves are only a wake-up call
+        key.pollEvents();
+        key.reset();
+    }
+
+    /**
+     * Reloads every source whose file changed since it was last loaded.
+     */
+    void reloadChanged() {
+        for (Source source : sources) {
+            if (source.changed()) {
+                logger.info("Ahoy! {} changed, reloading {}", source.file, source.name);
+                boolean published = source.reload.getAsBoolean();
+                logger.debug("Reload of {} {}", source.name, published ? "published" : "published nothing new");
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays catalog layout: one primitive array per numeric field and dictionary-encoded genre, director and
+ * icon columns, with ids resolved through a primitive {@link LongIntMap}. Genre sets are kept once per distinct genre.
+ * There are no per-title objects, so large catalogs avoid object headers, boxed ids and repeated strings,
+ * and column scans read contiguous arrays. {@link Movie} instances are only built when a caller asks for one.
+ */
+final class ColumnarMovieStore implements MovieStore {
+
+    private final int size;
+    private final long[] ids;
+    private final String[] movieNames;
+    private final int[] directorCodes;
+    private final String[] directorDictionary;
+    private final int[] years;
+    private final int[] genreCodes;
+    private final String[] genreDictionary;
+    private final List<String>[] genreSets;
+    private final int[] iconCodes;
+    private final String[] iconDictionary;
+    private final String[] descriptions;
+    private final int[] durations;
+    private final double[] imdbRatings;
+    private final LongIntMap ordinalById;
+
+    private ColumnarMovieStore(ColumnarBuilder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.movieNames = Arrays.copyOf(builder.movieNames, size);
+        this.directorCodes = Arrays.copyOf(builder.directorCodes, size);
+        this.directorDictionary = builder.directors.toArray(new String[0]);
+        this.years = Arrays.copyOf(builder.years, size);
+        this.genreCodes = Arrays.copyOf(builder.genreCodes, size);
+        this.genreDictionary = builder.genres.toArray(new String[0]);
+        this.genreSets = builder.genreSets.toArray(newGenreSets(0));
+        this.iconCodes = Arrays.copyOf(builder.iconCodes, size);
+        this.iconDictionary = builder.icons.toArray(new String[0]);
+        this.descriptions = Arrays.copyOf(builder.descriptions, size);
+        this.durations = Arrays.copyOf(builder.durations, size);
+        this.imdbRatings = Arrays.copyOf(builder.imdbRatings, size);
+        this.ordinalById = new LongIntMap(size);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            ordinalById.put(ids[ordinal], ordinal);
+        }
+    }
+
+    static Builder builder() {
+        return new ColumnarBuilder();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newGenreSets(int size) {
+        return (List<String>[]) new List<?>[size];
+    }
+
+    static MovieStore of(List<Movie> movies) {
+        Builder builder = builder();
+        movies.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int ordinalOf(long id) {
+        return ordinalById.get(id);
+    }
+
+    @Override
+    public Movie movieAt(int ordinal) {
+        return new Movie(ids[ordinal], movieNames[ordinal], director(ordinal), years[ordinal], genre(ordinal),
+                         descriptions[ordinal], durations[ordinal], imdbRatings[ordinal], icon(ordinal), genres(ordinal));
+    }
+
+    @Override
+    public long id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    @Override
+    public String movieName(int ordinal) {
+        return movieNames[ordinal];
+    }
+
+    @Override
+    public String director(int ordinal) {
+        return directorDictionary[directorCodes[ordinal]];
+    }
+
+    @Override
+    public int year(int ordinal) {
+        return years[ordinal];
+    }
+
+    @Override
+    public String genre(int ordinal) {
+        return genreDictionary[genreCodes[ordinal]];
+    }
+
+    @Override
+    public String description(int ordinal) {
+        return descriptions[ordinal];
+    }
+
+    @Override
+    public int duration(int ordinal) {
+        return durations[ordinal];
+    }
+
+    @Override
+    public double imdbRating(int ordinal) {
+        return imdbRatings[ordinal];
+    }
+
+    @Override
+    public String icon(int ordinal) {
+        return iconDictionary[iconCodes[ordinal]];
+    }
+
+    @Override
+    public List<String> genres(int ordinal) {
+        return genreSets[genreCodes[ordinal]];
+    }
+
+    private static final class ColumnarBuilder implements Builder {
+        private int size;
+        private long[] ids = new long[16];
+        private String[] movieNames = new String[16];
+        private int[] directorCodes = new int[16];
+        private int[] years = new int[16];
+        private int[] genreCodes = new int[16];
+        private int[] iconCodes = new int[16];
+        private String[] descriptions = new String[16];
+        private int[] durations = new int[16];
+        private double[] imdbRatings = new double[16];
+        private final List<String> directors = new ArrayList<>();
+        private final Map<String, Integer> directorCodeByName = new HashMap<>();
+        private final List<String> genres = new ArrayList<>();
+        private final Map<String, Integer> genreCodeByName = new HashMap<>();
+        private final List<List<String>> genreSets = new ArrayList<>();
+        private final List<String> icons = new ArrayList<>();
+        private final Map<String, Integer> iconCodeByName = new HashMap<>();
+
+        @Override
+        public void add(Movie movie) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                movieNames = Arrays.copyOf(movieNames, capacity);
+                directorCodes = Arrays.copyOf(directorCodes, capacity);
+                years = Arrays.copyOf(years, capacity);
+                genreCodes = Arrays.copyOf(genreCodes, capacity);
+                iconCodes = Arrays.copyOf(iconCodes, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+                imdbRatings = Arrays.copyOf(imdbRatings, capacity);
+            }
+            ids[size] = movie.getId();
+            movieNames[size] = movie.getMovieName();
+            directorCodes[size] = encode(movie.getDirector(), directors, directorCodeByName);
+            years[size] = movie.getYear();
+            genreCodes[size] = encode(movie.getGenre(), genres, genreCodeByName);
+            if (genreCodes[size] == genreSets.size()) {
+                genreSets.add(movie.getGenres());
+            }
+            iconCodes[size] = encode(movie.getIcon(), icons, iconCodeByName);
+            descriptions[size] = movie.getDescription();
+            durations[size] = movie.getDuration();
+            imdbRatings[size] = movie.getImdbRating();
+            size++;
+        }
+
+        private static int encode(String value, List<String> dictionary, Map<String, Integer> codes) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        @Override
+        public MovieStore build() {
+            return new ColumnarMovieStore(this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers conditional GETs on the movie list, search, suggest and details endpoints before the controller runs.
+ * Responses carry a strong ETag built from the catalog and review fingerprints (lists, searches and details carry
+ * audience scores or reviews) and a Last-Modified from the later load time; suggestions hold catalog data only, so
+ * theirs follow the catalog alone and posting a review does not invalidate them. A matching If-None-Match or
+ * If-Modified-Since gets a 304 without searching or rendering. Each endpoint gets its own configurable Cache-Control
+ * policy.
+ */
+@Component
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LogManager.getLogger(ConditionalRequestInterceptor.class);
+
+    static final String LIST_PATTERN = "/movies";
+    static final String SEARCH_PATTERN = "/movies/search";
+    static final String FACETS_PATTERN = "/movies/facets";
+    static final String DETAILS_PATTERN = "/movies/{id}/details";
+    static final String SUGGEST_PATTERN = "/movies/suggest";
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Value("${movies.http.etag-salt:}")
+    private String etagSalt = "";
+
+    @Value("${movies.http.cache-control.list:no-cache}")
+    private String listCacheControl = "no-cache";
+
+    @Value("${movies.http.cache-control.search:no-cache}")
+    private String searchCacheControl = "no-cache";
+
+    @Value("${movies.http.cache-control.details:no-cache}")
+    private String detailsCacheControl = "no-cache";
+
+    @Value("${movies.http.cache-control.suggest:max-age=60}")
+    private String suggestCacheControl = "max-age=60";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String cacheControl;
+        if (LIST_PATTERN.equals(pattern)) {
+            cacheControl = listCacheControl;
+        } else if (SEARCH_PATTERN.equals(pattern) || FACETS_PATTERN.equals(pattern)) {
+            cacheControl = searchCacheControl;
+        } else if (DETAILS_PATTERN.equals(pattern)) {
+            cacheControl = detailsCacheControl;
+        } else if (SUGGEST_PATTERN.equals(pattern)) {
+            cacheControl = suggestCacheControl;
+        } else {
+            return true;
+        }
+        DataVersion catalog = movieService.getCatalogVersion();
+        String etag;
+        long lastModified;
+        if (SUGGEST_PATTERN.equals(pattern)) {
+            etag = etag("c", catalog.getTag());
+            lastModified = catalog.getLoadedAt();
+        } else {
+            // The other endpoints carry audience scores or reviews, so both fingerprints go into the tag
+            DataVersion reviews = reviewService.getReviewVersion();
+            etag = etag("c", catalog.getTag(), "r", reviews.getTag());
+            lastModified = Math.max(catalog.getLoadedAt(), reviews.getLoadedAt());
+        }
+
+        if (cacheControl != null && !cacheControl.trim().isEmpty()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.trim());
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            logger.debug("Arrr! {} not modified since {}, answering 304", request.getRequestURI(), etag);
+            return false;
+        }
+        return true;
+    }
+
+    private String etag(String... parts) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            tag.append(i == 0 ? "" : "-").append(parts[i]);
+        }
+        if (etagSalt != null && !etagSalt.trim().isEmpty()) {
+            tag.append("-").append(etagSalt.trim());
+        }
+        return tag.append('"').toString();
+    }
+}
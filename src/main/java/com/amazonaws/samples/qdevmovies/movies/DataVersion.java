@@ -0,0 +1,90 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Version of a loaded data set (the catalog or the reviews): a fingerprint of its content and the time it was loaded.
+ * The fingerprint only changes when the data does, so it stays the same across restarts and instances and can be
+ * used in strong ETags; the load time serves as Last-Modified.
+ */
+public final class DataVersion {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String tag;
+    private final long loadedAt;
+
+    private DataVersion(String tag, long loadedAt) {
+        this.tag = tag;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * @return hex fingerprint of the data content
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return epoch milliseconds at which the data was loaded
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return the version of data whose fingerprint was taken ahead of time, loaded now
+     */
+    static DataVersion loaded(String tag) {
+        return new DataVersion(tag, System.currentTimeMillis());
+    }
+
+    static Fingerprint fingerprint() {
+        return new Fingerprint();
+    }
+
+    /**
+     * Order-sensitive 64-bit FNV-1a style hash over the fields of a data set.
+     */
+    static final class Fingerprint {
+        private long hash = FNV_OFFSET;
+        private long count;
+
+        private Fingerprint() {
+        }
+
+        Fingerprint add(long value) {
+            hash = (hash ^ value) * FNV_PRIME;
+            return this;
+        }
+
+        Fingerprint add(double value) {
+            return add(Double.doubleToLongBits(value));
+        }
+
+        /**
+         * Mixes in every char of the string, then its length so neighbouring fields cannot run into each other.
+         * Null is told apart from every string by a length no string has.
+         */
+        Fingerprint add(String value) {
+            if (value == null) {
+                return add(-1L);
+            }
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+            return add((long) value.length());
+        }
+
+        /**
+         * Marks the end of one record, so the record count is part of the fingerprint.
+         */
+        Fingerprint endRecord() {
+            count++;
+            return add(count);
+        }
+
+        DataVersion toVersion() {
+            return new DataVersion(Long.toHexString(hash), System.currentTimeMillis());
+        }
+    }
+}
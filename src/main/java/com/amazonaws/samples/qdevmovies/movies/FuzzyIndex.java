@@ -0,0 +1,296 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Typo-tolerant word index over short text fields (titles and directors).
+ *
+ * The distinct words of the indexed fields are kept sorted, each with the ascending ordinals containing it. A query
+ * word is looked up by walking the sorted words with a Levenshtein automaton (one edit-distance row per prefix
+ * character, adjacent transpositions counting as one edit): rows are shared between words with a common prefix,
+ * and once a prefix is out of reach every word starting with it is skipped with a binary search. The cost follows
+ * the number of prefixes within reach, not the size of the dictionary or the catalog.
+ */
+final class FuzzyIndex {
+    static final int DEFAULT_MAX_EDITS = 2;
+    /** Bounds the automaton walk; three edits already reach most short words. */
+    static final int MAX_EDITS_LIMIT = 3;
+    private static final int[] NO_MATCHES = new int[0];
+
+    /**
+     * Ascending matching ordinals, with the summed edit distance of the query words for each.
+     */
+    static final class Matches {
+        static final Matches NONE = new Matches(NO_MATCHES, NO_MATCHES);
+
+        final int[] ordinals;
+        final int[] edits;
+
+        Matches(int[] ordinals, int[] edits) {
+            this.ordinals = ordinals;
+            this.edits = edits;
+        }
+    }
+
+    private final String[] terms;
+    private final int[][] postings;
+    private final int maxEdits;
+
+    private FuzzyIndex(String[] terms, int[][] postings, int maxEdits) {
+        this.terms = terms;
+        this.postings = postings;
+        this.maxEdits = maxEdits;
+    }
+
+    /**
+     * @param maxEdits most edits forgiven per query word; shorter words are allowed fewer (see {@link #allowedEdits})
+     * @throws IllegalArgumentException if maxEdits is negative or above {@link #MAX_EDITS_LIMIT}
+     */
+    static FuzzyIndex build(int size, List<IntFunction<String>> fields, int maxEdits) {
+        if (maxEdits < 0 || maxEdits > MAX_EDITS_LIMIT) {
+            throw new IllegalArgumentException("movies.search.fuzzy.max-edits must be between 0 and "
+                                               + MAX_EDITS_LIMIT + ": " + maxEdits);
+        }
+        Map<String, IntList> byTerm = new HashMap<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (IntFunction<String> field : fields) {
+                for (String term : TextIndex.tokenize(field.apply(ordinal))) {
+                    IntList posting = byTerm.computeIfAbsent(term, t -> new IntList());
+                    if (posting.isEmpty() || posting.last() != ordinal) {
+                        posting.add(ordinal);
+                    }
+                }
+            }
+        }
+        String[] terms = byTerm.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[][] postings = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            postings[i] = byTerm.get(terms[i]).toArray();
+        }
+        return new FuzzyIndex(terms, postings, maxEdits);
+    }
+
+    /**
+     * Edits forgiven for one query word: none up to 2 characters or for numbers, one up to 5, two up to 9 and
+     * three beyond, never more than the configured maximum. Short words and sequel numbers are too easily turned
+     * into other real words by a single edit.
+     */
+    int allowedEdits(String word) {
+        boolean number = word.chars().allMatch(Character::isDigit);
+        if (number || word.length() <= 2) {
+            return 0;
+        }
+        int edits = word.length() <= 5 ? 1 : word.length() <= 9 ? 2 : 3;
+        return Math.min(maxEdits, edits);
+    }
+
+    /**
+     * Finds the ordinals that contain, for every query word, some word within its allowed edits.
+     */
+    Matches search(String query) {
+        List<String> words = TextIndex.tokenize(query);
+        if (words.isEmpty()) {
+            return Matches.NONE;
+        }
+        Matches result = null;
+        for (String word : words) {
+            Matches wordMatches = match(word, allowedEdits(word));
+            result = result == null ? wordMatches : intersect(result, wordMatches);
+            if (result.ordinals.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Orders matches closest first, ties in catalog order.
+     *
+     * @param allowed ascending ordinals the results must come from, or null for all matches
+     * @return the best {@code k} ordinals with their edit distances as scores, and the number of matches
+     */
+    static TextIndex.TopHits closest(Matches matches, int[] allowed, int k) {
+        long[] keyed = new long[matches.ordinals.length];
+        int total = 0;
+        for (int i = 0; i < matches.ordinals.length; i++) {
+            int ordinal = matches.ordinals[i];
+            if (allowed == null || Arrays.binarySearch(allowed, ordinal) >= 0) {
+                keyed[total++] = ((long) matches.edits[i] << 32) | ordinal;
+            }
+        }
+        Arrays.sort(keyed, 0, total);
+        int count = Math.max(0, Math.min(k, total));
+        int[] ordinals = new int[count];
+        float[] edits = new float[count];
+        for (int i = 0; i < count; i++) {
+            ordinals[i] = (int) keyed[i];
+            edits[i] = (float) (keyed[i] >>> 32);
+        }
+        return new TextIndex.TopHits(ordinals, edits, total);
+    }
+
+    /**
+     * Unions the postings of every dictionary word within {@code edits} of the query word,
+     * keeping each ordinal's closest distance.
+     */
+    private Matches match(String word, int edits) {
+        int[] found = withinDistance(word, edits);
+        int count = 0;
+        for (int i = 0; i < found.length; i += 2) {
+            count += postings[found[i]].length;
+        }
+        // Distance in the low bits, so sorting puts each ordinal's closest match first
+        long[] keyed = new long[count];
+        int size = 0;
+        for (int i = 0; i < found.length; i += 2) {
+            for (int ordinal : postings[found[i]]) {
+                keyed[size++] = ((long) ordinal << 8) | found[i + 1];
+            }
+        }
+        Arrays.sort(keyed);
+        int[] ordinals = new int[size];
+        int[] distances = new int[size];
+        int distinct = 0;
+        for (long key : keyed) {
+            int ordinal = (int) (key >>> 8);
+            if (distinct == 0 || ordinals[distinct - 1] != ordinal) {
+                ordinals[distinct] = ordinal;
+                distances[distinct++] = (int) (key & 0xFF);
+            }
+        }
+        return new Matches(Arrays.copyOf(ordinals, distinct), Arrays.copyOf(distances, distinct));
+    }
+
+    /**
+     * Walks the sorted dictionary with an optimal-string-alignment automaton for the word.
+     *
+     * @return pairs of (term index, distance) for every term within {@code edits}
+     */
+    int[] withinDistance(String word, int edits) {
+        int m = word.length();
+        int maxDepth = m + edits;
+        int[][] rows = new int[maxDepth + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+        IntList found = new IntList();
+        String previous = "";
+        int valid = 0;
+        int i = 0;
+        while (i < terms.length) {
+            String term = terms[i];
+            int depth = Math.min(valid, commonPrefix(previous, term));
+            int limit = Math.min(term.length(), maxDepth);
+            boolean outOfReach = false;
+            while (depth < limit) {
+                depth++;
+                if (computeRow(rows, depth, term, word) > edits) {
+                    outOfReach = true;
+                    break;
+                }
+            }
+            previous = term;
+            if (outOfReach || term.length() > maxDepth) {
+                // No word sharing this prefix can come within reach: longer words only add edits
+                valid = outOfReach ? depth - 1 : depth;
+                i = endOfPrefix(term.substring(0, depth), i);
+                continue;
+            }
+            if (rows[depth][m] <= edits) {
+                found.add(i);
+                found.add(rows[depth][m]);
+            }
+            valid = depth;
+            i++;
+        }
+        return found.toArray();
+    }
+
+    /**
+     * Fills the row for the term's prefix of length {@code depth} from the rows above it.
+     *
+     * @return the smallest distance in the row; no extension of the prefix can get closer than it
+     */
+    private static int computeRow(int[][] rows, int depth, String term, String word) {
+        int[] row = rows[depth];
+        int[] above = rows[depth - 1];
+        char c = term.charAt(depth - 1);
+        row[0] = depth;
+        int min = depth;
+        for (int j = 1; j < row.length; j++) {
+            int cost = word.charAt(j - 1) == c ? 0 : 1;
+            int distance = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+            if (depth > 1 && j > 1 && c == word.charAt(j - 2) && term.charAt(depth - 2) == word.charAt(j - 1)) {
+                distance = Math.min(distance, rows[depth - 2][j - 2] + 1);
+            }
+            row[j] = distance;
+            min = Math.min(min, distance);
+        }
+        return min;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the index of the first term after {@code from} that does not start with the prefix
+     */
+    private int endOfPrefix(String prefix, int from) {
+        int position = Arrays.binarySearch(terms, from, terms.length, prefix + Character.MAX_VALUE);
+        return position < 0 ? -position - 1 : position + 1;
+    }
+
+    private static Matches intersect(Matches left, Matches right) {
+        int[] ordinals = new int[Math.min(left.ordinals.length, right.ordinals.length)];
+        int[] edits = new int[ordinals.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.ordinals.length && j < right.ordinals.length) {
+            if (left.ordinals[i] < right.ordinals[j]) {
+                i++;
+            } else if (left.ordinals[i] > right.ordinals[j]) {
+                j++;
+            } else {
+                ordinals[size] = left.ordinals[i];
+                edits[size++] = left.edits[i++] + right.edits[j++];
+            }
+        }
+        return new Matches(Arrays.copyOf(ordinals, size), Arrays.copyOf(edits, size));
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
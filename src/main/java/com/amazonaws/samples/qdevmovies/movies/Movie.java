@@ -1,6 +1,8 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
 
 public class Movie {
 
@@ -12,8 +14,24 @@ public class Movie {
     private final String description;
     private final int duration;
     private final double imdbRating;
+    private final String icon;
+    private final List<String> genres;
+    private final ReviewSummary audience;
 
+    /**
+     * Builds a movie from its raw fields and derives its icon and genre set (see {@link MovieEnricher}).
+     */
     public Movie(long id, String movieName, String director, int year, String genre, String description, int duration, double imdbRating) {
+        this(id, movieName, director, year, genre, description, duration, imdbRating,
+             MovieEnricher.icon(movieName), MovieEnricher.genres(genre));
+    }
+
+    /**
+     * Builds a movie whose derived fields were computed when the catalog was loaded, as stores do when they
+     * materialize a movie.
+     */
+    Movie(long id, String movieName, String director, int year, String genre, String description, int duration,
+          double imdbRating, String icon, List<String> genres) {
         this.id = id;
         this.movieName = movieName;
         this.director = director;
@@ -22,6 +40,30 @@ public class Movie {
         this.description = description;
         this.duration = duration;
         this.imdbRating = imdbRating;
+        this.icon = icon;
+        this.genres = genres;
+        this.audience = null;
+    }
+
+    private Movie(Movie movie, ReviewSummary audience) {
+        this.id = movie.id;
+        this.movieName = movie.movieName;
+        this.director = movie.director;
+        this.year = movie.year;
+        this.genre = movie.genre;
+        this.description = movie.description;
+        this.duration = movie.duration;
+        this.imdbRating = movie.imdbRating;
+        this.icon = movie.icon;
+        this.genres = movie.genres;
+        this.audience = audience;
+    }
+
+    /**
+     * @return a copy of this movie carrying its audience-rating aggregate
+     */
+    public Movie withAudience(ReviewSummary audience) {
+        return new Movie(this, audience);
     }
 
     public long getId() {
@@ -56,7 +98,22 @@ public class Movie {
         return this.imdbRating;
     }
 
+    /**
+     * @return review count, mean and histogram, or null when the movie has no reviews
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public ReviewSummary getAudience() {
+        return this.audience;
+    }
+
     public String getIcon() {
-        return MovieIconUtils.getMovieIcon(this.movieName);
+        return this.icon;
+    }
+
+    /**
+     * @return the parts of the genre, e.g. ["Crime", "Drama"] for "Crime/Drama"
+     */
+    public List<String> getGenres() {
+        return this.genres;
     }
 }
@@ -0,0 +1,165 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContextWrapper;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arrr! Bounded LRU cache of rendered movie cards for the list page, keyed by movie id under one catalog version.
+ * A card only changes with the catalog or the movie's audience summary, so a page of cards is built by
+ * concatenating cached HTML and only the cards missing from the cache run through Thymeleaf.
+ *
+ * A card stores the audience summary it was rendered with and is re-rendered once that summary changes. All entries
+ * are dropped when a page arrives for a different catalog version. Cards render with English number formatting
+ * whatever the request's locale, since they are shared across requests.
+ * Access is guarded by the cache's own lock, taken twice per page; rendering happens outside it.
+ */
+@Component
+public class MovieCardCache {
+    static final String TEMPLATE = "fragments/movie-card";
+    private static final Set<String> CARD_FRAGMENT = Collections.singleton("card");
+
+    private final ITemplateEngine templateEngine;
+    private final int maxEntries;
+    private final String contextPath;
+    private final LinkedHashMap<Long, Card> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private String catalogVersion;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxEntries most cards kept; 0 renders every card on every request
+     * @param contextPath servlet context path the cards' links start with
+     */
+    @Autowired
+    public MovieCardCache(ITemplateEngine templateEngine,
+                          @Value("${movies.view.card-cache.max-entries:10000}") int maxEntries,
+                          @Value("${server.servlet.context-path:}") String contextPath) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Card cache size must not be negative");
+        }
+        this.templateEngine = templateEngine;
+        this.maxEntries = maxEntries;
+        this.contextPath = contextPath == null ? "" : contextPath;
+    }
+
+    /**
+     * @return the cards of the movies, in order, as one HTML string
+     */
+    public String cards(List<Movie> movies, DataVersion version) {
+        String[] cards = new String[movies.size()];
+        int missing = 0;
+        synchronized (this) {
+            if (!version.getTag().equals(catalogVersion)) {
+                entries.clear();
+                catalogVersion = version.getTag();
+            }
+            for (int i = 0; i < cards.length; i++) {
+                Movie movie = movies.get(i);
+                Card card = entries.get(movie.getId());
+                if (card != null && card.renderedWith(movie.getAudience())) {
+                    cards[i] = card.html;
+                    hits++;
+                } else {
+                    missing++;
+                    misses++;
+                }
+            }
+        }
+
+        if (missing > 0) {
+            Map<Long, Card> rendered = new LinkedHashMap<>(missing * 2);
+            // One SpEL context for the whole page, as a th:each would use, keeps its property accessor cache warm
+            ThymeleafEvaluationContextWrapper evaluation = new ThymeleafEvaluationContextWrapper(new StandardEvaluationContext());
+            for (int i = 0; i < cards.length; i++) {
+                if (cards[i] == null) {
+                    Movie movie = movies.get(i);
+                    cards[i] = render(movie, evaluation);
+                    rendered.put(movie.getId(), new Card(cards[i], movie.getAudience()));
+                }
+            }
+            store(rendered, version);
+        }
+
+        int length = 0;
+        for (String card : cards) {
+            length += card.length();
+        }
+        StringBuilder page = new StringBuilder(length);
+        for (String card : cards) {
+            page.append(card);
+        }
+        return page.toString();
+    }
+
+    String render(Movie movie) {
+        return render(movie, new ThymeleafEvaluationContextWrapper(new StandardEvaluationContext()));
+    }
+
+    private String render(Movie movie, ThymeleafEvaluationContextWrapper evaluation) {
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME, evaluation);
+        context.setVariable("movie", movie);
+        context.setVariable("contextPath", contextPath);
+        return templateEngine.process(TEMPLATE, CARD_FRAGMENT, context);
+    }
+
+    private synchronized void store(Map<Long, Card> rendered, DataVersion version) {
+        // A page for a newer catalog may have cleared the cache while these cards were rendering
+        if (maxEntries == 0 || !version.getTag().equals(catalogVersion)) {
+            return;
+        }
+        entries.putAll(rendered);
+        Iterator<Card> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Rendered card HTML and the audience numbers it shows.
+     */
+    private static final class Card {
+        private final String html;
+        private final int audienceCount;
+        private final double audienceAverage;
+
+        private Card(String html, ReviewSummary audience) {
+            this.html = html;
+            this.audienceCount = audience == null ? 0 : audience.getCount();
+            this.audienceAverage = audience == null ? 0 : audience.getAverageRating();
+        }
+
+        boolean renderedWith(ReviewSummary audience) {
+            int count = audience == null ? 0 : audience.getCount();
+            double average = audience == null ? 0 : audience.getAverageRating();
+            return count == audienceCount && Double.compare(average, audienceAverage) == 0;
+        }
+    }
+}
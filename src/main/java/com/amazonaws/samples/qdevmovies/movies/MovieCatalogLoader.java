@@ -0,0 +1,249 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Streams a movies.json-style catalog one record at a time, so only the current record is ever held as a JSON tree.
+ * Records that are not valid movies are skipped and counted instead of failing the whole catalog.
+ * An external file may also be a {@link BinaryCatalog}, which is memory-mapped instead of parsed.
+ */
+final class MovieCatalogLoader {
+    private static final Logger logger = LogManager.getLogger(MovieCatalogLoader.class);
+    static final String CLASSPATH_CATALOG = "movies.json";
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private MovieCatalogLoader() {
+    }
+
+    /**
+     * Loads the catalog from an external file, or from the bundled movies.json when no location is configured.
+     * A missing or unreadable external file falls back to the bundled catalog so the service never starts empty.
+     */
+    static Result load(String catalogLocation) {
+        return load(catalogLocation, ObjectMovieStore::builder);
+    }
+
+    /**
+     * Loads the catalog into the store layout produced by the given builder factory.
+     */
+    static Result load(String catalogLocation, Supplier<MovieStore.Builder> storeBuilder) {
+        if (catalogLocation != null && !catalogLocation.trim().isEmpty()) {
+            Path catalogPath = Paths.get(catalogLocation.trim());
+            try {
+                return report(readFile(catalogPath, storeBuilder), catalogPath.toString());
+            } catch (IOException e) {
+                logger.error("Failed to read movie catalog {}, falling back to bundled {}: {}",
+                            catalogPath, CLASSPATH_CATALOG, e.getMessage());
+            }
+        }
+        try (InputStream inputStream = MovieCatalogLoader.class.getClassLoader().getResourceAsStream(CLASSPATH_CATALOG)) {
+            if (inputStream == null) {
+                logger.error("Bundled movie catalog {} not found", CLASSPATH_CATALOG);
+                return new Result(storeBuilder.get().build(), 0, Collections.emptyList(), false);
+            }
+            Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            return report(read(reader, storeBuilder.get()), "classpath:" + CLASSPATH_CATALOG);
+        } catch (IOException e) {
+            logger.error("Failed to read bundled movie catalog: {}", e.getMessage());
+            return new Result(storeBuilder.get().build(), 0, Collections.emptyList(), false);
+        }
+    }
+
+    /**
+     * Reads the catalog with nothing to fall back on, for reloads and the catalog compiler: a source that cannot be
+     * read, or that stops at a syntax error (typically a file caught mid-write), is an error, so a reload keeps the
+     * catalog it has. Malformed records are skipped as on startup.
+     *
+     * @throws IOException if the catalog cannot be read or is cut short
+     */
+    static Result loadStrict(String catalogLocation, Supplier<MovieStore.Builder> storeBuilder) throws IOException {
+        Result result;
+        String source;
+        if (catalogLocation != null && !catalogLocation.trim().isEmpty()) {
+            Path catalogPath = Paths.get(catalogLocation.trim());
+            source = catalogPath.toString();
+            result = readFile(catalogPath, storeBuilder);
+        } else {
+            source = "classpath:" + CLASSPATH_CATALOG;
+            try (InputStream inputStream = MovieCatalogLoader.class.getClassLoader().getResourceAsStream(CLASSPATH_CATALOG)) {
+                if (inputStream == null) {
+                    throw new FileNotFoundException(source);
+                }
+                result = read(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+                              storeBuilder.get());
+            }
+        }
+        if (!result.isComplete()) {
+            List<String> errors = result.getErrors();
+            throw new IOException(source + " is incomplete: " + errors.get(errors.size() - 1));
+        }
+        return report(result, source);
+    }
+
+    /**
+     * Reads an external catalog: a binary catalog compiled by {@link CatalogCompiler} is mapped as it is, and the
+     * builder is not used; anything else is read as JSON.
+     */
+    private static Result readFile(Path catalogPath, Supplier<MovieStore.Builder> storeBuilder) throws IOException {
+        if (BinaryCatalog.isBinaryCatalog(catalogPath)) {
+            return new Result(BinaryCatalog.open(catalogPath).movies(), 0, Collections.emptyList(), true);
+        }
+        try (Reader reader = Files.newBufferedReader(catalogPath, StandardCharsets.UTF_8)) {
+            return read(reader, storeBuilder.get());
+        }
+    }
+
+    /**
+     * Reads a JSON array of movie records. A record that is not an object, lacks a field, has the wrong type
+     * or repeats an earlier id is skipped. A syntax error ends the stream, keeping the records read so far.
+     */
+    static Result read(Reader reader) {
+        return read(reader, ObjectMovieStore.builder());
+    }
+
+    /**
+     * Reads a JSON array of movie records, adding each accepted movie to the builder as soon as it is parsed.
+     */
+    static Result read(Reader reader, MovieStore.Builder store) {
+        List<String> errors = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        int skipped = 0;
+        boolean complete = false;
+        JSONTokener tokener = new JSONTokener(reader);
+        int recordNumber = 0;
+        try {
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("Movie catalog must be a JSON array");
+            }
+            if (tokener.nextClean() == ']') {
+                complete = true;
+            } else {
+                tokener.back();
+            }
+            while (!complete) {
+                recordNumber++;
+                Object record = tokener.nextValue();
+                String error = null;
+                if (!(record instanceof JSONObject)) {
+                    error = "record is not a JSON object";
+                } else {
+                    try {
+                        Movie movie = toMovie((JSONObject) record);
+                        if (movie.getId() <= 0 || movie.getMovieName().trim().isEmpty()) {
+                            error = "record needs a positive id and a movie name";
+                        } else if (!seenIds.add(movie.getId())) {
+                            error = "duplicate id " + movie.getId();
+                        } else {
+                            store.add(movie);
+                        }
+                    } catch (JSONException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (error != null) {
+                    skipped++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("record " + recordNumber + ": " + error);
+                    }
+                }
+
+                char separator = tokener.nextClean();
+                if (separator == ']') {
+                    complete = true;
+                } else if (separator != ',') {
+                    throw tokener.syntaxError("Expected ',' or ']' after record " + recordNumber);
+                }
+            }
+        } catch (JSONException e) {
+            errors.add("catalog truncated: " + e.getMessage());
+        }
+        return new Result(store.build(), skipped, Collections.unmodifiableList(errors), complete);
+    }
+
+    private static Movie toMovie(JSONObject movieObj) {
+        return new Movie(
+            movieObj.getLong("id"),
+            movieObj.getString("movieName"),
+            movieObj.getString("director"),
+            movieObj.getInt("year"),
+            movieObj.getString("genre"),
+            movieObj.getString("description"),
+            movieObj.getInt("duration"),
+            movieObj.getDouble("imdbRating")
+        );
+    }
+
+    private static Result report(Result result, String source) {
+        if (result.getSkipped() == 0 && result.isComplete()) {
+            logger.info("Loaded {} movies from {}", result.getMovies().size(), source);
+        } else {
+            logger.warn("Loaded {} movies from {}, skipped {} malformed records{}", result.getMovies().size(), source,
+                       result.getSkipped(), result.isComplete() ? "" : " and stopped at a syntax error");
+            for (String error : result.getErrors()) {
+                logger.warn("Catalog problem in {}: {}", source, error);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Outcome of a catalog load: the store of accepted movies plus counts and a sample of what was rejected.
+     */
+    static final class Result {
+        private final MovieStore store;
+        private final int skipped;
+        private final List<String> errors;
+        private final boolean complete;
+
+        Result(MovieStore store, int skipped, List<String> errors, boolean complete) {
+            this.store = store;
+            this.skipped = skipped;
+            this.errors = errors;
+            this.complete = complete;
+        }
+
+        MovieStore getStore() {
+            return store;
+        }
+
+        List<Movie> getMovies() {
+            return store.asList();
+        }
+
+        int getSkipped() {
+            return skipped;
+        }
+
+        List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return false if reading stopped early at a syntax error or the source could not be read
+         */
+        boolean isComplete() {
+            return complete;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * Everything the movie-details page shows for one movie, as assembled by {@link MovieDetailsAssembler}.
+ */
+public class MovieDetails {
+    private final Movie movie;
+    private final String icon;
+    private final List<Review> reviews;
+    private final boolean reviewsAvailable;
+
+    public MovieDetails(Movie movie, String icon, List<Review> reviews, boolean reviewsAvailable) {
+        this.movie = movie;
+        this.icon = icon;
+        this.reviews = reviews;
+        this.reviewsAvailable = reviewsAvailable;
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    /**
+     * @return false if the review lookup timed out or failed and the page shows no reviews as a fallback
+     */
+    public boolean isReviewsAvailable() {
+        return reviewsAvailable;
+    }
+}
@@ -0,0 +1,156 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.Metrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Arrr! Assembles the movie-details page once the movie itself is found. Its icon was resolved when the catalog was
+ * loaded; the reviews are fetched on an executor with their own timeout, and a lookup that times out, fails or is
+ * rejected by a full executor falls back to none, so the page still renders without that part.
+ *
+ * Lookups run on a bounded thread pool, or on virtual threads when {@code movies.details.executor=virtual}
+ * and the JDK provides them (Java 21+); on older JDKs the bounded pool is used instead.
+ */
+@Component
+public class MovieDetailsAssembler implements DisposableBean {
+    private static final Logger logger = LogManager.getLogger(MovieDetailsAssembler.class);
+    static final String EXECUTOR_PLATFORM = "platform";
+    static final String EXECUTOR_VIRTUAL = "virtual";
+
+    private final MovieService movieService;
+    private final ReviewService reviewService;
+    private final ExecutorService executor;
+    private final long reviewTimeoutMillis;
+
+    @Autowired
+    public MovieDetailsAssembler(MovieService movieService, ReviewService reviewService,
+                                 @Value("${movies.details.executor:platform}") String executorType,
+                                 @Value("${movies.details.threads:16}") int threads,
+                                 @Value("${movies.details.queue:256}") int queueCapacity,
+                                 @Value("${movies.details.review-timeout-ms:250}") long reviewTimeoutMillis) {
+        this(movieService, reviewService, createExecutor(executorType, threads, queueCapacity), reviewTimeoutMillis);
+    }
+
+    MovieDetailsAssembler(MovieService movieService, ReviewService reviewService, ExecutorService executor,
+                          long reviewTimeoutMillis) {
+        this.movieService = movieService;
+        this.reviewService = reviewService;
+        this.executor = executor;
+        this.reviewTimeoutMillis = reviewTimeoutMillis;
+    }
+
+    /**
+     * Bounded pool for the lookups: a full queue rejects new work, which the assembler treats as a fallback.
+     */
+    static ExecutorService boundedExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "movie-details-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    static ExecutorService createExecutor(String executorType, int threads, int queueCapacity) {
+        if (EXECUTOR_VIRTUAL.equalsIgnoreCase(executorType)) {
+            try {
+                // Looked up reflectively so the build can keep targeting Java 8
+                ExecutorService virtual = (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                logger.info("Ahoy! Movie details lookups run on virtual threads");
+                return virtual;
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads need Java 21+, using a bounded pool of {} threads instead", threads);
+            }
+        } else if (!EXECUTOR_PLATFORM.equalsIgnoreCase(executorType)) {
+            throw new IllegalArgumentException("Unknown movies.details.executor '" + executorType + "', expected '"
+                                               + EXECUTOR_PLATFORM + "' or '" + EXECUTOR_VIRTUAL + "'");
+        }
+        return boundedExecutor(threads, queueCapacity);
+    }
+
+    /**
+     * Looks up the movie, then fetches its reviews within their timeout.
+     *
+     * @return the assembled details, or empty if there is no movie with this id
+     */
+    public Optional<MovieDetails> assemble(Long movieId) {
+        Optional<Movie> movieOpt = movieService.getMovieById(movieId);
+        if (!movieOpt.isPresent()) {
+            return Optional.empty();
+        }
+        Movie movie = movieOpt.get();
+
+        long start = System.nanoTime();
+        Future<List<Review>> reviews = submit(() -> reviewService.getReviewsForMovie(movie.getId()));
+
+        List<Review> movieReviews = await(reviews, start, reviewTimeoutMillis, "reviews", null);
+        return Optional.of(new MovieDetails(movie, movie.getIcon(),
+            movieReviews != null ? movieReviews : Collections.emptyList(), movieReviews != null));
+    }
+
+    private <T> Future<T> submit(Callable<T> lookup) {
+        try {
+            return executor.submit(lookup);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a lookup until its deadline, measured from when it was submitted.
+     */
+    private <T> T await(Future<T> lookup, long startNanos, long timeoutMillis, String part, T fallback) {
+        String reason;
+        if (lookup == null) {
+            reason = "rejected";
+        } else {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - startNanos);
+            try {
+                return lookup.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                lookup.cancel(true);
+                reason = "timeout";
+            } catch (ExecutionException e) {
+                logger.warn("Movie details {} lookup failed: {}", part, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                reason = "error";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lookup.cancel(true);
+                reason = "interrupted";
+            }
+        }
+        logger.debug("Arrr! Movie details {} lookup {}, rendering without it", part, reason);
+        Metrics.counter("movies.details.fallback", "part", part, "reason", reason).increment();
+        return fallback;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Arrr! Derives the fields a movie's raw record implies: its icon, resolved from the movie-icons.json mapping by
+ * normalized title, and its genre set, from splitting a compound genre such as "Crime/Drama" into its parts.
+ * Each movie is enriched once when it is built from the catalog; stores keep the results beside the raw fields, so
+ * cards, details pages and searches only read them.
+ */
+final class MovieEnricher {
+    static final String GENRE_SEPARATOR = "/";
+
+    private MovieEnricher() {
+    }
+
+    static String icon(String movieName) {
+        return MovieIconUtils.getMovieIcon(movieName);
+    }
+
+    /**
+     * @return the trimmed, non-empty parts of a compound genre in their original order, without repeats
+     */
+    static List<String> genres(String genre) {
+        if (genre == null) {
+            return Collections.emptyList();
+        }
+        Set<String> genres = new LinkedHashSet<>();
+        for (String part : genre.split(GENRE_SEPARATOR)) {
+            if (!part.trim().isEmpty()) {
+                genres.add(part.trim());
+            }
+        }
+        return genres.size() == 1 ? Collections.singletonList(genres.iterator().next())
+            : Collections.unmodifiableList(new ArrayList<>(genres));
+    }
+}
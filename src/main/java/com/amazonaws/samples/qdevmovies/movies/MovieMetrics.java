@@ -0,0 +1,105 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Names and tag helpers for the movie service's Micrometer meters.
+ * Meters are registered on {@link Metrics#globalRegistry}, which Spring Boot wires to the actuator registries;
+ * services built outside Spring (tests, benchmarks) record into an empty composite at almost no cost.
+ */
+final class MovieMetrics {
+    static final String HUNT = "movies.search.hunt";
+    static final String LOOKUP = "movies.lookup";
+    static final String REVIEWS = "movies.reviews.lookup";
+    static final String REVIEW_APPEND = "movies.reviews.append";
+    static final String REVIEW_BATCH = "movies.reviews.commit.batch";
+    static final String REVIEW_APPLY_FAILED = "movies.reviews.apply.failed";
+    static final String RENDER = "movies.view.render";
+    static final String SERIALIZE = "movies.json.serialize";
+    static final String CATALOG_SIZE = "movies.catalog.size";
+    static final String CATALOG_LOAD = "movies.catalog.load.duration";
+    static final String CATALOG_RELOAD = "movies.catalog.reload";
+
+    private static final ConcurrentMap<List<String>, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private MovieMetrics() {
+    }
+
+    /**
+     * A timer with a percentile histogram, so latency distributions can be aggregated across instances.
+     * Timers are registered once per name and tag values and then reused, so hot paths do not build and look up
+     * a meter on every call. Callers keep the tag values low-cardinality.
+     */
+    static Timer timer(String name, String... tags) {
+        String[] key = new String[tags.length + 1];
+        key[0] = name;
+        System.arraycopy(tags, 0, key, 1, tags.length);
+        return TIMERS.computeIfAbsent(Arrays.asList(key), ignored -> Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry));
+    }
+
+    /**
+     * The one criterion that narrows a search the most, e.g. "id" or "genre", or "none". A tag with every
+     * combination of criteria would multiply the histogram series; this keeps it to ten values.
+     */
+    static String primaryFilter(MovieQuery query) {
+        if (query.hasId()) {
+            return "id";
+        }
+        if (query.hasText()) {
+            return "text";
+        }
+        if (query.hasFuzzy()) {
+            return "fuzzy";
+        }
+        if (query.hasName()) {
+            return "name";
+        }
+        if (query.hasGenre()) {
+            return "genre";
+        }
+        if (query.hasYears()) {
+            return "year";
+        }
+        if (query.hasMaxDuration()) {
+            return "duration";
+        }
+        if (query.hasMinRating()) {
+            return "rating";
+        }
+        if (query.hasMinAudience()) {
+            return "audience";
+        }
+        return "none";
+    }
+
+    /**
+     * Coarse result-size bucket, keeping the tag cardinality small.
+     */
+    static String resultBucket(int results) {
+        if (results == 0) {
+            return "0";
+        }
+        if (results == 1) {
+            return "1";
+        }
+        if (results <= 10) {
+            return "2-10";
+        }
+        if (results <= 100) {
+            return "11-100";
+        }
+        if (results <= 1000) {
+            return "101-1000";
+        }
+        return "1001+";
+    }
+}
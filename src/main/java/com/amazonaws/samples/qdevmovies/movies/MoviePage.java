@@ -0,0 +1,56 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * One page of movie results plus the size of the full match set, which is counted without building it, and the
+ * version of the catalog the page was read from, so caches keyed by version never mix movies from two catalogs.
+ */
+public class MoviePage {
+
+    private final List<Movie> content;
+    private final int page;
+    private final int size;
+    private final int totalElements;
+    private final DataVersion catalogVersion;
+
+    public MoviePage(List<Movie> content, int page, int size, int totalElements, DataVersion catalogVersion) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public List<Movie> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotalElements() {
+        return totalElements;
+    }
+
+    public DataVersion getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 0 : (int) (((long) totalElements + size - 1) / size);
+    }
+
+    public boolean hasNext() {
+        return (long) (page + 1) * size < totalElements;
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+}
@@ -0,0 +1,192 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Arrr! The criteria of one treasure hunt: substring filters on name and genre, an exact id, ranges on release year,
+ * duration and IMDb rating, a minimum audience rating, a typo-tolerant title and director search and a ranked
+ * full-text query. Blank text and non-positive ids count as not given, so every caller agrees on which filters a hunt
+ * applies.
+ */
+public final class MovieQuery {
+
+    /** No criteria: the whole chest. */
+    public static final MovieQuery ALL = new MovieQuery(null, null, null, null, null, null, null, null, null, null);
+
+    private final String name;
+    private final Long id;
+    private final String genre;
+    private final Double minAudience;
+    private final String text;
+    private final String fuzzy;
+    private final Integer yearFrom;
+    private final Integer yearTo;
+    private final Integer maxDuration;
+    private final Double minRating;
+
+    private MovieQuery(String name, Long id, String genre, Double minAudience, String text, String fuzzy,
+                       Integer yearFrom, Integer yearTo, Integer maxDuration, Double minRating) {
+        this.name = blankToNull(name);
+        this.id = id != null && id > 0 ? id : null;
+        this.genre = blankToNull(genre);
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.maxDuration = maxDuration;
+        this.minRating = minRating;
+        this.minAudience = minAudience;
+        this.text = blankToNull(text);
+        this.fuzzy = blankToNull(fuzzy);
+    }
+
+    /**
+     * @param name partial movie name, case-insensitive
+     * @param id exact movie id
+     * @param genre partial genre, case-insensitive
+     */
+    public static MovieQuery of(String name, Long id, String genre) {
+        return new MovieQuery(name, id, genre, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @param minAudience minimum mean review rating, or null for no audience filter
+     */
+    public MovieQuery withMinAudience(Double minAudience) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    /**
+     * @param text words to look for in names, directors and descriptions; matches are ranked by relevance
+     */
+    public MovieQuery withText(String text) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    /**
+     * @param fuzzy words to find in titles and directors, forgiving typos; matches come closest spelling first
+     */
+    public MovieQuery withFuzzy(String fuzzy) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    /**
+     * @param yearFrom earliest release year, inclusive, or null for no lower bound
+     * @param yearTo latest release year, inclusive, or null for no upper bound
+     */
+    public MovieQuery withYears(Integer yearFrom, Integer yearTo) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    /**
+     * @param maxDuration longest running time in minutes, inclusive, or null for no duration filter
+     */
+    public MovieQuery withMaxDuration(Integer maxDuration) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    /**
+     * @param minRating minimum IMDb rating, inclusive, or null for no rating filter
+     */
+    public MovieQuery withMinRating(Double minRating) {
+        return new MovieQuery(name, id, genre, minAudience, text, fuzzy, yearFrom, yearTo, maxDuration, minRating);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public Double getMinAudience() {
+        return minAudience;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getFuzzy() {
+        return fuzzy;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public Integer getMaxDuration() {
+        return maxDuration;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public boolean hasName() {
+        return name != null;
+    }
+
+    public boolean hasId() {
+        return id != null;
+    }
+
+    public boolean hasGenre() {
+        return genre != null;
+    }
+
+    public boolean hasMinAudience() {
+        return minAudience != null;
+    }
+
+    public boolean hasText() {
+        return text != null;
+    }
+
+    public boolean hasFuzzy() {
+        return fuzzy != null;
+    }
+
+    public boolean hasYears() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    public boolean hasMaxDuration() {
+        return maxDuration != null;
+    }
+
+    public boolean hasMinRating() {
+        return minRating != null;
+    }
+
+    /**
+     * @return true when any of the numeric range filters is given
+     */
+    public boolean hasRanges() {
+        return hasYears() || hasMaxDuration() || hasMinRating();
+    }
+
+    /**
+     * @return true when no criteria were given and the whole catalog matches
+     */
+    public boolean isEmpty() {
+        return !hasName() && !hasId() && !hasGenre() && !hasMinAudience() && !hasText() && !hasFuzzy()
+               && !hasRanges();
+    }
+
+    @Override
+    public String toString() {
+        return "name: '" + name + "', id: " + id + ", genre: '" + genre + "', minAudience: " + minAudience
+               + ", q: '" + text + "', fuzzy: '" + fuzzy + "', years: " + yearFrom + ".." + yearTo + ", maxDuration: "
+               + maxDuration + ", minRating: " + minRating;
+    }
+}
@@ -0,0 +1,156 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Arrr! The request parameters of a treasure hunt, bound by name from the query string ({@code name}, {@code id},
+ * {@code genre}, {@code minAudience}, {@code q}, {@code fuzzy}, {@code yearFrom}, {@code yearTo}, {@code maxDuration},
+ * {@code minRating}) together with the paging and sort parameters. Every parameter is optional; handlers that do not
+ * page ignore {@code page} and {@code size}. Setters return the form, so callers can name just the criteria they use.
+ */
+public class MovieSearchForm {
+    private String name;
+    private Long id;
+    private String genre;
+    private Double minAudience;
+    private String q;
+    private String fuzzy;
+    private Integer yearFrom;
+    private Integer yearTo;
+    private Integer maxDuration;
+    private Double minRating;
+    private Integer page;
+    private Integer size;
+    private String sort;
+
+    /**
+     * @return the hunt's criteria; blank text and non-positive ids count as not given
+     */
+    public MovieQuery toQuery() {
+        return MovieQuery.of(name, id, genre).withMinAudience(minAudience).withText(q).withFuzzy(fuzzy)
+            .withYears(yearFrom, yearTo).withMaxDuration(maxDuration).withMinRating(minRating);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MovieSearchForm setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public MovieSearchForm setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public MovieSearchForm setGenre(String genre) {
+        this.genre = genre;
+        return this;
+    }
+
+    public Double getMinAudience() {
+        return minAudience;
+    }
+
+    public MovieSearchForm setMinAudience(Double minAudience) {
+        this.minAudience = minAudience;
+        return this;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public MovieSearchForm setQ(String q) {
+        this.q = q;
+        return this;
+    }
+
+    public String getFuzzy() {
+        return fuzzy;
+    }
+
+    public MovieSearchForm setFuzzy(String fuzzy) {
+        this.fuzzy = fuzzy;
+        return this;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public MovieSearchForm setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+        return this;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public MovieSearchForm setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+        return this;
+    }
+
+    public Integer getMaxDuration() {
+        return maxDuration;
+    }
+
+    public MovieSearchForm setMaxDuration(Integer maxDuration) {
+        this.maxDuration = maxDuration;
+        return this;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public MovieSearchForm setMinRating(Double minRating) {
+        this.minRating = minRating;
+        return this;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public MovieSearchForm setPage(Integer page) {
+        this.page = page;
+        return this;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public MovieSearchForm setSize(Integer size) {
+        this.size = size;
+        return this;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public MovieSearchForm setSort(String sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "name: '" + name + "', id: " + id + ", genre: '" + genre + "', page: " + page + ", size: " + size
+               + ", sort: '" + sort + "', minAudience: " + minAudience + ", q: '" + q + "', fuzzy: '" + fuzzy
+               + "', years: " + yearFrom + ".." + yearTo + ", maxDuration: " + maxDuration + ", minRating: "
+               + minRating;
+    }
+}
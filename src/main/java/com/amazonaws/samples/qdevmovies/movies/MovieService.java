@@ -1,132 +1,777 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
-public class MovieService {
+public class MovieService implements DisposableBean {
     private static final Logger logger = LogManager.getLogger(MovieService.class);
-    private final List<Movie> movies;
-    private final Map<Long, Movie> movieMap;
+    static final String STORE_OBJECTS = "objects";
+    static final String STORE_COLUMNAR = "columnar";
+    private static final AtomicLong CATALOG_VERSIONS = new AtomicLong();
+    /** BM25F field boosts: a word in the title counts most, then the director, then the description. */
+    static final float NAME_BOOST = 3f;
+    static final float DIRECTOR_BOOST = 2f;
+    static final float DESCRIPTION_BOOST = 1f;
+    private static final float LENGTH_NORMALIZATION = 0.75f;
+    /**
+     * The loaded catalog with every index built from it. Reloads and audience updates build a new one and publish it
+     * with a single swap; each call reads it once, so it works on one consistent catalog without taking a lock.
+     */
+    private final AtomicReference<Catalog> catalog;
+    private final QueryResultCache resultCache;
+    private final String catalogLocation;
+    private final Supplier<MovieStore.Builder> storeBuilder;
+    private final int fuzzyMaxEdits;
+    /** Current audience summaries by movie id, applied to every reloaded catalog; written under this service's lock. */
+    private Map<Long, ReviewSummary> reviewSummaries = Collections.emptyMap();
+    /** Periodic audience re-ranking, started once reviews are wired in; guarded by this service's lock. */
+    private ScheduledExecutorService audienceReranker;
 
     public MovieService() {
-        this.movies = loadMoviesFromJson();
-        this.movieMap = new HashMap<>();
-        for (Movie movie : movies) {
-            movieMap.put(movie.getId(), movie);
+        this((String) null);
+    }
+
+    public MovieService(String catalogLocation) {
+        this(catalogLocation, STORE_OBJECTS);
+    }
+
+    /**
+     * Loads the catalog from an external JSON file so it can be updated without rebuilding the jar.
+     *
+     * @param catalogLocation path to a movies.json-style file; blank means the bundled classpath catalog
+     * @param storeType "objects" keeps one Movie per title; "columnar" keeps primitive column arrays
+     *                  and only builds Movie objects for the titles a request returns
+     */
+    public MovieService(String catalogLocation, String storeType) {
+        this(catalogLocation, storeType, QueryResultCache.DEFAULT_MAX_ENTRIES, QueryResultCache.DEFAULT_MAX_WEIGHT);
+    }
+
+    public MovieService(String catalogLocation, String storeType, int cacheMaxEntries, long cacheMaxWeight) {
+        this(catalogLocation, storeType, cacheMaxEntries, cacheMaxWeight, FuzzyIndex.DEFAULT_MAX_EDITS);
+    }
+
+    /**
+     * @param cacheMaxEntries most searches kept in the result cache; 0 turns the cache off
+     * @param cacheMaxWeight most cached matches in total, summed over all cached searches
+     * @param fuzzyMaxEdits most typos forgiven per word in typo-tolerant searches, from 0 to 3
+     */
+    @Autowired
+    public MovieService(@Value("${movies.catalog.location:}") String catalogLocation,
+                        @Value("${movies.catalog.store:objects}") String storeType,
+                        @Value("${movies.search.cache.max-entries:1024}") int cacheMaxEntries,
+                        @Value("${movies.search.cache.max-weight:1000000}") long cacheMaxWeight,
+                        @Value("${movies.search.fuzzy.max-edits:2}") int fuzzyMaxEdits) {
+        // Arguments evaluate left to right, so the load duration includes reading the catalog
+        this(System.nanoTime(), MovieCatalogLoader.load(catalogLocation, storeBuilder(storeType)).getStore(),
+             new QueryResultCache(cacheMaxEntries, cacheMaxWeight), fuzzyMaxEdits, catalogLocation,
+             storeBuilder(storeType));
+    }
+
+    /**
+     * Builds the service over an in-memory catalog instead of movies.json, used by benchmarks and tests.
+     */
+    MovieService(List<Movie> catalog) {
+        this(new ObjectMovieStore(catalog));
+    }
+
+    MovieService(MovieStore store) {
+        this(store, new QueryResultCache(QueryResultCache.DEFAULT_MAX_ENTRIES, QueryResultCache.DEFAULT_MAX_WEIGHT));
+    }
+
+    MovieService(MovieStore store, QueryResultCache resultCache) {
+        this(System.nanoTime(), store, resultCache, FuzzyIndex.DEFAULT_MAX_EDITS, null, ObjectMovieStore::builder);
+    }
+
+    private MovieService(long loadStartNanos, MovieStore store, QueryResultCache resultCache, int fuzzyMaxEdits,
+                         String catalogLocation, Supplier<MovieStore.Builder> storeBuilder) {
+        this.resultCache = resultCache;
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+        this.catalogLocation = catalogLocation;
+        this.storeBuilder = storeBuilder;
+        this.catalog = new AtomicReference<>(new Catalog(loadStartNanos, store, fuzzyMaxEdits));
+    }
+
+    private static Supplier<MovieStore.Builder> storeBuilder(String storeType) {
+        if (storeType == null || storeType.trim().isEmpty() || STORE_OBJECTS.equalsIgnoreCase(storeType.trim())) {
+            return ObjectMovieStore::builder;
         }
+        if (STORE_COLUMNAR.equalsIgnoreCase(storeType.trim())) {
+            return ColumnarMovieStore::builder;
+        }
+        throw new IllegalArgumentException("Unknown movies.catalog.store '" + storeType + "', expected '"
+                                           + STORE_OBJECTS + "' or '" + STORE_COLUMNAR + "'");
     }
 
-    private List<Movie> loadMoviesFromJson() {
-        List<Movie> movieList = new ArrayList<>();
+    static DataVersion fingerprint(MovieStore store) {
+        if (store.contentTag() != null) {
+            return DataVersion.loaded(store.contentTag());
+        }
+        DataVersion.Fingerprint fingerprint = DataVersion.fingerprint();
+        for (int ordinal = 0; ordinal < store.size(); ordinal++) {
+            Movie movie = store.movieAt(ordinal);
+            fingerprint.add(movie.getId()).add(movie.getMovieName()).add(movie.getDirector()).add(movie.getYear())
+                .add(movie.getGenre()).add(movie.getDescription()).add(movie.getDuration()).add(movie.getImdbRating())
+                .endRecord();
+        }
+        return fingerprint.toVersion();
+    }
+
+    /**
+     * Arrr! Content fingerprint and load time of the catalog, used for ETag and Last-Modified headers.
+     */
+    public DataVersion getCatalogVersion() {
+        return catalog.get().dataVersion;
+    }
+
+    /**
+     * Keeps audience scores in step with the reviews: full rebuilds on reload, and for posted reviews new summaries
+     * at once with the audience order re-ranked in batches (see {@link AudienceScores}). The order is also re-ranked
+     * every {@code rerankMillis}, so it never lags behind the summaries for longer than that.
+     */
+    @Autowired(required = false)
+    void setReviewService(ReviewService reviewService, @Value("${movies.audience.rerank-ms:1000}") long rerankMillis) {
+        synchronized (this) {
+            if (audienceReranker == null && rerankMillis > 0) {
+                audienceReranker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "audience-rerank");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                audienceReranker.scheduleWithFixedDelay(this::rerankAudience, rerankMillis, rerankMillis,
+                                                        TimeUnit.MILLISECONDS);
+            }
+        }
+        reviewService.addSummaryListener(new ReviewService.SummaryListener() {
+            @Override
+            public void summariesReplaced(Map<Long, ReviewSummary> summaries) {
+                synchronized (MovieService.this) {
+                    reviewSummaries = summaries;
+                    Catalog current = catalog.get();
+                    publish(current.withAudience(AudienceScores.build(current.store, current.store.size(), summaries)));
+                }
+            }
+
+            @Override
+            public void summariesChanged(Map<Long, ReviewSummary> changed) {
+                synchronized (MovieService.this) {
+                    Catalog current = catalog.get();
+                    Map<Integer, ReviewSummary> byOrdinal = new HashMap<>(changed.size() * 2);
+                    changed.forEach((movieId, summary) -> {
+                        int ordinal = current.store.ordinalOf(movieId);
+                        if (ordinal >= 0) {
+                            byOrdinal.put(ordinal, summary);
+                        }
+                    });
+                    if (!byOrdinal.isEmpty()) {
+                        publish(current.withAudience(current.audience.with(byOrdinal)));
+                    }
+                }
+            }
+        });
+    }
+
+    void setReviewService(ReviewService reviewService) {
+        setReviewService(reviewService, 1000);
+    }
+
+    /**
+     * Brings the audience order up to date with the summaries changed since it was last re-ranked.
+     */
+    synchronized void rerankAudience() {
+        Catalog current = catalog.get();
+        if (current.audience.pendingChanges() > 0) {
+            publish(current.withAudience(current.audience.reranked()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (audienceReranker != null) {
+                audienceReranker.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Swaps in a new catalog; writers hold this service's lock so no update is built on a catalog already replaced.
+     */
+    private void publish(Catalog updated) {
+        catalog.set(updated);
+        logger.debug("Catalog {} published with audience scores for {} movies", updated.dataVersion.getTag(),
+                     updated.store.size());
+    }
+
+    /**
+     * Arrr! Re-reads the catalog from its location, builds every index for it and swaps it in without blocking
+     * searches: calls already running finish on the catalog they started with. Audience scores are carried over
+     * from the current reviews. A catalog that cannot be read or stops at a syntax error (a file caught mid-write)
+     * is not published, and the current catalog stays.
+     *
+     * @return true if a new catalog was published, false if the reload failed or found the catalog unchanged
+     */
+    public boolean reloadCatalog() {
+        Timer.Sample sample = Timer.start();
+        String outcome = "failed";
+        String source = catalogLocation == null || catalogLocation.trim().isEmpty()
+            ? "classpath:" + MovieCatalogLoader.CLASSPATH_CATALOG : catalogLocation.trim();
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("movies.json");
-            if (inputStream != null) {
-                Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
-                String jsonContent = scanner.useDelimiter("\\A").next();
-                scanner.close();
-                
-                JSONArray moviesArray = new JSONArray(jsonContent);
-                for (int i = 0; i < moviesArray.length(); i++) {
-                    JSONObject movieObj = moviesArray.getJSONObject(i);
-                    movieList.add(new Movie(
-                        movieObj.getLong("id"),
-                        movieObj.getString("movieName"),
-                        movieObj.getString("director"),
-                        movieObj.getInt("year"),
-                        movieObj.getString("genre"),
-                        movieObj.getString("description"),
-                        movieObj.getInt("duration"),
-                        movieObj.getDouble("imdbRating")
-                    ));
+            long loadStart = System.nanoTime();
+            Catalog reloaded = new Catalog(loadStart, MovieCatalogLoader.loadStrict(catalogLocation, storeBuilder).getStore(),
+                                           fuzzyMaxEdits);
+            synchronized (this) {
+                Catalog current = catalog.get();
+                if (reloaded.dataVersion.getTag().equals(current.dataVersion.getTag())) {
+                    outcome = "unchanged";
+                    logger.info("Catalog {} unchanged, keeping the loaded one", source);
+                    return false;
                 }
+                publish(reloaded.withAudience(AudienceScores.build(reloaded.store, reloaded.store.size(), reviewSummaries)));
             }
+            outcome = "published";
+            logger.info("Ahoy! Reloaded {} movies from {} as catalog {} in {} ms", reloaded.store.size(), source,
+                        reloaded.dataVersion.getTag(), TimeUnit.NANOSECONDS.toMillis(reloaded.loadDurationNanos));
+            return true;
         } catch (Exception e) {
-            logger.error("Failed to load movies from JSON: {}", e.getMessage());
+            logger.error("Arrr! Catalog reload from {} failed, keeping catalog {}: {}", source,
+                         catalog.get().dataVersion.getTag(), e.getMessage());
+            return false;
+        } finally {
+            sample.stop(MovieMetrics.timer(MovieMetrics.CATALOG_RELOAD, "outcome", outcome));
         }
-        return movieList;
+    }
+
+    /**
+     * Materializes the movie at an ordinal with its audience aggregate attached when it has reviews.
+     */
+    private static Movie movieAt(Catalog catalog, int ordinal) {
+        Movie movie = catalog.store.movieAt(ordinal);
+        ReviewSummary summary = catalog.audience.summary(ordinal);
+        return summary.getCount() > 0 ? movie.withAudience(summary) : movie;
+    }
+
+    /**
+     * Arrr! How long reading the catalog and building its indexes took, in nanoseconds.
+     */
+    public long getCatalogLoadDurationNanos() {
+        return catalog.get().loadDurationNanos;
     }
 
     public List<Movie> getAllMovies() {
-        return movies;
+        return catalog.get().movies;
+    }
+
+    /**
+     * The whole catalog as one page together with its version, both read from the same catalog so a reload cannot
+     * land between them.
+     */
+    public MoviePage getCatalogPage() {
+        Catalog catalog = this.catalog.get();
+        return new MoviePage(catalog.movies, 0, catalog.movies.size(), catalog.movies.size(), catalog.dataVersion);
     }
 
     public Optional<Movie> getMovieById(Long id) {
-        if (id == null || id <= 0) {
-            return Optional.empty();
+        Timer.Sample sample = Timer.start();
+        Optional<Movie> movie = Optional.empty();
+        if (id != null && id > 0) {
+            Catalog catalog = this.catalog.get();
+            int ordinal = catalog.store.ordinalOf(id);
+            movie = ordinal < 0 ? Optional.empty() : Optional.of(movieAt(catalog, ordinal));
+        }
+        sample.stop(MovieMetrics.timer(MovieMetrics.LOOKUP, "found", Boolean.toString(movie.isPresent())));
+        return movie;
+    }
+
+    /**
+     * Arrr! Resolves many ids in one pass over the id map, for hydrating lists in a single round trip.
+     * Unknown and repeated ids are skipped.
+     *
+     * @return the movies found, in the order their ids were first given
+     */
+    public List<Movie> getMoviesByIds(Collection<Long> ids) {
+        Catalog catalog = this.catalog.get();
+        List<Movie> found = new ArrayList<>(ids.size());
+        Set<Long> seen = new HashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id == null || id <= 0 || !seen.add(id)) {
+                continue;
+            }
+            int ordinal = catalog.store.ordinalOf(id);
+            if (ordinal >= 0) {
+                found.add(movieAt(catalog, ordinal));
+            }
         }
-        return Optional.ofNullable(movieMap.get(id));
+        return found;
     }
 
     /**
      * Ahoy matey! This method hunts for treasure (movies) based on search criteria.
      * Searches through our movie treasure chest using name, id, and genre filters.
+     * Name and genre matches come from prebuilt n-gram indexes, so the cost follows the size of the haul
+     * rather than the size of the whole chest.
      * 
      * @param treasureName The name of the movie treasure to search for (partial match, case-insensitive)
      * @param treasureId The specific ID of the movie treasure
-     * @param treasureGenre The genre of movie treasures to hunt for (partial match, case-insensitive)
+     * @param treasureGenre The genre of movie treasures to hunt for (partial match, case-insensitive); the parts of
+     *                      a compound genre such as "Drama/Crime" must all match, in any order
      * @return List of movie treasures that match the search criteria, arrr!
      */
     public List<Movie> huntForMovieTreasures(String treasureName, Long treasureId, String treasureGenre) {
-        logger.info("Ahoy! Starting treasure hunt with name: '{}', id: {}, genre: '{}'", 
-                   treasureName, treasureId, treasureGenre);
-        
-        List<Movie> treasureHaul = new ArrayList<>(movies);
-        
-        // Filter by treasure name if provided, arrr!
-        if (treasureName != null && !treasureName.trim().isEmpty()) {
-            String searchName = treasureName.trim().toLowerCase();
-            treasureHaul = treasureHaul.stream()
-                .filter(movie -> movie.getMovieName().toLowerCase().contains(searchName))
-                .collect(Collectors.toList());
-            logger.debug("Filtered by name '{}', found {} treasures", searchName, treasureHaul.size());
-        }
-        
-        // Filter by treasure ID if provided, matey!
-        if (treasureId != null && treasureId > 0) {
-            treasureHaul = treasureHaul.stream()
-                .filter(movie -> movie.getId() == treasureId)
-                .collect(Collectors.toList());
-            logger.debug("Filtered by ID {}, found {} treasures", treasureId, treasureHaul.size());
-        }
-        
-        // Filter by treasure genre if provided, ye scurvy dog!
-        if (treasureGenre != null && !treasureGenre.trim().isEmpty()) {
-            String searchGenre = treasureGenre.trim().toLowerCase();
-            treasureHaul = treasureHaul.stream()
-                .filter(movie -> movie.getGenre().toLowerCase().contains(searchGenre))
-                .collect(Collectors.toList());
-            logger.debug("Filtered by genre '{}', found {} treasures", searchGenre, treasureHaul.size());
-        }
-        
-        logger.info("Treasure hunt complete! Found {} movie treasures", treasureHaul.size());
+        return huntForMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre));
+    }
+
+    /**
+     * Arrr! Hunts for treasures like {@link #huntForMovieTreasures(String, Long, String)}, keeping only movies
+     * whose mean audience rating is at least {@code minAudience}.
+     *
+     * @param minAudience minimum mean review rating, or null for no audience filter
+     */
+    public List<Movie> huntForMovieTreasures(String treasureName, Long treasureId, String treasureGenre,
+                                             Double minAudience) {
+        return huntForMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre).withMinAudience(minAudience));
+    }
+
+    /**
+     * Arrr! Hunts for every treasure matching the query. Hunts with a text query come back best match first,
+     * typo-tolerant hunts closest spelling first, all others in catalog order.
+     */
+    public List<Movie> huntForMovieTreasures(MovieQuery query) {
+        logger.debug("Ahoy! Starting treasure hunt with {}", query);
+        Timer.Sample sample = Timer.start();
+        Catalog catalog = this.catalog.get();
+
+        List<Movie> treasureHaul = new ArrayList<>();
+        int total;
+        if (query.hasText() || query.hasFuzzy()) {
+            TextIndex.TopHits hits = rankTreasures(catalog, query, catalog.store.size());
+            for (int ordinal : hits.ordinals) {
+                treasureHaul.add(movieAt(catalog, ordinal));
+            }
+            total = hits.total;
+        } else {
+            int[] matches = matchTreasures(catalog, query);
+            total = matches == null ? catalog.store.size() : matches.length;
+            for (int i = 0; i < total; i++) {
+                treasureHaul.add(movieAt(catalog, matches == null ? i : matches[i]));
+            }
+        }
+
+        recordHunt(sample, "list", query, total);
+        logger.debug("Treasure hunt complete! Found {} movie treasures", treasureHaul.size());
         return treasureHaul;
     }
 
+    /**
+     * Arrr! Hunts for treasures like {@link #huntForMovieTreasures} but only builds the requested page.
+     * The total is counted from the index matches, so the full haul is never materialized.
+     *
+     * @param sort stable sort order for the haul
+     * @param page zero-based page number
+     * @param size page size, at least 1
+     * @return the requested page of matching treasures and the total number of matches
+     */
+    public MoviePage findMovieTreasures(String treasureName, Long treasureId, String treasureGenre,
+                                        MovieSort sort, int page, int size) {
+        return findMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre), sort, page, size);
+    }
+
+    /**
+     * @param minAudience minimum mean review rating, or null for no audience filter
+     */
+    public MoviePage findMovieTreasures(String treasureName, Long treasureId, String treasureGenre, Double minAudience,
+                                        MovieSort sort, int page, int size) {
+        return findMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre).withMinAudience(minAudience),
+                                  sort, page, size);
+    }
+
+    /**
+     * Arrr! Pages through the treasures matching the query. Sorting a text search by relevance keeps only the best
+     * {@code (page + 1) * size} matches in a bounded heap, so the full match set is never sorted.
+     */
+    public MoviePage findMovieTreasures(MovieQuery query, MovieSort sort, int page, int size) {
+        Timer.Sample sample = Timer.start();
+        Catalog catalog = this.catalog.get();
+        long firstPosition = (long) page * size;
+        List<Movie> content = new ArrayList<>();
+        int total;
+        if (ranked(query, sort)) {
+            TextIndex.TopHits hits = rankTreasures(catalog, query, (int) Math.min(catalog.store.size(), firstPosition + size));
+            for (long position = firstPosition; position < hits.ordinals.length; position++) {
+                content.add(movieAt(catalog, hits.ordinals[(int) position]));
+            }
+            total = hits.total;
+        } else {
+            int[] matches = matchTreasures(catalog, query);
+            total = matches == null ? catalog.store.size() : matches.length;
+            if (firstPosition < total) {
+                int lastPosition = (int) Math.min(total, firstPosition + size);
+                for (int ordinal : catalog.sortOrders.slice(matches, fieldSort(sort), (int) firstPosition, lastPosition)) {
+                    content.add(movieAt(catalog, ordinal));
+                }
+            }
+        }
+        recordHunt(sample, "page", query, total);
+        logger.debug("Treasure page {} (size {}, sort {}) holds {} of {} treasures", page, size, sort, content.size(), total);
+        return new MoviePage(content, page, size, total, catalog.dataVersion);
+    }
+
+    /**
+     * Arrr! Lazily streams every matching treasure in sort order, so callers can write results out
+     * as they go instead of holding the whole haul. Only the matching ordinals are kept in memory.
+     */
+    public Stream<Movie> streamMovieTreasures(String treasureName, Long treasureId, String treasureGenre, MovieSort sort) {
+        return streamMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre), sort);
+    }
+
+    /**
+     * @param minAudience minimum mean review rating, or null for no audience filter
+     */
+    public Stream<Movie> streamMovieTreasures(String treasureName, Long treasureId, String treasureGenre,
+                                              Double minAudience, MovieSort sort) {
+        return streamMovieTreasures(MovieQuery.of(treasureName, treasureId, treasureGenre).withMinAudience(minAudience),
+                                    sort);
+    }
+
+    public Stream<Movie> streamMovieTreasures(MovieQuery query, MovieSort sort) {
+        Timer.Sample sample = Timer.start();
+        Catalog catalog = this.catalog.get();
+        IntStream sorted;
+        int total;
+        if (ranked(query, sort)) {
+            TextIndex.TopHits hits = rankTreasures(catalog, query, catalog.store.size());
+            sorted = IntStream.of(hits.ordinals);
+            total = hits.total;
+        } else {
+            int[] matches = matchTreasures(catalog, query);
+            sorted = catalog.sortOrders.stream(matches, fieldSort(sort));
+            total = matches == null ? catalog.store.size() : matches.length;
+        }
+        // Only matching and ordering are timed; writing the stream out is up to the caller
+        recordHunt(sample, "stream", query, total);
+        // The stream keeps the catalog it started on, however long the caller takes to write it out
+        return sorted.mapToObj(ordinal -> movieAt(catalog, ordinal));
+    }
+
+    private static void recordHunt(Timer.Sample sample, String mode, MovieQuery query, int results) {
+        sample.stop(MovieMetrics.timer(MovieMetrics.HUNT,
+            "mode", mode,
+            "filter", MovieMetrics.primaryFilter(query),
+            "results", MovieMetrics.resultBucket(results)));
+    }
+
+    private static boolean ranked(MovieQuery query, MovieSort sort) {
+        return (query.hasText() || query.hasFuzzy()) && sort.getField() == MovieSort.Field.RELEVANCE;
+    }
+
+    /**
+     * Relevance has no order of its own without a text or typo-tolerant query, so it falls back to catalog order.
+     */
+    private static MovieSort fieldSort(MovieSort sort) {
+        return sort.getField() == MovieSort.Field.RELEVANCE ? MovieSort.CATALOG_ORDER : sort;
+    }
+
+    /**
+     * Resolves the query to ascending catalog ordinals. Text and typo-tolerant matches are intersected with the
+     * other filters when the haul is sorted by a field rather than by relevance.
+     *
+     * @return matching ordinals, or null when no criteria were given and the whole catalog matches
+     */
+    private int[] matchTreasures(Catalog catalog, MovieQuery query) {
+        int[] matches = filterTreasures(catalog, query);
+        if (query.hasFuzzy()) {
+            matches = intersect(matches, catalog.fuzzyIndex.search(query.getFuzzy()).ordinals);
+        }
+        if (query.hasText()) {
+            matches = intersect(matches, catalog.textIndex.matches(query.getText()));
+        }
+        return matches;
+    }
+
+    /**
+     * Ranks the matches that pass the other filters, keeping the best {@code k}: by text relevance when there is
+     * a text query, otherwise by how few typos the typo-tolerant words needed.
+     */
+    private TextIndex.TopHits rankTreasures(Catalog catalog, MovieQuery query, int k) {
+        int[] allowed = filterTreasures(catalog, query);
+        if (!query.hasFuzzy()) {
+            return catalog.textIndex.search(query.getText(), allowed, k);
+        }
+        FuzzyIndex.Matches fuzzy = catalog.fuzzyIndex.search(query.getFuzzy());
+        if (!query.hasText()) {
+            return FuzzyIndex.closest(fuzzy, allowed, k);
+        }
+        return catalog.textIndex.search(query.getText(), intersect(allowed, fuzzy.ordinals), k);
+    }
+
+    /**
+     * @param matches ascending ordinals, or null for the whole catalog
+     */
+    private static int[] intersect(int[] matches, int[] others) {
+        return matches == null ? others : SubstringIndex.intersect(matches, others);
+    }
+
+    /**
+     * Resolves every criterion except the text and typo-tolerant queries, answering repeated searches from the
+     * result cache.
+     *
+     * The audience filter is applied after the cache, since audience scores change without the catalog changing.
+     * Text queries are not cached either: ranking them is cheaper than the cache weight their matches would take.
+     * Year, duration and rating ranges are answered from their range indexes rather than cached, since every bound
+     * would be its own cache entry.
+     *
+     * @return matching ordinals, or null when no filter was given
+     */
+    private int[] filterTreasures(Catalog catalog, MovieQuery query) {
+        int[] matches = matchTreasures(catalog, query.getName(), query.getId(), query.getGenre());
+        if (query.hasRanges()) {
+            matches = RangeIndex.filter(matches, catalog.store.size(), ranges(catalog, query));
+            logger.debug("Filtered by year, duration and rating ranges, found {} treasures", matches.length);
+        }
+        return query.hasMinAudience() ? catalog.audience.filterMinimum(matches, query.getMinAudience()) : matches;
+    }
+
+    private static List<RangeIndex.Bounds> ranges(Catalog catalog, MovieQuery query) {
+        List<RangeIndex.Bounds> ranges = new ArrayList<>(3);
+        if (query.hasYears()) {
+            ranges.add(catalog.yearIndex.bounds(query.getYearFrom() == null ? Double.NEGATIVE_INFINITY : query.getYearFrom(),
+                                        query.getYearTo() == null ? Double.POSITIVE_INFINITY : query.getYearTo()));
+        }
+        if (query.hasMaxDuration()) {
+            ranges.add(catalog.durationIndex.bounds(Double.NEGATIVE_INFINITY, query.getMaxDuration()));
+        }
+        if (query.hasMinRating()) {
+            ranges.add(catalog.ratingIndex.bounds(query.getMinRating(), Double.POSITIVE_INFINITY));
+        }
+        return ranges;
+    }
+
+    private int[] matchTreasures(Catalog catalog, String treasureName, Long treasureId, String treasureGenre) {
+        QueryResultCache.Key key = QueryResultCache.key(treasureName, treasureId, treasureGenre);
+        if (key.isEmpty()) {
+            return null;
+        }
+        int[] matches = resultCache.get(key, catalog.version);
+        if (matches == null) {
+            matches = searchTreasures(catalog, treasureName, treasureId, treasureGenre);
+            resultCache.put(key, catalog.version, matches);
+        } else {
+            logger.debug("Treasure map for '{}', {}, '{}' found in the result cache", treasureName, treasureId, treasureGenre);
+        }
+        return matches;
+    }
+
+    /**
+     * Resolves the search filters to ascending catalog ordinals using the name/genre indexes and the id map.
+     */
+    private static int[] searchTreasures(Catalog catalog, String treasureName, Long treasureId, String treasureGenre) {
+        boolean huntByName = treasureName != null && !treasureName.trim().isEmpty();
+        boolean huntById = treasureId != null && treasureId > 0;
+        boolean huntByGenre = treasureGenre != null && !treasureGenre.trim().isEmpty();
+
+        // Narrow down with the index postings first, arrr! Null means no text filter applied yet.
+        int[] candidates = null;
+        if (huntByName) {
+            String searchName = SubstringIndex.normalize(treasureName.trim());
+            candidates = catalog.nameIndex.search(searchName);
+            logger.debug("Filtered by name '{}', found {} treasures", searchName, candidates.length);
+        }
+
+        if (huntByGenre) {
+            // A compound genre matches movies holding every part, in any order: "Drama/Crime" finds "Crime/Drama"
+            List<String> parts = MovieEnricher.genres(treasureGenre);
+            for (String part : parts.size() > 1 ? parts : Collections.singletonList(treasureGenre.trim())) {
+                String searchGenre = SubstringIndex.normalize(part);
+                int[] genreMatches = catalog.genreIndex.search(searchGenre);
+                candidates = candidates == null ? genreMatches : SubstringIndex.intersect(candidates, genreMatches);
+                logger.debug("Filtered by genre '{}', found {} treasures", searchGenre, candidates.length);
+            }
+        }
+
+        if (huntById) {
+            // Go straight to the map for the ID, matey, then check it survived the other filters
+            int ordinal = catalog.store.ordinalOf(treasureId);
+            boolean found = ordinal >= 0
+                && (candidates == null || Arrays.binarySearch(candidates, ordinal) >= 0);
+            candidates = found ? new int[] {ordinal} : new int[0];
+            logger.debug("Filtered by ID {}, found {} treasures", treasureId, candidates.length);
+        }
+        return candidates;
+    }
+
     /**
      * Arrr! Get all unique genres from our treasure chest of movies.
      * Useful for showing available genres to search through, matey!
+     * The list is worked out once when the chest is loaded.
      * 
      * @return List of all unique genres in our movie collection
      */
     public List<String> getAllTreasureGenres() {
-        return movies.stream()
-            .map(Movie::getGenre)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        return catalog.get().treasureGenres;
+    }
+
+    /**
+     * Arrr! Type-ahead completions: titles and directors with a word starting with the typed text, best IMDb
+     * rating first. Answered from a prefix index built with the chest, so the cost does not grow with its size.
+     *
+     * @param prefix typed text, case-insensitive
+     * @param limit most suggestions to return, at most {@link SuggestIndex#MAX_SUGGESTIONS}
+     */
+    public List<MovieSuggestion> suggestMovieTreasures(String prefix, int limit) {
+        Catalog catalog = this.catalog.get();
+        SuggestIndex suggestIndex = catalog.suggestIndex;
+        int[] completions = suggestIndex.suggest(prefix, limit);
+        List<MovieSuggestion> suggestions = new ArrayList<>(completions.length);
+        for (int completion : completions) {
+            int ordinal = suggestIndex.ordinal(completion);
+            boolean director = suggestIndex.isDirector(completion);
+            suggestions.add(new MovieSuggestion(suggestIndex.text(completion),
+                                                director ? MovieSuggestion.DIRECTOR : MovieSuggestion.TITLE,
+                                                director ? null : catalog.store.id(ordinal),
+                                                catalog.store.imdbRating(ordinal)));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Arrr! Hit, miss and eviction counters of the search result cache, for sizing it.
+     */
+    public QueryResultCache.Stats getResultCacheStats() {
+        return resultCache.stats();
+    }
+
+    /**
+     * Arrr! Counts the treasures per genre, decade, director and rating bucket.
+     * Compound genres like "Crime/Drama" count towards each of their parts. With search criteria the counts
+     * cover only the matching treasures, taken from the same index matches the hunt uses.
+     *
+     * @return facet counts keyed by dimension ("genre", "decade", "director", "rating"), then by value
+     */
+    public Map<String, Map<String, Integer>> getTreasureFacets(String treasureName, Long treasureId, String treasureGenre) {
+        return getTreasureFacets(treasureName, treasureId, treasureGenre, null);
+    }
+
+    /**
+     * @param minAudience minimum mean review rating, or null for no audience filter
+     */
+    public Map<String, Map<String, Integer>> getTreasureFacets(String treasureName, Long treasureId, String treasureGenre,
+                                                               Double minAudience) {
+        return getTreasureFacets(MovieQuery.of(treasureName, treasureId, treasureGenre).withMinAudience(minAudience));
+    }
+
+    public Map<String, Map<String, Integer>> getTreasureFacets(MovieQuery query) {
+        Catalog catalog = this.catalog.get();
+        return catalog.facets.counts(matchTreasures(catalog, query));
+    }
+
+    /**
+     * One loaded catalog and everything derived from it: the store, its search, range and suggestion indexes, sort
+     * orders, facets and audience scores. Never changed once published; an audience update copies it with new
+     * audience scores and sort orders, sharing the rest.
+     */
+    private static final class Catalog {
+        final MovieStore store;
+        final List<Movie> movies;
+        /** Process-wide number of this load, keying the result cache. */
+        final long version;
+        final DataVersion dataVersion;
+        final long loadDurationNanos;
+        final SubstringIndex nameIndex;
+        final SubstringIndex genreIndex;
+        final TextIndex textIndex;
+        final FuzzyIndex fuzzyIndex;
+        final SuggestIndex suggestIndex;
+        final RangeIndex yearIndex;
+        final RangeIndex durationIndex;
+        final RangeIndex ratingIndex;
+        final CatalogFacets facets;
+        final List<String> treasureGenres;
+        final CatalogSortOrders sortOrders;
+        final AudienceScores audience;
+
+        Catalog(long loadStartNanos, MovieStore store, int fuzzyMaxEdits) {
+            this.store = store;
+            this.version = CATALOG_VERSIONS.incrementAndGet();
+            this.movies = store.asList();
+            this.nameIndex = SubstringIndex.build(store.size(), store::movieName);
+            this.genreIndex = SubstringIndex.build(store.size(), store::genre);
+            this.textIndex = TextIndex.build(store.size(), Arrays.asList(
+                new TextIndex.Field("movieName", store::movieName, NAME_BOOST, LENGTH_NORMALIZATION),
+                new TextIndex.Field("director", store::director, DIRECTOR_BOOST, LENGTH_NORMALIZATION),
+                new TextIndex.Field("description", store::description, DESCRIPTION_BOOST, LENGTH_NORMALIZATION)));
+            this.fuzzyIndex = FuzzyIndex.build(store.size(), Arrays.asList(store::movieName, store::director), fuzzyMaxEdits);
+            this.suggestIndex = SuggestIndex.build(store);
+            // Sorting and facet building read every movie many times; materialize a columnar store once instead
+            List<Movie> buildView = store instanceof ObjectMovieStore ? movies : new ArrayList<>(movies);
+            this.audience = AudienceScores.empty(store.size());
+            this.sortOrders = CatalogSortOrders.build(buildView)
+                .with(MovieSort.Field.AUDIENCE, audience.order(), audience.rank());
+            this.yearIndex = rangeIndex(sortOrders, MovieSort.Field.YEAR, store::year);
+            this.durationIndex = rangeIndex(sortOrders, MovieSort.Field.DURATION, store::duration);
+            this.ratingIndex = rangeIndex(sortOrders, MovieSort.Field.RATING, store::imdbRating);
+            this.facets = CatalogFacets.build(buildView);
+            this.treasureGenres = Collections.unmodifiableList(buildView.stream()
+                .map(Movie::getGenre)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList()));
+            this.dataVersion = fingerprint(store);
+            this.loadDurationNanos = System.nanoTime() - loadStartNanos;
+        }
+
+        private Catalog(Catalog catalog, AudienceScores audience) {
+            this.store = catalog.store;
+            this.version = catalog.version;
+            this.movies = catalog.movies;
+            this.dataVersion = catalog.dataVersion;
+            this.loadDurationNanos = catalog.loadDurationNanos;
+            this.nameIndex = catalog.nameIndex;
+            this.genreIndex = catalog.genreIndex;
+            this.textIndex = catalog.textIndex;
+            this.fuzzyIndex = catalog.fuzzyIndex;
+            this.suggestIndex = catalog.suggestIndex;
+            this.yearIndex = catalog.yearIndex;
+            this.durationIndex = catalog.durationIndex;
+            this.ratingIndex = catalog.ratingIndex;
+            this.facets = catalog.facets;
+            this.treasureGenres = catalog.treasureGenres;
+            this.sortOrders = catalog.sortOrders.with(MovieSort.Field.AUDIENCE, audience.order(), audience.rank());
+            this.audience = audience;
+        }
+
+        private static RangeIndex rangeIndex(CatalogSortOrders sortOrders, MovieSort.Field field,
+                                             IntToDoubleFunction values) {
+            return RangeIndex.build(sortOrders.order(field), sortOrders.rank(field), values);
+        }
+
+        Catalog withAudience(AudienceScores audience) {
+            return new Catalog(this, audience);
+        }
     }
 }
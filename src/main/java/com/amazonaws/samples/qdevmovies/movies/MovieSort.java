@@ -0,0 +1,96 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Sort order for paged movie results, parsed from a {@code sort=field[,asc|desc]} request parameter.
+ * Every field breaks ties on id, so the same query always pages through the same sequence.
+ */
+public final class MovieSort {
+
+    public enum Field {
+        CATALOG(null),
+        ID(Comparator.comparingLong(Movie::getId)),
+        NAME(Comparator.comparing(Movie::getMovieName, String.CASE_INSENSITIVE_ORDER)),
+        YEAR(Comparator.comparingInt(Movie::getYear)),
+        RATING(Comparator.comparingDouble(Movie::getImdbRating)),
+        DURATION(Comparator.comparingInt(Movie::getDuration)),
+        /** Mean audience (review) rating; ordered from {@link AudienceScores}, movies without reviews first. */
+        AUDIENCE(null),
+        /**
+         * Best full-text match first, scored by {@link TextIndex}, or closest spelling first for a typo-tolerant
+         * search alone; the direction is ignored. Without either there is nothing to rank, so results come in
+         * catalog order.
+         */
+        RELEVANCE(null);
+
+        private final Comparator<Movie> comparator;
+
+        Field(Comparator<Movie> comparator) {
+            this.comparator = comparator == null ? null : comparator.thenComparingLong(Movie::getId);
+        }
+
+        /**
+         * @return ascending comparator with an id tie-break, or null for catalog order, audience score and
+         *         relevance, which do not come from Movie fields
+         */
+        Comparator<Movie> comparator() {
+            return comparator;
+        }
+    }
+
+    public static final MovieSort CATALOG_ORDER = new MovieSort(Field.CATALOG, false);
+    public static final MovieSort RELEVANCE = new MovieSort(Field.RELEVANCE, false);
+
+    private final Field field;
+    private final boolean descending;
+
+    public MovieSort(Field field, boolean descending) {
+        this.field = field;
+        this.descending = descending;
+    }
+
+    /**
+     * Parses {@code name}, {@code rating,desc} and similar values. Blank means catalog order.
+     *
+     * @throws IllegalArgumentException for an unknown field or direction
+     */
+    public static MovieSort parse(String sortParameter) {
+        if (sortParameter == null || sortParameter.trim().isEmpty()) {
+            return CATALOG_ORDER;
+        }
+        String[] parts = sortParameter.trim().split(",");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Sort must look like 'field' or 'field,desc': " + sortParameter);
+        }
+        Field field;
+        try {
+            field = Field.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort field: " + parts[0].trim());
+        }
+        boolean descending = false;
+        if (parts.length == 2) {
+            String direction = parts[1].trim().toLowerCase(Locale.ROOT);
+            if (!direction.equals("asc") && !direction.equals("desc")) {
+                throw new IllegalArgumentException("Sort direction must be 'asc' or 'desc': " + parts[1].trim());
+            }
+            descending = direction.equals("desc");
+        }
+        return new MovieSort(field, descending);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return field.name().toLowerCase(Locale.ROOT) + (descending ? ",desc" : ",asc");
+    }
+}
@@ -0,0 +1,94 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Storage layout of the loaded catalog. Movies are addressed by ordinal (load order), and the per-field
+ * accessors let indexes and scans read values without creating {@link Movie} objects.
+ */
+interface MovieStore {
+
+    int size();
+
+    /**
+     * @return the ordinal of the movie with this id, or -1 if there is none
+     */
+    int ordinalOf(long id);
+
+    /**
+     * Materializes the movie at an ordinal; layouts that do not keep Movie objects build a fresh view.
+     */
+    Movie movieAt(int ordinal);
+
+    long id(int ordinal);
+
+    String movieName(int ordinal);
+
+    String director(int ordinal);
+
+    int year(int ordinal);
+
+    String genre(int ordinal);
+
+    String description(int ordinal);
+
+    int duration(int ordinal);
+
+    double imdbRating(int ordinal);
+
+    /**
+     * @return the icon resolved when the movie was loaded
+     */
+    String icon(int ordinal);
+
+    /**
+     * @return the parts of the movie's genre, split when the movie was loaded
+     */
+    List<String> genres(int ordinal);
+
+    /**
+     * @return the content fingerprint recorded when the store's source was compiled, or null to have it computed
+     */
+    default String contentTag() {
+        return null;
+    }
+
+    /**
+     * Read-only list view over the store, materializing movies as they are read.
+     */
+    default List<Movie> asList() {
+        return new MovieListView(this);
+    }
+
+    /**
+     * Accumulates movies in load order and produces the finished store.
+     */
+    interface Builder {
+        void add(Movie movie);
+
+        MovieStore build();
+    }
+
+    final class MovieListView extends AbstractList<Movie> implements RandomAccess {
+        private final MovieStore store;
+
+        private MovieListView(MovieStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Movie get(int index) {
+            if (index < 0 || index >= store.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + store.size());
+            }
+            return store.movieAt(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * One type-ahead completion: a movie title or a director, with the IMDb rating it is ranked by.
+ */
+public class MovieSuggestion {
+    public static final String TITLE = "title";
+    public static final String DIRECTOR = "director";
+
+    private final String text;
+    private final String type;
+    private final Long movieId;
+    private final double rating;
+
+    MovieSuggestion(String text, String type, Long movieId, double rating) {
+        this.text = text;
+        this.type = type;
+        this.movieId = movieId;
+        this.rating = rating;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return {@link #TITLE} or {@link #DIRECTOR}
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the titled movie (the best-rated one if several share the title), or null for a director
+     */
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    /**
+     * @return IMDb rating of the titled movie, or of the director's best-rated movie
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return type + " '" + text + "' (" + rating + ")";
+    }
+}
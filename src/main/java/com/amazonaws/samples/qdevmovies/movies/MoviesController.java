@@ -1,24 +1,54 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Flux;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Controller
 public class MoviesController {
     private static final Logger logger = LogManager.getLogger(MoviesController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int STREAM_FLUSH_INTERVAL = 256;
+    static final int MAX_BATCH_SIZE = 500;
 
     @Autowired
     private MovieService movieService;
@@ -26,43 +56,82 @@ public class MoviesController {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private MovieDetailsAssembler detailsAssembler;
+
+    @Autowired
+    private MovieCardCache movieCardCache;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("streamTaskExecutor")
+    private ThreadPoolTaskExecutor streamTaskExecutor;
+
+    @Autowired
+    @Qualifier("ndjsonTaskExecutor")
+    private ThreadPoolTaskExecutor ndjsonTaskExecutor;
+
     @GetMapping("/movies")
-    public String getMovies(org.springframework.ui.Model model,
-                           @RequestParam(value = "name", required = false) String treasureName,
-                           @RequestParam(value = "id", required = false) Long treasureId,
-                           @RequestParam(value = "genre", required = false) String treasureGenre) {
-        logger.info("Ahoy! Fetching movies with search parameters - name: '{}', id: {}, genre: '{}'", 
-                   treasureName, treasureId, treasureGenre);
+    public String getMovies(org.springframework.ui.Model model, @ModelAttribute MovieSearchForm hunt) {
+        logger.debug("Ahoy! Fetching movies with search parameters - {}", hunt);
         
-        List<Movie> movieTreasures;
-        boolean isSearching = (treasureName != null && !treasureName.trim().isEmpty()) ||
-                             (treasureId != null && treasureId > 0) ||
-                             (treasureGenre != null && !treasureGenre.trim().isEmpty());
+        MovieQuery query = hunt.toQuery();
+        String sort = hunt.getSort();
+        boolean isSearching = !query.isEmpty();
+
+        MovieSort movieSort;
+        try {
+            movieSort = sortFor(query, sort);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid sort '{}': {}", sort, e.getMessage());
+            movieSort = sortFor(query, null);
+        }
+        MoviePage moviePage = movieService.findMovieTreasures(query, movieSort, pageNumber(hunt.getPage()),
+                                                                pageSize(hunt.getSize()));
         
         if (isSearching) {
             // Arrr! Time for a treasure hunt!
-            movieTreasures = movieService.huntForMovieTreasures(treasureName, treasureId, treasureGenre);
             model.addAttribute("searchPerformed", true);
-            model.addAttribute("searchName", treasureName);
-            model.addAttribute("searchId", treasureId);
-            model.addAttribute("searchGenre", treasureGenre);
+            model.addAttribute("searchName", hunt.getName());
+            model.addAttribute("searchId", hunt.getId());
+            model.addAttribute("searchGenre", hunt.getGenre());
+            model.addAttribute("searchMinAudience", hunt.getMinAudience());
+            model.addAttribute("searchText", hunt.getQ());
+            model.addAttribute("searchFuzzy", hunt.getFuzzy());
+            model.addAttribute("searchYearFrom", hunt.getYearFrom());
+            model.addAttribute("searchYearTo", hunt.getYearTo());
+            model.addAttribute("searchMaxDuration", hunt.getMaxDuration());
+            model.addAttribute("searchMinRating", hunt.getMinRating());
             
-            if (movieTreasures.isEmpty()) {
+            if (moviePage.getTotalElements() == 0) {
                 model.addAttribute("noTreasuresFound", true);
                 model.addAttribute("pirateMessage", "Shiver me timbers! No movie treasures found matching yer search criteria, matey!");
             } else {
                 model.addAttribute("pirateMessage", 
                     String.format("Ahoy! Found %d movie treasure%s in yer search, ye savvy sailor!", 
-                                movieTreasures.size(), movieTreasures.size() == 1 ? "" : "s"));
+                                moviePage.getTotalElements(), moviePage.getTotalElements() == 1 ? "" : "s"));
             }
         } else {
             // Show all treasures in the chest, arrr!
-            movieTreasures = movieService.getAllMovies();
             model.addAttribute("searchPerformed", false);
             model.addAttribute("pirateMessage", "Welcome to our treasure chest of free movies this month, matey!");
         }
         
-        model.addAttribute("movies", movieTreasures);
+        model.addAttribute("movies", moviePage.getContent());
+        model.addAttribute("movieCards", movieCardCache.cards(moviePage.getContent(), moviePage.getCatalogVersion()));
+        model.addAttribute("moviePage", moviePage);
+        model.addAttribute("sort", sort);
+        if (moviePage.hasPrevious()) {
+            model.addAttribute("previousPageUrl", pageUrl(query, sort, moviePage.getPage() - 1, moviePage.getSize()));
+        }
+        if (moviePage.hasNext()) {
+            model.addAttribute("nextPageUrl", pageUrl(query, sort, moviePage.getPage() + 1, moviePage.getSize()));
+        }
         model.addAttribute("availableGenres", movieService.getAllTreasureGenres());
         return "movies";
     }
@@ -71,55 +140,77 @@ public class MoviesController {
      * Arrr! REST API endpoint for treasure hunting (movie searching).
      * Returns JSON response with search results, perfect for AJAX calls or API consumers.
      * 
-     * @param treasureName Movie name to search for (partial match)
-     * @param treasureId Specific movie ID to find
-     * @param treasureGenre Genre to filter by (partial match)
-     * @return ResponseEntity with search results and pirate-themed messages
+     * @param hunt Search criteria: {@code name} and {@code genre} (partial match), {@code id}, {@code minAudience}
+     *             (minimum mean review rating), {@code q} (words in names, directors and descriptions, ranked by
+     *             relevance), {@code fuzzy} (names and directors, forgiving typos), the inclusive ranges
+     *             {@code yearFrom}, {@code yearTo}, {@code maxDuration} and {@code minRating}; plus the zero-based
+     *             {@code page} (default 0), {@code size} (default 50, at most 500) and {@code sort} such as
+     *             {@code rating,desc} (best match first when {@code q} or {@code fuzzy} is given, otherwise catalog
+     *             order when omitted)
+     * @return ResponseEntity with one page of search results and pirate-themed messages
      */
     @GetMapping("/movies/search")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> searchMovieTreasures(
-            @RequestParam(value = "name", required = false) String treasureName,
-            @RequestParam(value = "id", required = false) Long treasureId,
-            @RequestParam(value = "genre", required = false) String treasureGenre) {
+    public ResponseEntity<Map<String, Object>> searchMovieTreasures(@ModelAttribute MovieSearchForm hunt) {
         
-        logger.info("Ahoy! API treasure hunt requested with name: '{}', id: {}, genre: '{}'", 
-                   treasureName, treasureId, treasureGenre);
+        logger.debug("Ahoy! API treasure hunt requested with {}", hunt);
         
         Map<String, Object> response = new HashMap<>();
         
         try {
             // Validate search parameters, ye scallywag!
-            if ((treasureName == null || treasureName.trim().isEmpty()) &&
-                (treasureId == null || treasureId <= 0) &&
-                (treasureGenre == null || treasureGenre.trim().isEmpty())) {
+            MovieQuery query = hunt.toQuery();
+            if (query.isEmpty()) {
                 
                 response.put("success", false);
-                response.put("message", "Arrr! Ye need to provide at least one search parameter, matey! Use 'name', 'id', or 'genre'.");
+                response.put("message", "Arrr! Ye need to provide at least one search parameter, matey! Use 'name', 'id', 'genre', 'minAudience', 'q', 'fuzzy', 'yearFrom', 'yearTo', 'maxDuration' or 'minRating'.");
+                response.put("treasures", List.of());
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            MovieSort movieSort;
+            try {
+                movieSort = sortFor(query, hunt.getSort());
+            } catch (IllegalArgumentException e) {
+                response.put("success", false);
+                response.put("message", "Arrr! That sort order be unknown to this crew: " + e.getMessage());
                 response.put("treasures", List.of());
                 return ResponseEntity.badRequest().body(response);
             }
             
             // Hunt for movie treasures!
-            List<Movie> treasureHaul = movieService.huntForMovieTreasures(treasureName, treasureId, treasureGenre);
+            MoviePage treasurePage = movieService.findMovieTreasures(query, movieSort, pageNumber(hunt.getPage()),
+                                                                     pageSize(hunt.getSize()));
+            int totalFound = treasurePage.getTotalElements();
             
             response.put("success", true);
-            response.put("treasures", treasureHaul);
-            response.put("totalFound", treasureHaul.size());
+            response.put("treasures", treasurePage.getContent());
+            response.put("totalFound", totalFound);
+            response.put("page", treasurePage.getPage());
+            response.put("size", treasurePage.getSize());
+            response.put("totalPages", treasurePage.getTotalPages());
+            response.put("sort", movieSort.toString());
             
-            if (treasureHaul.isEmpty()) {
+            if (totalFound == 0) {
                 response.put("message", "Shiver me timbers! No movie treasures found matching yer search criteria. Try different search terms, ye landlubber!");
             } else {
                 response.put("message", 
                     String.format("Ahoy! Successfully found %d movie treasure%s matching yer search, captain!", 
-                                treasureHaul.size(), treasureHaul.size() == 1 ? "" : "s"));
+                                totalFound, totalFound == 1 ? "" : "s"));
             }
             
             // Add search parameters to response for reference
             Map<String, Object> searchParams = new HashMap<>();
-            searchParams.put("name", treasureName);
-            searchParams.put("id", treasureId);
-            searchParams.put("genre", treasureGenre);
+            searchParams.put("name", hunt.getName());
+            searchParams.put("id", hunt.getId());
+            searchParams.put("genre", hunt.getGenre());
+            searchParams.put("minAudience", hunt.getMinAudience());
+            searchParams.put("q", hunt.getQ());
+            searchParams.put("fuzzy", hunt.getFuzzy());
+            searchParams.put("yearFrom", hunt.getYearFrom());
+            searchParams.put("yearTo", hunt.getYearTo());
+            searchParams.put("maxDuration", hunt.getMaxDuration());
+            searchParams.put("minRating", hunt.getMinRating());
             response.put("searchParameters", searchParams);
             
             return ResponseEntity.ok(response);
@@ -133,22 +224,379 @@ public class MoviesController {
         }
     }
 
+    /**
+     * Arrr! Facet counts (genre, decade, director, rating bucket) for the whole chest or a treasure hunt.
+     * Compound genres are split, so "Crime/Drama" counts towards both Crime and Drama.
+     *
+     * @return ResponseEntity with the number of matches and the counts per facet value
+     */
+    @GetMapping("/movies/facets")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getMovieFacets(@ModelAttribute MovieSearchForm hunt) {
+
+        logger.debug("Ahoy! Facet counts requested with {}", hunt);
+
+        Map<String, Map<String, Integer>> facets = movieService.getTreasureFacets(hunt.toQuery());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("facets", facets);
+        // Every treasure falls in exactly one decade, so the decade counts add up to the number of matches
+        response.put("totalFound", facets.get("decade").values().stream().mapToInt(Integer::intValue).sum());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Arrr! Type-ahead completions for the search box: titles and directors with a word starting with the typed
+     * text, best IMDb rating first, e.g. {@code GET /movies/suggest?prefix=dre}.
+     *
+     * @param prefix Typed text, case-insensitive; blank gives no suggestions
+     * @param limit Most suggestions to return (default 10, at most 20)
+     * @return ResponseEntity with the prefix and its suggestions
+     */
+    @GetMapping("/movies/suggest")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> suggestMovieTreasures(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        // Asked on every keystroke, so kept out of the INFO log
+        logger.debug("Ahoy! Suggestions requested for prefix: '{}', limit: {}", prefix, limit);
+
+        int count = limit == null || limit < 1 ? DEFAULT_SUGGESTIONS : Math.min(limit, SuggestIndex.MAX_SUGGESTIONS);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("prefix", prefix == null ? "" : prefix);
+        response.put("suggestions", movieService.suggestMovieTreasures(prefix, count));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Arrr! Fetches many movies with their review counts and average ratings in one round trip,
+     * e.g. {@code GET /movies/batch?ids=1,2,3}.
+     *
+     * @return ResponseEntity with the found movies in request order and the ids that were not found
+     */
+    @GetMapping("/movies/batch")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getMovieBatch(@RequestParam(value = "ids", required = false) List<Long> ids) {
+        return movieBatch(ids);
+    }
+
+    /**
+     * Arrr! Same as the GET batch lookup, taking the ids as a JSON array body for lists too long for a URL.
+     */
+    @PostMapping("/movies/batch")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> postMovieBatch(@RequestBody(required = false) List<Long> ids) {
+        return movieBatch(ids);
+    }
+
+    private ResponseEntity<Map<String, Object>> movieBatch(List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            logger.warn("Rejecting treasure batch of {} ids", ids == null ? 0 : ids.size());
+            response.put("success", false);
+            response.put("message", "Arrr! Send between 1 and " + MAX_BATCH_SIZE + " movie ids, matey!");
+            response.put("movies", List.of());
+            return ResponseEntity.badRequest().body(response);
+        }
+        logger.debug("Ahoy! Treasure batch requested for {} ids", ids.size());
+
+        List<Movie> movies = movieService.getMoviesByIds(ids);
+        Map<Long, ReviewSummary> summaries = reviewService.getReviewSummaries(
+            movies.stream().map(Movie::getId).collect(Collectors.toList()));
+        List<Map<String, Object>> items = new ArrayList<>(movies.size());
+        Set<Long> found = new HashSet<>(movies.size() * 2);
+        for (Movie movie : movies) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("movie", movie);
+            item.put("reviews", summaries.get(movie.getId()));
+            items.add(item);
+            found.add(movie.getId());
+        }
+        List<Long> missingIds = ids.stream()
+            .filter(id -> id != null && !found.contains(id))
+            .distinct()
+            .collect(Collectors.toList());
+
+        response.put("success", true);
+        response.put("requested", ids.size());
+        response.put("found", items.size());
+        response.put("movies", items);
+        response.put("missingIds", missingIds);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Arrr! Posts a review for a movie, e.g. {@code {"userName": "Sailor", "rating": 4.5, "comment": "Fine plunder"}}.
+     * The review is stored in the review log before the response is sent and shows up on the details page at once.
+     *
+     * @return 201 with the movie's new audience summary; 400 for an invalid review,
+     *         404 for an unknown movie, 503 if the review could not be stored
+     */
+    @PostMapping("/movies/{id}/reviews")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> postReview(@PathVariable("id") Long movieId,
+                                                          @RequestBody(required = false) Map<String, Object> body) {
+        Map<String, Object> response = new HashMap<>();
+        if (!movieService.getMovieById(movieId).isPresent()) {
+            response.put("success", false);
+            response.put("message", "Shiver me timbers! No movie treasure with ID " + movieId + " to review, matey!");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        Review review;
+        try {
+            review = reviewFrom(body);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Arrr! That review be missing something: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        ReviewSummary audience;
+        try {
+            audience = reviewService.addReview(movieId, review);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Arrr! That review be missing something: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            logger.error("Arrr! Review for movie {} could not be stored: {}", movieId, e.getMessage());
+            response.put("success", false);
+            response.put("message", "Blimey! The review log be busy or unreachable. Try again later, matey!");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        response.put("success", true);
+        response.put("message", "Ahoy! Yer review be stowed safely, captain!");
+        response.put("movieId", movieId);
+        response.put("audience", audience);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .location(UriComponentsBuilder.fromPath("/movies/{id}/details").buildAndExpand(movieId).toUri())
+            .body(response);
+    }
+
+    private static Review reviewFrom(Map<String, Object> body) {
+        if (body == null) {
+            throw new IllegalArgumentException("a JSON body with userName, rating and comment is required");
+        }
+        Object rating = body.get("rating");
+        if (!(rating instanceof Number)) {
+            throw new IllegalArgumentException("rating must be a number from 1 to 5");
+        }
+        return new Review(stringOrNull(body.get("userName")), stringOrNull(body.get("avatarEmoji")),
+                          ((Number) rating).doubleValue(), stringOrNull(body.get("comment")));
+    }
+
+    private static String stringOrNull(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Arrr! Reports how well the search result cache is doing, so its bounds can be sized for production traffic.
+     *
+     * @return ResponseEntity with entry count, weight (cached matches) and hit/miss/eviction counters
+     */
+    @GetMapping("/movies/search/cache")
+    @ResponseBody
+    public ResponseEntity<QueryResultCache.Stats> getSearchCacheStats() {
+        return ResponseEntity.ok(movieService.getResultCacheStats());
+    }
+
+    /**
+     * Arrr! The whole catalog as one JSON array for services that mirror it, gzipped when the client accepts it.
+     * The bytes are encoded once per catalog version and sent from disk as they are; single byte ranges resume
+     * interrupted downloads.
+     */
+    @GetMapping("/movies/snapshot")
+    public void getCatalogSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MoviePage catalog = movieService.getCatalogPage();
+        catalogSnapshot.send(catalog.getContent(), catalog.getCatalogVersion(), request, response);
+    }
+
+    /**
+     * Arrr! Streaming variant of the treasure hunt for API consumers, selected with {@code format=ndjson}.
+     * Writes one JSON movie per line as the haul is walked, so the response is never buffered in full. Each
+     * response is written on its own thread of the bounded {@code ndjsonTaskExecutor}, held until the last movie
+     * has been taken by the client; when every thread is busy and the queue is full the hunt is turned away.
+     *
+     * @return ResponseEntity streaming newline-delimited JSON movies, 400 for a bad request, or 503 when busy
+     */
+    @GetMapping(value = "/movies/search", params = "format=ndjson", produces = NDJSON)
+    public ResponseEntity<ResponseBodyEmitter> streamMovieTreasures(@ModelAttribute MovieSearchForm hunt) {
+
+        logger.debug("Ahoy! Streaming treasure hunt requested with {}", hunt);
+
+        MovieQuery query = hunt.toQuery();
+        MovieSort movieSort;
+        try {
+            movieSort = sortFor(query, hunt.getSort());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (query.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            ndjsonTaskExecutor.execute(() -> writeTreasures(query, movieSort, emitter));
+        } catch (TaskRejectedException e) {
+            logger.warn("Arrr! Every NDJSON stream writer is busy, turning the treasure hunt away");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(emitter);
+    }
+
+    /**
+     * Walks the haul on an NDJSON writer thread, sending every {@value #STREAM_FLUSH_INTERVAL} movies as one chunk.
+     */
+    private void writeTreasures(MovieQuery query, MovieSort movieSort, ResponseBodyEmitter emitter) {
+        MediaType ndjson = MediaType.parseMediaType(NDJSON);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        try (Stream<Movie> treasures = movieService.streamMovieTreasures(query, movieSort);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(chunk)) {
+            int written = 0;
+            for (Iterator<Movie> it = treasures.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    emitter.send(chunk.toByteArray(), ndjson);
+                    chunk.reset();
+                }
+            }
+            writer.flush();
+            chunk.write('\n');
+            emitter.send(chunk.toByteArray(), ndjson);
+            emitter.complete();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Arrr! Streaming treasure hunt ended early: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * @return true when every thread of the pool is busy and its queue is full, so new work would be rejected
+     */
+    private static boolean saturated(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool.getActiveCount() >= pool.getMaximumPoolSize() && pool.getQueue().remainingCapacity() == 0;
+    }
+
+    private static int pageNumber(Integer page) {
+        return page == null || page < 0 ? 0 : page;
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Parses the sort parameter; a text or typo-tolerant search without one is ordered best match first.
+     *
+     * @throws IllegalArgumentException for an unknown field or direction
+     */
+    private static MovieSort sortFor(MovieQuery query, String sort) {
+        if ((query.hasText() || query.hasFuzzy()) && (sort == null || sort.trim().isEmpty())) {
+            return MovieSort.RELEVANCE;
+        }
+        return MovieSort.parse(sort);
+    }
+
+    private static String pageUrl(MovieQuery query, String sort, int page, int size) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/movies");
+        if (query.hasName()) {
+            builder.queryParam("name", query.getName());
+        }
+        if (query.hasId()) {
+            builder.queryParam("id", query.getId());
+        }
+        if (query.hasGenre()) {
+            builder.queryParam("genre", query.getGenre());
+        }
+        if (query.hasMinAudience()) {
+            builder.queryParam("minAudience", query.getMinAudience());
+        }
+        if (query.getYearFrom() != null) {
+            builder.queryParam("yearFrom", query.getYearFrom());
+        }
+        if (query.getYearTo() != null) {
+            builder.queryParam("yearTo", query.getYearTo());
+        }
+        if (query.hasMaxDuration()) {
+            builder.queryParam("maxDuration", query.getMaxDuration());
+        }
+        if (query.hasMinRating()) {
+            builder.queryParam("minRating", query.getMinRating());
+        }
+        if (query.hasText()) {
+            builder.queryParam("q", query.getText());
+        }
+        if (query.hasFuzzy()) {
+            builder.queryParam("fuzzy", query.getFuzzy());
+        }
+        if (sort != null && !sort.trim().isEmpty()) {
+            builder.queryParam("sort", sort);
+        }
+        return builder.queryParam("page", page).queryParam("size", size).encode().toUriString();
+    }
+
+    /**
+     * Arrr! Reactive variant of the streaming treasure hunt. Movies are emitted as a Flux straight from the
+     * search path and written one at a time as the client's connection takes them, as NDJSON or as
+     * server-sent events ({@code Accept: text/event-stream}). The servlet thread is released once the stream
+     * starts, but the writes block on a slow client, so each stream holds a {@code streamTaskExecutor} thread until
+     * it is done; only the matching ordinals are held while the haul is written. When that pool and its queue are
+     * full the hunt is turned away rather than left waiting for a thread.
+     *
+     * @return ResponseEntity with a backpressured stream of matching movies, 400 for a bad request, or 503 when busy
+     */
+    @GetMapping(value = "/movies/search/stream", produces = {NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<Flux<Movie>> streamMovieTreasuresReactive(@ModelAttribute MovieSearchForm hunt) {
+
+        logger.debug("Ahoy! Reactive treasure hunt requested with {}", hunt);
+
+        MovieQuery query = hunt.toQuery();
+        MovieSort movieSort;
+        try {
+            movieSort = sortFor(query, hunt.getSort());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (query.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (saturated(streamTaskExecutor)) {
+            logger.warn("Arrr! Every reactive stream writer is busy, turning the treasure hunt away");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        // Deferred until subscription; the stream is closed when the haul completes or the client goes away
+        Flux<Movie> treasures = Flux.fromStream(
+            () -> movieService.streamMovieTreasures(query, movieSort));
+        return ResponseEntity.ok(treasures);
+    }
+
     @GetMapping("/movies/{id}/details")
     public String getMovieDetails(@PathVariable("id") Long movieId, org.springframework.ui.Model model) {
-        logger.info("Fetching details for movie ID: {}", movieId);
+        logger.debug("Fetching details for movie ID: {}", movieId);
         
-        Optional<Movie> movieOpt = movieService.getMovieById(movieId);
-        if (!movieOpt.isPresent()) {
+        Optional<MovieDetails> detailsOpt = detailsAssembler.assemble(movieId);
+        if (!detailsOpt.isPresent()) {
             logger.warn("Movie with ID {} not found", movieId);
             model.addAttribute("title", "Movie Not Found");
             model.addAttribute("message", "Movie with ID " + movieId + " was not found.");
             return "error";
         }
         
-        Movie movie = movieOpt.get();
-        model.addAttribute("movie", movie);
-        model.addAttribute("movieIcon", MovieIconUtils.getMovieIcon(movie.getMovieName()));
-        model.addAttribute("allReviews", reviewService.getReviewsForMovie(movie.getId()));
+        MovieDetails details = detailsOpt.get();
+        model.addAttribute("movie", details.getMovie());
+        model.addAttribute("movieIcon", details.getIcon());
+        model.addAttribute("allReviews", details.getReviews());
+        model.addAttribute("reviewsUnavailable", !details.isReviewsAvailable());
         
         return "movie-details";
     }
@@ -0,0 +1,111 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original catalog layout: one {@link Movie} object per title plus a boxed id map.
+ */
+final class ObjectMovieStore implements MovieStore {
+
+    private final List<Movie> movies;
+    private final Map<Long, Integer> ordinalById;
+
+    ObjectMovieStore(List<Movie> movies) {
+        this.movies = Collections.unmodifiableList(movies);
+        this.ordinalById = new HashMap<>(movies.size() * 2);
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            ordinalById.put(movies.get(ordinal).getId(), ordinal);
+        }
+    }
+
+    static Builder builder() {
+        return new Builder() {
+            private final List<Movie> movies = new ArrayList<>();
+
+            @Override
+            public void add(Movie movie) {
+                movies.add(movie);
+            }
+
+            @Override
+            public MovieStore build() {
+                return new ObjectMovieStore(movies);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return movies.size();
+    }
+
+    @Override
+    public int ordinalOf(long id) {
+        Integer ordinal = ordinalById.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    @Override
+    public Movie movieAt(int ordinal) {
+        return movies.get(ordinal);
+    }
+
+    @Override
+    public long id(int ordinal) {
+        return movies.get(ordinal).getId();
+    }
+
+    @Override
+    public String movieName(int ordinal) {
+        return movies.get(ordinal).getMovieName();
+    }
+
+    @Override
+    public String director(int ordinal) {
+        return movies.get(ordinal).getDirector();
+    }
+
+    @Override
+    public int year(int ordinal) {
+        return movies.get(ordinal).getYear();
+    }
+
+    @Override
+    public String genre(int ordinal) {
+        return movies.get(ordinal).getGenre();
+    }
+
+    @Override
+    public String description(int ordinal) {
+        return movies.get(ordinal).getDescription();
+    }
+
+    @Override
+    public int duration(int ordinal) {
+        return movies.get(ordinal).getDuration();
+    }
+
+    @Override
+    public double imdbRating(int ordinal) {
+        return movies.get(ordinal).getImdbRating();
+    }
+
+    @Override
+    public String icon(int ordinal) {
+        return movies.get(ordinal).getIcon();
+    }
+
+    @Override
+    public List<String> genres(int ordinal) {
+        return movies.get(ordinal).getGenres();
+    }
+
+    @Override
+    public List<Movie> asList() {
+        return movies;
+    }
+}
@@ -0,0 +1,189 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of search results (matching catalog ordinals) keyed on the normalized search criteria.
+ * Entries are bounded both by count and by total weight, where an entry weighs its number of ordinals plus a
+ * fixed overhead, so a few very broad searches cannot crowd the heap. All entries belong to one catalog version
+ * and are dropped as soon as a lookup arrives for a different version.
+ * Access is guarded by the cache's own lock; the critical sections are map operations only, never a search.
+ */
+final class QueryResultCache {
+    static final int DEFAULT_MAX_ENTRIES = 1024;
+    static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+    /** Weight charged per entry on top of its ordinals, covering the key and map entry. */
+    static final int ENTRY_OVERHEAD = 16;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long catalogVersion;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries maximum number of cached searches; 0 disables caching
+     * @param maxWeight maximum total weight of the cached searches
+     */
+    QueryResultCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Cache bounds must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Builds the normalized key for a search: trimmed, lower-cased text and a positive id, blanks dropped.
+     */
+    static Key key(String treasureName, Long treasureId, String treasureGenre) {
+        return new Key(normalize(treasureName), treasureId != null && treasureId > 0 ? treasureId : null,
+                       normalize(treasureGenre));
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return SubstringIndex.normalize(value.trim());
+    }
+
+    /**
+     * @return the cached ordinals for the key under this catalog version, or null on a miss
+     */
+    synchronized int[] get(Key key, long version) {
+        if (version != catalogVersion) {
+            invalidate(version);
+        }
+        int[] ordinals = entries.get(key);
+        if (ordinals == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Caches a result computed against the given catalog version; results for any other version are ignored.
+     * The ordinals array must not be modified afterwards.
+     */
+    synchronized void put(Key key, long version, int[] ordinals) {
+        long entryWeight = weigh(ordinals);
+        if (version != catalogVersion || maxEntries == 0 || entryWeight > maxWeight) {
+            return;
+        }
+        int[] previous = entries.put(key, ordinals);
+        if (previous != null) {
+            weight -= weigh(previous);
+        }
+        weight += entryWeight;
+
+        Iterator<Map.Entry<Key, int[]>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= weigh(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long weigh(int[] ordinals) {
+        return (long) ordinals.length + ENTRY_OVERHEAD;
+    }
+
+    private void invalidate(long version) {
+        entries.clear();
+        weight = 0;
+        catalogVersion = version;
+    }
+
+    synchronized Stats stats() {
+        return new Stats(entries.size(), weight, hits, misses, evictions);
+    }
+
+    /**
+     * Normalized search criteria; null components mean the filter was not given.
+     */
+    static final class Key {
+        private final String name;
+        private final Long id;
+        private final String genre;
+
+        private Key(String name, Long id, String genre) {
+            this.name = name;
+            this.id = id;
+            this.genre = genre;
+        }
+
+        boolean isEmpty() {
+            return name == null && id == null && genre == null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(name, other.name) && Objects.equals(id, other.id) && Objects.equals(genre, other.genre);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, id, genre);
+        }
+    }
+
+    /**
+     * Point-in-time counters, used to size the cache.
+     */
+    public static final class Stats {
+        private final int entries;
+        private final long weight;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        Stats(int entries, long weight, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.weight = weight;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public double getHitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
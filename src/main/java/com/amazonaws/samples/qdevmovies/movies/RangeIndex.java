@@ -0,0 +1,259 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Range filter over one numeric field (year, duration, IMDb rating), answered with precomputed bitmaps.
+ *
+ * The catalog's ascending sort permutation of the field turns a value range into a range of sorted positions by
+ * binary search, which also gives the exact number of matches for free. Every {@code 1/LEVELS} of the permutation a
+ * bitmap of all ordinals sorted before that position is kept, so the bitmap of a position range is two stored
+ * prefixes combined word by word, plus at most one level's worth of single bits at each end. Bitmaps of several
+ * range filters then intersect a 64-bit word at a time.
+ *
+ * Like a roaring bitmap picks an array or a bitmap container by density, {@link #filter} keeps small match sets as
+ * sorted ordinal arrays, checking each survivor's sorted position, and only builds bitmaps when every set involved is
+ * dense.
+ */
+final class RangeIndex {
+    /** Prefix bitmaps kept per field; memory is {@code LEVELS} bits per movie. */
+    static final int LEVELS = 64;
+    /** Match sets up to {@code 1/SPARSE_RATIO} of the catalog stay ordinal arrays rather than bitmaps. */
+    static final int SPARSE_RATIO = 32;
+
+    /**
+     * One range filter resolved to sorted positions; their count is the exact number of movies it keeps.
+     */
+    static final class Bounds {
+        final RangeIndex index;
+        final int from;
+        final int to;
+
+        private Bounds(RangeIndex index, double min, double max) {
+            this.index = index;
+            this.from = index.from(min);
+            this.to = Math.max(from, index.to(max));
+        }
+
+        int count() {
+            return to - from;
+        }
+
+        boolean contains(int ordinal) {
+            int position = index.rank[ordinal];
+            return position >= from && position < to;
+        }
+    }
+
+    private final int[] order;
+    private final int[] rank;
+    private final IntToDoubleFunction values;
+    private final int step;
+    /** {@code prefixes[l]} holds the ordinals at sorted positions {@code [0, l * step)}. */
+    private final long[][] prefixes;
+
+    private RangeIndex(int[] order, int[] rank, IntToDoubleFunction values, int step, long[][] prefixes) {
+        this.order = order;
+        this.rank = rank;
+        this.values = values;
+        this.step = step;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * @param order catalog ordinals in ascending order of the field's value
+     * @param rank position of each catalog ordinal within {@code order}
+     * @param values the field's value per ordinal
+     */
+    static RangeIndex build(int[] order, int[] rank, IntToDoubleFunction values) {
+        int step = Math.max(1, (order.length + LEVELS - 1) / LEVELS);
+        long[][] prefixes = new long[order.length / step + 1][];
+        long[] running = new long[words(order.length)];
+        for (int level = 0; level < prefixes.length; level++) {
+            prefixes[level] = running.clone();
+            int end = Math.min(order.length, (level + 1) * step);
+            for (int position = level * step; position < end; position++) {
+                set(running, order[position]);
+            }
+        }
+        return new RangeIndex(order, rank, values, step, prefixes);
+    }
+
+    /**
+     * @param min smallest value kept, inclusive; {@code Double.NEGATIVE_INFINITY} for no lower bound
+     * @param max largest value kept, inclusive; {@code Double.POSITIVE_INFINITY} for no upper bound
+     */
+    Bounds bounds(double min, double max) {
+        return new Bounds(this, min, max);
+    }
+
+    /**
+     * Applies every range to the matches, most selective range first. While the surviving set is small it is an
+     * ascending ordinal array and the remaining ranges check each survivor's value; when every set is dense, the
+     * ranges' bitmaps are intersected instead. More ranges therefore never mean more work per movie.
+     *
+     * @param matches ascending ordinals already matched by other filters, or null for the whole catalog
+     * @param size number of movies in the catalog
+     * @return ascending ordinals passing every range; the matches themselves when there are no ranges
+     */
+    static int[] filter(int[] matches, int size, List<Bounds> ranges) {
+        if (ranges.isEmpty()) {
+            return matches;
+        }
+        List<Bounds> bySelectivity = new ArrayList<>(ranges);
+        bySelectivity.sort(Comparator.comparingInt(Bounds::count));
+        Bounds first = bySelectivity.get(0);
+        int matched = matches == null ? size : matches.length;
+        if (Math.min(matched, first.count()) <= size / SPARSE_RATIO) {
+            int[] candidates = matches;
+            int next = 0;
+            if (first.count() < matched) {
+                candidates = first.index.ordinals(first.from, first.to);
+                candidates = matches == null ? candidates : SubstringIndex.intersect(matches, candidates);
+                next = 1;
+            }
+            for (Bounds range : bySelectivity.subList(next, bySelectivity.size())) {
+                candidates = keep(candidates, range);
+            }
+            return candidates;
+        }
+        long[] bitmap = first.index.bitmap(first.from, first.to);
+        for (Bounds range : bySelectivity.subList(1, bySelectivity.size())) {
+            and(bitmap, range.index.bitmap(range.from, range.to));
+        }
+        if (matches == null) {
+            return ordinals(bitmap);
+        }
+        int[] kept = new int[matches.length];
+        int count = 0;
+        for (int ordinal : matches) {
+            if (get(bitmap, ordinal)) {
+                kept[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    private static int[] keep(int[] candidates, Bounds range) {
+        int[] kept = new int[candidates.length];
+        int count = 0;
+        for (int ordinal : candidates) {
+            if (range.contains(ordinal)) {
+                kept[count++] = ordinal;
+            }
+        }
+        return count == kept.length ? kept : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * @return the first sorted position whose value is at least {@code min}
+     */
+    int from(double min) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values.applyAsDouble(order[middle]) < min) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the first sorted position whose value is above {@code max}
+     */
+    int to(double max) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values.applyAsDouble(order[middle]) <= max) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the ordinals at sorted positions {@code [from, to)}, ascending
+     */
+    int[] ordinals(int from, int to) {
+        int[] ordinals = Arrays.copyOfRange(order, from, Math.max(from, to));
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    /**
+     * @return a bitmap of the ordinals at sorted positions {@code [from, to)}
+     */
+    long[] bitmap(int from, int to) {
+        int upper = to / step;
+        long[] bitmap = prefixes[upper].clone();
+        for (int position = upper * step; position < to; position++) {
+            set(bitmap, order[position]);
+        }
+        int lower = from / step;
+        long[] below = prefixes[lower];
+        for (int i = 0; i < bitmap.length; i++) {
+            bitmap[i] &= ~below[i];
+        }
+        for (int position = lower * step; position < from; position++) {
+            clear(bitmap, order[position]);
+        }
+        return bitmap;
+    }
+
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    static void set(long[] bitmap, int ordinal) {
+        bitmap[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    static void clear(long[] bitmap, int ordinal) {
+        bitmap[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    static boolean get(long[] bitmap, int ordinal) {
+        return (bitmap[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Intersects {@code other} into {@code bitmap}.
+     */
+    static void and(long[] bitmap, long[] other) {
+        for (int i = 0; i < bitmap.length; i++) {
+            bitmap[i] &= other[i];
+        }
+    }
+
+    /**
+     * @return the set bits of the bitmap as ascending ordinals
+     */
+    static int[] ordinals(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        int[] ordinals = new int[count];
+        int size = 0;
+        for (int i = 0; i < bitmap.length; i++) {
+            long word = bitmap[i];
+            while (word != 0) {
+                ordinals[size++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ordinals;
+    }
+}
@@ -0,0 +1,38 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times Thymeleaf rendering separately from the controller: the clock starts once the handler has returned
+ * its view and stops when the response is complete, tagged with the template name.
+ */
+@Component
+public class RenderTimingInterceptor implements HandlerInterceptor {
+    static final String RENDER_START = RenderTimingInterceptor.class.getName() + ".start";
+    private static final String RENDER_VIEW = RenderTimingInterceptor.class.getName() + ".view";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView != null && modelAndView.getViewName() != null) {
+            request.setAttribute(RENDER_VIEW, modelAndView.getViewName());
+            request.setAttribute(RENDER_START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(RENDER_START);
+        if (start instanceof Long) {
+            MovieMetrics.timer(MovieMetrics.RENDER, "view", (String) request.getAttribute(RENDER_VIEW),
+                               "outcome", ex == null ? "success" : "error")
+                .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only log of posted reviews.
+ *
+ * Reviews are written to numbered segment files ({@code reviews-<first sequence>.log}) as length- and CRC-framed
+ * binary records. A single writer thread drains concurrent submissions into batches and commits each batch with one
+ * write and one fsync, then hands the batch to the commit listener before acknowledging it, so a review is visible
+ * to readers as soon as its submitter hears it was stored.
+ *
+ * Every {@code checkpointInterval} reviews the writer rolls to a new segment and a background thread writes the full
+ * review state to {@code checkpoint.bin}, keeping the seed reviews apart from the posted ones so a changed seed file
+ * can be rebased under the posted reviews; the segments it covers are then deleted. Startup reads the checkpoint and
+ * replays only the segments written after it, so replay time stays bounded however many reviews have been posted.
+ * A torn record at the end of the last segment (a crash mid-write) is cut off on open.
+ */
+final class ReviewLog implements Closeable {
+    private static final Logger logger = LogManager.getLogger(ReviewLog.class);
+    static final String SEGMENT_PREFIX = "reviews-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT_FILE = "checkpoint.bin";
+    private static final int CHECKPOINT_MAGIC_V1 = 0x52455631; // "REV1": one map of every review
+    private static final int CHECKPOINT_MAGIC = 0x52455632; // "REV2": seed reviews, then posted reviews
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    /**
+     * One committed review and its position in the log.
+     */
+    static final class Entry {
+        final long sequence;
+        final long movieId;
+        final Review review;
+
+        Entry(long sequence, long movieId, Review review) {
+            this.sequence = sequence;
+            this.movieId = movieId;
+            this.review = review;
+        }
+    }
+
+    /**
+     * Review state as written to a checkpoint: the seed reviews it was built on and the reviews posted since the log
+     * began, each keyed by movie id.
+     */
+    static final class Checkpoint {
+        static final Checkpoint EMPTY = new Checkpoint(Collections.emptyMap(), Collections.emptyMap());
+
+        final Map<Long, List<Review>> seed;
+        final Map<Long, List<Review>> posted;
+
+        Checkpoint(Map<Long, List<Review>> seed, Map<Long, List<Review>> posted) {
+            this.seed = seed;
+            this.posted = posted;
+        }
+    }
+
+    /**
+     * State found on disk when the log was opened.
+     */
+    static final class Recovery {
+        /** Reviews as of the checkpoint, or null if there is none yet. */
+        final Checkpoint checkpoint;
+        /** Reviews committed after the checkpoint, in log order. */
+        final List<Entry> entries;
+
+        Recovery(Checkpoint checkpoint, List<Entry> entries) {
+            this.checkpoint = checkpoint;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Pending {
+        final long movieId;
+        final Review review;
+        final CompletableFuture<Entry> committed = new CompletableFuture<>();
+
+        Pending(long movieId, Review review) {
+            this.movieId = movieId;
+            this.review = review;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final long checkpointInterval;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService checkpointer;
+    private final DistributionSummary batchSizes;
+    private final Counter applyFailures;
+    /**
+     * Held while a batch is written and applied and while a checkpoint is swapped in, so a reload never reads a
+     * half-applied batch or a segment that is being deleted.
+     */
+    private final Object commitLock = new Object();
+
+    private Consumer<List<Entry>> commitListener;
+    private Supplier<Checkpoint> stateSupplier;
+    private Thread writer;
+    private volatile boolean closed;
+
+    // Owned by the writer thread once started
+    private FileChannel segment;
+    private long segmentFirstSequence;
+    private long nextSequence = 1;
+    private long checkpointSequence;
+    private long sinceCheckpoint;
+    /** Counts checkpoint states as they are taken, so a slow background write never replaces a newer checkpoint. */
+    private long checkpointGeneration;
+    private long writtenGeneration;
+
+    /**
+     * @param segmentBytes size at which the writer rolls to a new segment
+     * @param maxBatch most reviews committed with one fsync
+     * @param queueCapacity reviews waiting for the writer; beyond this submissions are rejected
+     * @param checkpointInterval reviews between checkpoints
+     */
+    ReviewLog(Path directory, long segmentBytes, int maxBatch, int queueCapacity, long checkpointInterval) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.checkpointer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "review-log-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = DistributionSummary.builder(MovieMetrics.REVIEW_BATCH)
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+        this.applyFailures = Counter.builder(MovieMetrics.REVIEW_APPLY_FAILED)
+            .description("Committed reviews the commit listener failed to apply; they show up after a restart")
+            .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Reads the checkpoint and the segments after it, cutting off a torn record at the end of the last segment.
+     */
+    Recovery recover() throws IOException {
+        synchronized (commitLock) {
+            Files.createDirectories(directory);
+            Checkpoint checkpoint = null;
+            checkpointSequence = 0;
+            Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+            if (Files.exists(checkpointPath)) {
+                long[] sequence = new long[1];
+                checkpoint = readCheckpoint(checkpointPath, sequence);
+                checkpointSequence = sequence[0];
+            }
+
+            List<Entry> entries = new ArrayList<>();
+            TreeMap<Long, Path> segments = segments();
+            long expected = checkpointSequence + 1;
+            for (Map.Entry<Long, Path> file : segments.entrySet()) {
+                boolean last = file.getKey().equals(segments.lastKey());
+                expected = replaySegment(file.getValue(), last, expected, entries);
+            }
+            nextSequence = expected;
+            sinceCheckpoint = nextSequence - 1 - checkpointSequence;
+            logger.info("Review log {}: checkpoint at {}, replayed {} reviews from {} segments",
+                        directory, checkpointSequence, entries.size(), segments.size());
+            return new Recovery(checkpoint, entries);
+        }
+    }
+
+    /**
+     * Starts the writer thread. Must follow {@link #recover()}.
+     *
+     * @param commitListener applies each committed batch before its submitters are acknowledged
+     * @param stateSupplier full review state to checkpoint, called on the writer thread between batches; its posted
+     *                      map may change later and is copied
+     */
+    void start(Consumer<List<Entry>> commitListener, Supplier<Checkpoint> stateSupplier) throws IOException {
+        this.commitListener = commitListener;
+        this.stateSupplier = stateSupplier;
+        openSegment(nextSequence);
+        writer = new Thread(this::writeLoop, "review-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a review for the next group commit.
+     *
+     * @return completes with the committed entry once the review is on disk and applied, or exceptionally if the
+     *         log is closed, full or the write failed. A durable review the listener failed to apply still completes
+     *         normally, so its submitter does not post it again; the failure is logged and counted instead
+     */
+    CompletableFuture<Entry> append(long movieId, Review review) {
+        Pending pending = new Pending(movieId, review);
+        if (closed) {
+            pending.committed.completeExceptionally(new IllegalStateException("Review log is closed"));
+        } else if (!queue.offer(pending)) {
+            pending.committed.completeExceptionally(new RejectedExecutionException("Review log queue is full"));
+        }
+        return pending.committed;
+    }
+
+    /**
+     * Runs an action while no batch is being committed, e.g. rebuilding the index from disk.
+     */
+    <T> T exclusive(Supplier<T> action) {
+        synchronized (commitLock) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Writes a checkpoint now, covering everything committed so far. Used on startup when there is none yet and
+     * when the seed reviews are reloaded, before or after {@link #start}.
+     */
+    void checkpoint(Checkpoint state) throws IOException {
+        synchronized (commitLock) {
+            long sequence = nextSequence - 1;
+            if (segment != null) {
+                rollSegment();
+            }
+            writeCheckpoint(state, sequence, nextSequence, ++checkpointGeneration);
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // Keep the only writer alive; the batch's submitters must not wait for a thread that is gone
+                logger.error("Review log writer failed on a batch of {}: {}", batch.size(), e.getMessage(), e);
+                batch.forEach(pending -> pending.committed.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        // Anything still queued after an interrupt was never written
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.committed.completeExceptionally(new IllegalStateException("Review log is closed"));
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<Entry> entries = new ArrayList<>(batch.size());
+        synchronized (commitLock) {
+            long position = -1;
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(batch.size() * 128);
+                for (Pending pending : batch) {
+                    Entry entry = new Entry(nextSequence + entries.size(), pending.movieId, pending.review);
+                    writeRecord(buffer, entry);
+                    entries.add(entry);
+                }
+                if (segment.size() > 0 && segment.size() + buffer.size() > segmentBytes) {
+                    rollSegment();
+                }
+                position = segment.size();
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    segment.write(bytes);
+                }
+                segment.force(false);
+            } catch (IOException e) {
+                logger.error("Failed to commit {} reviews to the review log: {}", batch.size(), e.getMessage());
+                truncateAfterFailure(position);
+                batch.forEach(pending -> pending.committed.completeExceptionally(e));
+                return;
+            }
+            nextSequence += entries.size();
+            sinceCheckpoint += entries.size();
+            try {
+                commitListener.accept(entries);
+            } catch (RuntimeException e) {
+                // The batch is on disk and replays on the next start; only the in-memory view missed it, and failing
+                // the posts would have their clients store the same reviews again
+                logger.error("Committed {} reviews but failed to apply them, they show up after a restart: {}",
+                             entries.size(), e.getMessage(), e);
+                applyFailures.increment(entries.size());
+            }
+        }
+        batchSizes.record(entries.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).committed.complete(entries.get(i));
+        }
+        if (sinceCheckpoint >= checkpointInterval) {
+            scheduleCheckpoint();
+        }
+    }
+
+    private void truncateAfterFailure(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            // Drop a partly written batch so later batches do not land behind a torn record
+            segment.truncate(position);
+        } catch (IOException e) {
+            logger.error("Could not truncate review segment after a failed commit: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleCheckpoint() {
+        Checkpoint state;
+        long sequence;
+        long keepFrom;
+        long generation;
+        synchronized (commitLock) {
+            sequence = nextSequence - 1;
+            try {
+                rollSegment();
+            } catch (IOException e) {
+                logger.error("Could not roll the review log for a checkpoint: {}", e.getMessage());
+                return;
+            }
+            keepFrom = segmentFirstSequence;
+            // Review lists are immutable, so a shallow copy pins the state at this sequence
+            Checkpoint current = stateSupplier.get();
+            state = new Checkpoint(current.seed, new HashMap<>(current.posted));
+            generation = ++checkpointGeneration;
+            sinceCheckpoint = 0;
+        }
+        checkpointer.execute(() -> {
+            try {
+                writeCheckpoint(state, sequence, keepFrom, generation);
+            } catch (IOException e) {
+                logger.error("Review checkpoint at {} failed, segments are kept: {}", sequence, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the checkpoint beside the live one, then swaps it in atomically and deletes the segments it covers while
+     * holding the commit lock. A checkpoint taken before one that was already swapped in is dropped.
+     */
+    private void writeCheckpoint(Checkpoint state, long sequence, long keepFrom, long generation) throws IOException {
+        long start = System.nanoTime();
+        int deleted = 0;
+        // One file per checkpoint, so a reload's checkpoint and a background one never write over each other
+        Path temporary = directory.resolve(CHECKPOINT_FILE + "." + generation + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(sequence);
+            writeReviews(out, state.seed);
+            writeReviews(out, state.posted);
+            out.flush();
+            channel.force(true);
+        }
+        synchronized (commitLock) {
+            if (generation < writtenGeneration) {
+                Files.deleteIfExists(temporary);
+                logger.info("Review checkpoint at {} superseded before it was swapped in", sequence);
+                return;
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenGeneration = generation;
+
+            // Under the lock that recover() takes, so a reload never lists a segment that is gone when it reads it
+            for (Map.Entry<Long, Path> file : segments().headMap(keepFrom).entrySet()) {
+                Files.deleteIfExists(file.getValue());
+                deleted++;
+            }
+        }
+        logger.info("Review checkpoint at {} written in {} ms, {} segments compacted",
+                    sequence, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), deleted);
+    }
+
+    private static void writeReviews(DataOutputStream out, Map<Long, List<Review>> reviews) throws IOException {
+        out.writeInt(reviews.size());
+        for (Map.Entry<Long, List<Review>> movie : reviews.entrySet()) {
+            out.writeLong(movie.getKey());
+            out.writeInt(movie.getValue().size());
+            for (Review review : movie.getValue()) {
+                writeReview(out, review);
+            }
+        }
+    }
+
+    private static Checkpoint readCheckpoint(Path path, long[] sequence) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            int magic = in.readInt();
+            if (magic != CHECKPOINT_MAGIC && magic != CHECKPOINT_MAGIC_V1) {
+                throw new IOException("Not a review checkpoint: " + path);
+            }
+            sequence[0] = in.readLong();
+            Map<Long, List<Review>> seed = readReviews(in);
+            // A first-format checkpoint did not keep posted reviews apart, so a seed reload replaces all of it
+            return new Checkpoint(seed, magic == CHECKPOINT_MAGIC ? readReviews(in) : Collections.emptyMap());
+        }
+    }
+
+    private static Map<Long, List<Review>> readReviews(DataInputStream in) throws IOException {
+        int movies = in.readInt();
+        Map<Long, List<Review>> state = new HashMap<>(movies * 2);
+        for (int i = 0; i < movies; i++) {
+            long movieId = in.readLong();
+            int count = in.readInt();
+            List<Review> reviews = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                reviews.add(readReview(in));
+            }
+            state.put(movieId, Collections.unmodifiableList(reviews));
+        }
+        return state;
+    }
+
+    /**
+     * Reads a segment's records into {@code entries}, skipping those already covered by the checkpoint.
+     *
+     * @return the sequence expected after this segment
+     */
+    private long replaySegment(Path path, boolean last, long expected, List<Entry> entries) throws IOException {
+        long offset = 0;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            DataInputStream in = new DataInputStream(stream);
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return expected;
+                }
+                Entry entry = null;
+                try {
+                    long checksum = in.readInt() & 0xffffffffL;
+                    if (length > 0 && length <= MAX_RECORD_BYTES) {
+                        byte[] payload = new byte[length];
+                        in.readFully(payload);
+                        CRC32 crc = new CRC32();
+                        crc.update(payload, 0, length);
+                        if (crc.getValue() == checksum) {
+                            entry = readEntry(payload);
+                        }
+                    }
+                } catch (EOFException e) {
+                    // Torn record, handled below
+                }
+                if (entry == null) {
+                    if (!last) {
+                        throw new IOException("Corrupt review record in " + path + " at offset " + offset);
+                    }
+                    logger.warn("Cutting off a torn review record at offset {} of {}", offset, path);
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(offset);
+                        channel.force(true);
+                    }
+                    return expected;
+                }
+                if (entry.sequence >= expected) {
+                    if (entry.sequence != expected) {
+                        throw new IOException("Review log gap: expected " + expected + " but found " + entry.sequence);
+                    }
+                    entries.add(entry);
+                    expected++;
+                }
+                offset += 8 + length;
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                               name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file {} in the review log", file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        segmentFirstSequence = firstSequence;
+    }
+
+    private void rollSegment() throws IOException {
+        if (segment.size() == 0) {
+            return;
+        }
+        segment.close();
+        openSegment(nextSequence);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream buffer, Entry entry) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeLong(entry.sequence);
+        out.writeLong(entry.movieId);
+        writeReview(out, entry.review);
+        out.flush();
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        DataOutputStream frame = new DataOutputStream(buffer);
+        frame.writeInt(bytes.length);
+        frame.writeInt((int) crc.getValue());
+        frame.write(bytes);
+        frame.flush();
+    }
+
+    private static Entry readEntry(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        long movieId = in.readLong();
+        return new Entry(sequence, movieId, readReview(in));
+    }
+
+    private static void writeReview(DataOutputStream out, Review review) throws IOException {
+        writeString(out, review.getUserName());
+        writeString(out, review.getAvatarEmoji());
+        out.writeDouble(review.getRating());
+        writeString(out, review.getComment());
+    }
+
+    private static Review readReview(DataInputStream in) throws IOException {
+        String userName = readString(in);
+        String avatarEmoji = readString(in);
+        double rating = in.readDouble();
+        return new Review(userName, avatarEmoji, rating, readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stops accepting reviews, commits what is queued and closes the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (commitLock) {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+}
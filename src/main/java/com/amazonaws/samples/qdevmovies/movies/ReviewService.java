@@ -1,47 +1,455 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import io.micrometer.core.instrument.Timer;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-public class ReviewService {
+public class ReviewService implements DisposableBean {
     private static final Logger logger = LogManager.getLogger(ReviewService.class);
+    private static final String REVIEWS_RESOURCE = "mock-reviews.json";
+    static final int MAX_USER_NAME_LENGTH = 60;
+    static final int MAX_COMMENT_LENGTH = 2000;
+    static final String DEFAULT_AVATAR = "👤";
+
+    /**
+     * Per-movie review index. Reloads build a fresh index and publish it with a single swap, so lookups never
+     * see a half-built index; posted reviews are added to the current index one immutable list at a time.
+     */
+    private final AtomicReference<ReviewIndex> reviewIndex;
+    private final List<SummaryListener> summaryListeners = new CopyOnWriteArrayList<>();
+    /** Durable log for posted reviews, or null to keep them in memory only. */
+    private final ReviewLog reviewLog;
+    private final long commitTimeoutMillis;
+    /** External mock-reviews.json-style file, or null for the bundled one. */
+    private final String reviewsLocation;
+
+    /**
+     * Told when the audience-rating aggregates change, so derived indexes can follow without re-reading reviews.
+     */
+    public interface SummaryListener {
+        /**
+         * All summaries were replaced, e.g. after a reload.
+         */
+        void summariesReplaced(Map<Long, ReviewSummary> summaries);
+
+        /**
+         * Some movies' summaries changed, e.g. after a batch of posted reviews was committed.
+         */
+        void summariesChanged(Map<Long, ReviewSummary> changed);
+    }
+
+    /**
+     * Reviews from mock-reviews.json; posted reviews are kept in memory only.
+     */
+    public ReviewService() {
+        this(null, 0);
+    }
+
+    /**
+     * @param reviewsLocation path to a mock-reviews.json-style file of seed reviews; blank means the bundled file.
+     *                        With a review log it is read on the first start and on each reload; other starts take
+     *                        it from the log's checkpoint.
+     * @param logDirectory directory of the durable review log; blank keeps posted reviews in memory only
+     * @param segmentBytes size at which the log rolls to a new segment file
+     * @param maxBatch most posted reviews committed with one fsync
+     * @param queueCapacity posted reviews waiting to be committed; beyond this posts are turned away
+     * @param checkpointInterval posted reviews between checkpoints, which bound replay time on startup
+     * @param commitTimeoutMillis how long a post waits for its review to be committed
+     */
+    @Autowired
+    public ReviewService(@Value("${movies.reviews.location:}") String reviewsLocation,
+                         @Value("${movies.reviews.log.dir:}") String logDirectory,
+                         @Value("${movies.reviews.log.segment-bytes:67108864}") long segmentBytes,
+                         @Value("${movies.reviews.log.max-batch:512}") int maxBatch,
+                         @Value("${movies.reviews.log.queue:10000}") int queueCapacity,
+                         @Value("${movies.reviews.log.checkpoint-every:100000}") long checkpointInterval,
+                         @Value("${movies.reviews.log.commit-timeout-ms:5000}") long commitTimeoutMillis) {
+        this(reviewsLocation, logDirectory == null || logDirectory.trim().isEmpty() ? null
+                 : new ReviewLog(Paths.get(logDirectory.trim()), segmentBytes, maxBatch, queueCapacity, checkpointInterval),
+             commitTimeoutMillis);
+    }
+
+    ReviewService(ReviewLog reviewLog, long commitTimeoutMillis) {
+        this(null, reviewLog, commitTimeoutMillis);
+    }
+
+    ReviewService(String reviewsLocation, ReviewLog reviewLog, long commitTimeoutMillis) {
+        this.reviewsLocation = reviewsLocation == null || reviewsLocation.trim().isEmpty() ? null : reviewsLocation.trim();
+        this.reviewLog = reviewLog;
+        this.commitTimeoutMillis = commitTimeoutMillis;
+        if (reviewLog == null) {
+            this.reviewIndex = new AtomicReference<>(new ReviewIndex(loadSeedReviews(), Collections.emptyMap()));
+            return;
+        }
+        try {
+            this.reviewIndex = new AtomicReference<>(recoverIndex(false));
+            reviewLog.start(this::applyCommitted, () -> reviewIndex.get().checkpointState());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Review log could not be recovered", e);
+        }
+    }
+
+    /**
+     * Builds the service over an in-memory review index instead of mock-reviews.json, used by benchmarks and tests.
+     */
+    ReviewService(Map<Long, List<Review>> reviews) {
+        this.reviewsLocation = null;
+        this.reviewLog = null;
+        this.commitTimeoutMillis = 0;
+        this.reviewIndex = new AtomicReference<>(new ReviewIndex(reviews, Collections.emptyMap()));
+    }
 
     public List<Review> getReviewsForMovie(long movieId) {
-        List<Review> reviews = new ArrayList<>();
+        Timer.Sample sample = Timer.start();
+        List<Review> reviews = reviewIndex.get().reviews.get(movieId);
+        sample.stop(MovieMetrics.timer(MovieMetrics.REVIEWS));
+        return reviews != null ? reviews : Collections.emptyList();
+    }
+
+    /**
+     * Stores a posted review. With a review log the call returns once the review is on disk, as part of the next
+     * group commit; either way it is visible to {@link #getReviewsForMovie} by the time this returns.
+     *
+     * @return the movie's audience summary including the new review
+     * @throws IllegalArgumentException if the review is incomplete or its rating is outside 1 to 5
+     * @throws IllegalStateException if the review could not be committed in time
+     */
+    public ReviewSummary addReview(long movieId, Review review) {
+        Review accepted = validate(review);
+        Timer.Sample sample = Timer.start();
+        String outcome = "committed";
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("mock-reviews.json");
-            if (inputStream != null) {
-                Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
-                String jsonContent = scanner.useDelimiter("\\A").next();
-                scanner.close();
-                
-                JSONObject reviewsData = new JSONObject(jsonContent);
-                if (reviewsData.has(String.valueOf(movieId))) {
-                    JSONArray movieReviews = reviewsData.getJSONArray(String.valueOf(movieId));
-                    for (int i = 0; i < movieReviews.length(); i++) {
-                        JSONObject reviewObj = movieReviews.getJSONObject(i);
-                        reviews.add(new Review(
-                            reviewObj.getString("userName"),
-                            reviewObj.getString("avatarEmoji"),
-                            reviewObj.getDouble("rating"),
-                            reviewObj.getString("comment")
-                        ));
-                    }
+            if (reviewLog == null) {
+                synchronized (this) {
+                    applyCommitted(Collections.singletonList(new ReviewLog.Entry(0, movieId, accepted)));
                 }
+            } else {
+                reviewLog.append(movieId, accepted).get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
             }
+            return getReviewSummary(movieId);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            throw new IllegalStateException("Review was not committed within " + commitTimeoutMillis + " ms", e);
+        } catch (ExecutionException e) {
+            outcome = "error";
+            throw new IllegalStateException("Review could not be stored: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+            throw new IllegalStateException("Interrupted while storing the review", e);
+        } finally {
+            sample.stop(MovieMetrics.timer(MovieMetrics.REVIEW_APPEND, "outcome", outcome));
+        }
+    }
+
+    private static Review validate(Review review) {
+        String userName = review.getUserName() == null ? "" : review.getUserName().trim();
+        if (userName.isEmpty() || userName.length() > MAX_USER_NAME_LENGTH) {
+            throw new IllegalArgumentException("userName must be 1 to " + MAX_USER_NAME_LENGTH + " characters");
+        }
+        if (!(review.getRating() >= 1.0 && review.getRating() <= 5.0)) {
+            throw new IllegalArgumentException("rating must be between 1 and 5");
+        }
+        String comment = review.getComment() == null ? "" : review.getComment().trim();
+        if (comment.length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("comment must be at most " + MAX_COMMENT_LENGTH + " characters");
+        }
+        String avatar = review.getAvatarEmoji() == null || review.getAvatarEmoji().trim().isEmpty()
+            ? DEFAULT_AVATAR : review.getAvatarEmoji().trim();
+        return new Review(userName, avatar, review.getRating(), comment);
+    }
+
+    /**
+     * Adds committed reviews to the current index and tells the listeners; called by one committer at a time.
+     */
+    private void applyCommitted(List<ReviewLog.Entry> entries) {
+        Map<Long, ReviewSummary> changed = reviewIndex.get().apply(entries);
+        summaryListeners.forEach(listener -> listener.summariesChanged(changed));
+    }
+
+    /**
+     * Registers a listener and immediately hands it the current summaries.
+     */
+    public void addSummaryListener(SummaryListener listener) {
+        summaryListeners.add(listener);
+        listener.summariesReplaced(reviewIndex.get().summariesView);
+    }
+
+    public ReviewSummary getReviewSummary(long movieId) {
+        return reviewIndex.get().summaries.getOrDefault(movieId, ReviewSummary.NONE);
+    }
+
+    /**
+     * Review counts and average ratings for many movies in one pass over the precomputed summaries.
+     * Movies without reviews get a zero-count summary.
+     *
+     * @return summaries keyed by movie id, in the order of the given ids
+     */
+    public Map<Long, ReviewSummary> getReviewSummaries(Collection<Long> movieIds) {
+        Map<Long, ReviewSummary> summaries = reviewIndex.get().summaries;
+        Map<Long, ReviewSummary> result = new LinkedHashMap<>(movieIds.size() * 2);
+        for (Long movieId : movieIds) {
+            result.put(movieId, summaries.getOrDefault(movieId, ReviewSummary.NONE));
+        }
+        return result;
+    }
+
+    /**
+     * Content fingerprint and load time of the current review index, used for ETag and Last-Modified headers.
+     * Posted reviews move the fingerprint on as they are committed.
+     */
+    public DataVersion getReviewVersion() {
+        return reviewIndex.get().version;
+    }
+
+    /**
+     * Re-reads the seed reviews file and atomically replaces the current index. With a review log the reviews posted
+     * so far are put back on top of the new seed and a checkpoint is written on the new seed; without one, reviews
+     * posted since startup are dropped. If the source cannot be read or parsed the previous index is kept.
+     *
+     * @return true if a new index was published
+     */
+    public boolean reloadReviews() {
+        try {
+            ReviewIndex reloaded;
+            if (reviewLog == null) {
+                synchronized (this) {
+                    reloaded = new ReviewIndex(loadReviewIndex(), Collections.emptyMap());
+                    reviewIndex.set(reloaded);
+                }
+            } else {
+                // No batch is committed while the log is re-read, so none is applied twice or lost
+                reloaded = reviewLog.exclusive(() -> {
+                    try {
+                        ReviewIndex recovered = recoverIndex(true);
+                        reviewIndex.set(recovered);
+                        return recovered;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            summaryListeners.forEach(listener -> listener.summariesReplaced(reloaded.summariesView));
+            return true;
         } catch (Exception e) {
-            logger.error("Failed to load reviews for movie {}: {}", movieId, e.getMessage());
+            logger.error("Review reload failed, keeping the previous index: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts from the log's checkpoint, or from mock-reviews.json the first time, and replays the reviews
+     * committed after it. A first start writes a checkpoint straight away so later starts skip the JSON; if the seed
+     * reviews cannot be read then, recovery fails rather than checkpointing an empty state over them for good.
+     *
+     * @param reseed re-read mock-reviews.json even though the checkpoint has it, keeping the posted reviews
+     */
+    private ReviewIndex recoverIndex(boolean reseed) throws IOException {
+        long start = System.nanoTime();
+        ReviewLog.Recovery recovery = reviewLog.recover();
+        boolean rebase = reseed || recovery.checkpoint == null;
+        Map<Long, List<Review>> seed;
+        if (rebase) {
+            try {
+                seed = loadReviewIndex();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Seed reviews in " + reviewsSource() + " could not be read: " + e.getMessage(), e);
+            }
+        } else {
+            seed = recovery.checkpoint.seed;
+        }
+        ReviewIndex index = new ReviewIndex(seed, recovery.checkpoint == null ? Collections.emptyMap()
+                                                  : recovery.checkpoint.posted);
+        index.apply(recovery.entries);
+        if (rebase) {
+            reviewLog.checkpoint(index.checkpointState());
+        }
+        logger.info("Recovered reviews for {} movies ({} replayed) in {} ms", index.reviews.size(),
+                    recovery.entries.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return index;
+    }
+
+    /**
+     * Seed reviews for the service without a review log, where nothing is persisted from them: a broken file starts
+     * the service with no reviews instead of failing it.
+     */
+    private Map<Long, List<Review>> loadSeedReviews() {
+        try {
+            return loadReviewIndex();
+        } catch (Exception e) {
+            logger.error("Failed to load reviews from {}: {}", reviewsSource(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private String reviewsSource() {
+        return reviewsLocation != null ? reviewsLocation : "classpath:" + REVIEWS_RESOURCE;
+    }
+
+    private Map<Long, List<Review>> loadReviewIndex() throws Exception {
+        Map<Long, List<Review>> index;
+        if (reviewsLocation != null && BinaryCatalog.isBinaryCatalog(Paths.get(reviewsLocation))) {
+            index = BinaryCatalog.open(Paths.get(reviewsLocation)).reviews();
+        } else {
+            try (InputStream inputStream = reviewsLocation != null ? Files.newInputStream(Paths.get(reviewsLocation))
+                                           : getClass().getClassLoader().getResourceAsStream(REVIEWS_RESOURCE)) {
+                index = inputStream == null ? Collections.emptyMap() : readReviews(inputStream);
+            }
+        }
+        logger.info("Indexed reviews for {} movies from {}", index.size(), reviewsSource());
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Parses a mock-reviews.json-style object of review arrays keyed by movie id.
+     */
+    static Map<Long, List<Review>> readReviews(InputStream inputStream) {
+        Map<Long, List<Review>> index = new HashMap<>();
+        Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
+        String jsonContent = scanner.useDelimiter("\\A").next();
+        scanner.close();
+
+        JSONObject reviewsData = new JSONObject(jsonContent);
+        for (String key : reviewsData.keySet()) {
+            long movieId;
+            try {
+                movieId = Long.parseLong(key);
+            } catch (NumberFormatException e) {
+                logger.warn("Skipping reviews under non-numeric movie id '{}'", key);
+                continue;
+            }
+            JSONArray movieReviews = reviewsData.getJSONArray(key);
+            List<Review> reviews = new ArrayList<>(movieReviews.length());
+            for (int i = 0; i < movieReviews.length(); i++) {
+                JSONObject reviewObj = movieReviews.getJSONObject(i);
+                reviews.add(new Review(
+                    reviewObj.getString("userName"),
+                    reviewObj.getString("avatarEmoji"),
+                    reviewObj.getDouble("rating"),
+                    reviewObj.getString("comment")
+                ));
+            }
+            index.put(movieId, Collections.unmodifiableList(reviews));
+        }
+        return index;
+    }
+
+    /**
+     * A review index together with its version. Lists are immutable and replaced, never changed, when a review
+     * is added, so readers always see a whole list. The posted reviews are also kept apart from the seed, so a
+     * reloaded seed can be put under them.
+     */
+    private static final class ReviewIndex {
+        private final Map<Long, List<Review>> reviews;
+        private final Map<Long, List<Review>> seed;
+        private final Map<Long, List<Review>> posted;
+        private final Map<Long, ReviewSummary> summaries;
+        private final Map<Long, ReviewSummary> summariesView;
+        /** Carried on from the loaded content through every committed review; only touched by the committer. */
+        private final DataVersion.Fingerprint fingerprint;
+        private volatile DataVersion version;
+
+        ReviewIndex(Map<Long, List<Review>> seed, Map<Long, List<Review>> posted) {
+            this.seed = seed;
+            this.posted = new ConcurrentHashMap<>(posted);
+            Map<Long, List<Review>> initial = new HashMap<>(seed);
+            posted.forEach((movieId, movieReviews) -> {
+                List<Review> seeded = initial.get(movieId);
+                if (seeded == null) {
+                    initial.put(movieId, movieReviews);
+                } else {
+                    List<Review> merged = new ArrayList<>(seeded.size() + movieReviews.size());
+                    merged.addAll(seeded);
+                    merged.addAll(movieReviews);
+                    initial.put(movieId, Collections.unmodifiableList(merged));
+                }
+            });
+            this.reviews = new ConcurrentHashMap<>(initial);
+            this.summaries = new ConcurrentHashMap<>(initial.size() * 2);
+            initial.forEach((movieId, movieReviews) -> summaries.put(movieId, ReviewSummary.of(movieReviews)));
+            this.summariesView = Collections.unmodifiableMap(summaries);
+            // Walk movie ids in order so the fingerprint does not depend on hash map iteration
+            this.fingerprint = DataVersion.fingerprint();
+            for (Long movieId : new TreeSet<>(initial.keySet())) {
+                fingerprint.add(movieId);
+                for (Review review : initial.get(movieId)) {
+                    add(fingerprint, review);
+                }
+            }
+            this.version = fingerprint.toVersion();
+        }
+
+        private static void add(DataVersion.Fingerprint fingerprint, Review review) {
+            fingerprint.add(review.getUserName()).add(review.getAvatarEmoji()).add(review.getRating())
+                .add(review.getComment()).endRecord();
+        }
+
+        /**
+         * @return the new summaries of the movies that got reviews
+         */
+        Map<Long, ReviewSummary> apply(List<ReviewLog.Entry> entries) {
+            if (entries.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<Long, ReviewSummary> changed = new HashMap<>();
+            for (ReviewLog.Entry entry : entries) {
+                List<Review> current = reviews.getOrDefault(entry.movieId, Collections.emptyList());
+                // Lists already handed to readers stay as they are; appending does not copy the movie's reviews
+                reviews.put(entry.movieId, AppendOnlyList.append(current, entry.review));
+                posted.put(entry.movieId, AppendOnlyList.append(
+                    posted.getOrDefault(entry.movieId, Collections.emptyList()), entry.review));
+                ReviewSummary summary = summaries.getOrDefault(entry.movieId, ReviewSummary.NONE).plus(entry.review.getRating());
+                summaries.put(entry.movieId, summary);
+                changed.put(entry.movieId, summary);
+                add(fingerprint.add(entry.movieId), entry.review);
+            }
+            version = fingerprint.toVersion();
+            return changed;
+        }
+
+        /**
+         * @return the seed and the posted reviews, for a checkpoint
+         */
+        ReviewLog.Checkpoint checkpointState() {
+            return new ReviewLog.Checkpoint(seed, posted);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (reviewLog != null) {
+            reviewLog.close();
         }
-        return reviews;
     }
 }
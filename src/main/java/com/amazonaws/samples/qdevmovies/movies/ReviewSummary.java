@@ -0,0 +1,65 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+
+/**
+ * Audience-rating aggregate of one movie: review count, mean rating and a histogram of whole-star ratings.
+ * Computed once from the review data and updated incrementally with {@link #plus(double)} as reviews arrive,
+ * so searches and pages never read individual reviews.
+ */
+public class ReviewSummary {
+    static final ReviewSummary NONE = new ReviewSummary(0, 0.0, new int[5]);
+
+    private final int count;
+    private final double totalRating;
+    /** Reviews per star, index 0 for 1 star through index 4 for 5 stars. */
+    private final int[] histogram;
+
+    private ReviewSummary(int count, double totalRating, int[] histogram) {
+        this.count = count;
+        this.totalRating = totalRating;
+        this.histogram = histogram;
+    }
+
+    static ReviewSummary of(Iterable<Review> reviews) {
+        ReviewSummary summary = NONE;
+        for (Review review : reviews) {
+            summary = summary.plus(review.getRating());
+        }
+        return summary;
+    }
+
+    /**
+     * @return a new summary that also counts one more review with this rating
+     */
+    ReviewSummary plus(double rating) {
+        int[] updated = Arrays.copyOf(histogram, histogram.length);
+        updated[star(rating) - 1]++;
+        return new ReviewSummary(count + 1, totalRating + rating, updated);
+    }
+
+    /**
+     * Rounds a rating to its whole-star histogram bucket, 1 to 5.
+     */
+    static int star(double rating) {
+        return (int) Math.max(1, Math.min(5, Math.round(rating)));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return mean review rating, or 0 when there are no reviews
+     */
+    public double getAverageRating() {
+        return count == 0 ? 0.0 : totalRating / count;
+    }
+
+    /**
+     * @return review counts for 1 to 5 stars
+     */
+    public int[] getHistogram() {
+        return Arrays.copyOf(histogram, histogram.length);
+    }
+}
@@ -0,0 +1,183 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Case-insensitive partial-match index over one text field of the catalog.
+ * Every 1-, 2- and 3-character gram of a normalized value maps to the sorted ordinals of the values containing it,
+ * so short queries are answered straight from a posting list and longer ones by intersecting trigram postings
+ * and verifying the few surviving candidates.
+ */
+final class SubstringIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_MATCHES = new int[0];
+    /** Beyond this size ratio, intersections binary-search the larger array instead of merging. */
+    private static final int GALLOP_RATIO = 32;
+
+    private final String[] normalizedValues;
+    private final Map<String, int[]> postings;
+
+    private SubstringIndex(String[] normalizedValues, Map<String, int[]> postings) {
+        this.normalizedValues = normalizedValues;
+        this.postings = postings;
+    }
+
+    /**
+     * @param size number of catalog ordinals
+     * @param values field value for each ordinal
+     */
+    static SubstringIndex build(int size, IntFunction<String> values) {
+        String[] normalized = new String[size];
+        Map<String, IntList> builders = new HashMap<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            String value = normalize(values.apply(ordinal));
+            normalized[ordinal] = value;
+            for (int length = 1; length <= GRAM_LENGTH; length++) {
+                for (int start = 0; start + length <= value.length(); start++) {
+                    IntList posting = builders.computeIfAbsent(value.substring(start, start + length), gram -> new IntList());
+                    // Ordinals arrive in ascending order, so a repeated gram only ever repeats the last entry
+                    if (posting.isEmpty() || posting.last() != ordinal) {
+                        posting.add(ordinal);
+                    }
+                }
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, posting) -> postings.put(gram, posting.toArray()));
+        return new SubstringIndex(normalized, postings);
+    }
+
+    /**
+     * Normalizes a value or query the same way the original stream filters did (lower-cased, default locale).
+     */
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase();
+    }
+
+    /**
+     * Finds the ordinals of all values containing the given normalized query.
+     *
+     * @param query trimmed, normalized search text; must not be empty
+     * @return ascending ordinals of matching values
+     */
+    int[] search(String query) {
+        if (query.length() <= GRAM_LENGTH) {
+            int[] posting = postings.get(query);
+            return posting != null ? posting : NO_MATCHES;
+        }
+
+        int gramCount = query.length() - GRAM_LENGTH + 1;
+        int[][] gramPostings = new int[gramCount][];
+        for (int start = 0; start < gramCount; start++) {
+            int[] posting = postings.get(query.substring(start, start + GRAM_LENGTH));
+            if (posting == null) {
+                return NO_MATCHES;
+            }
+            gramPostings[start] = posting;
+        }
+        // Intersect from the rarest gram so the candidate set shrinks as fast as possible
+        Arrays.sort(gramPostings, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = gramPostings[0];
+        for (int i = 1; i < gramPostings.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, gramPostings[i]);
+        }
+
+        // Shared trigrams do not guarantee adjacency, so confirm each candidate
+        int matches = 0;
+        int[] verified = new int[candidates.length];
+        for (int ordinal : candidates) {
+            if (normalizedValues[ordinal].contains(query)) {
+                verified[matches++] = ordinal;
+            }
+        }
+        return matches == verified.length ? verified : Arrays.copyOf(verified, matches);
+    }
+
+    /**
+     * Intersects two ascending ordinal arrays. When one is far smaller, its ordinals are looked up in the other by
+     * galloping search, so the cost follows the smaller array.
+     */
+    static int[] intersect(int[] left, int[] right) {
+        if (left.length > right.length) {
+            int[] swap = left;
+            left = right;
+            right = swap;
+        }
+        if ((long) left.length * GALLOP_RATIO < right.length) {
+            return gallop(left, right);
+        }
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * @param small ascending ordinals, much fewer than {@code large}
+     */
+    private static int[] gallop(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int size = 0;
+        int low = 0;
+        for (int ordinal : small) {
+            int bound = 1;
+            while (low + bound < large.length && large[low + bound] < ordinal) {
+                bound <<= 1;
+            }
+            int position = Arrays.binarySearch(large, low, Math.min(large.length, low + bound + 1), ordinal);
+            if (position >= 0) {
+                result[size++] = ordinal;
+                low = position + 1;
+            } else {
+                low = -position - 1;
+            }
+            if (low >= large.length) {
+                break;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Minimal growable int array used while collecting postings.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix index for type-ahead over titles and directors.
+ *
+ * Every distinct title and director is a completion, found by a prefix of its text or of any later word in it
+ * ("hei" finds "Dream Heist"). The keys, one per (completion, word start), are kept sorted case-insensitively, so
+ * the keys starting with a prefix form one contiguous range and the sorted keys act as a flattened trie: the range
+ * of a prefix is its trie node. Nodes with more than {@link #SCAN_LIMIT} keys get their best {@link #MAX_SUGGESTIONS}
+ * completions precomputed at build time; smaller nodes are scanned when asked. A lookup is therefore two binary
+ * searches plus either a map lookup or a scan of at most {@code SCAN_LIMIT} keys, whatever the catalog size.
+ */
+final class SuggestIndex {
+    static final int MAX_SUGGESTIONS = 20;
+    /** Ranges up to this many keys are ranked when asked rather than precomputed. */
+    static final int SCAN_LIMIT = 256;
+    /** Word starts beyond this offset are not indexed; the offset is packed into the low bits of a key. */
+    private static final int MAX_OFFSET = 0xFF;
+    private static final int CHUNK_CHARS = 4;
+    private static final int INSERTION_SORT_LIMIT = 12;
+    private static final int[] NO_COMPLETIONS = new int[0];
+
+    private final String[] texts;
+    private final boolean[] directors;
+    /** Best-rated movie carrying each completion. */
+    private final int[] ordinals;
+    /** Position of each completion in best-first order; lower is better and no two completions share one. */
+    private final int[] ranks;
+    private final int[] byRank;
+    /** (completion << 8 | offset of the word start), sorted by the lower-cased text from that offset. */
+    private final long[] keys;
+    /** Best completions of every range longer than {@link #SCAN_LIMIT}, keyed by (start << 32 | end). */
+    private final Map<Long, int[]> topByRange;
+
+    private SuggestIndex(String[] texts, boolean[] directors, int[] ordinals, int[] ranks, int[] byRank, long[] keys,
+                         Map<Long, int[]> topByRange) {
+        this.texts = texts;
+        this.directors = directors;
+        this.ordinals = ordinals;
+        this.ranks = ranks;
+        this.byRank = byRank;
+        this.keys = keys;
+        this.topByRange = topByRange;
+    }
+
+    /**
+     * Collects the distinct titles and directors of the catalog. Each completion is ranked by the IMDb rating of
+     * its best-rated movie, ties in catalog order, titles before directors.
+     */
+    static SuggestIndex build(MovieStore store) {
+        int size = store.size();
+        Map<String, Integer> titleCompletions = new HashMap<>();
+        Map<String, Integer> directorCompletions = new HashMap<>();
+        String[] texts = new String[size];
+        int[] ordinals = new int[size];
+        int count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            Map<String, Integer> completions = pass == 0 ? titleCompletions : directorCompletions;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                String text = pass == 0 ? store.movieName(ordinal) : store.director(ordinal);
+                if (text == null || text.trim().isEmpty()) {
+                    continue;
+                }
+                Integer existing = completions.get(text);
+                if (existing == null) {
+                    if (count == texts.length) {
+                        texts = Arrays.copyOf(texts, count * 2);
+                        ordinals = Arrays.copyOf(ordinals, count * 2);
+                    }
+                    completions.put(text, count);
+                    texts[count] = text;
+                    ordinals[count++] = ordinal;
+                } else if (store.imdbRating(ordinal) > store.imdbRating(ordinals[existing])) {
+                    ordinals[existing] = ordinal;
+                }
+            }
+        }
+        texts = Arrays.copyOf(texts, count);
+        ordinals = Arrays.copyOf(ordinals, count);
+        boolean[] directors = new boolean[count];
+        for (int completion = titleCompletions.size(); completion < count; completion++) {
+            directors[completion] = true;
+        }
+
+        long[] bestFirst = new long[count];
+        for (int completion = 0; completion < count; completion++) {
+            // Ratings are non-negative, so their bits order like the values; complement for best first
+            long rating = Float.floatToIntBits((float) store.imdbRating(ordinals[completion]));
+            bestFirst[completion] = (~rating & 0xFFFFFFFFL) << 32 | completion;
+        }
+        Arrays.sort(bestFirst);
+        int[] ranks = new int[count];
+        int[] byRank = new int[count];
+        for (int rank = 0; rank < count; rank++) {
+            int completion = (int) bestFirst[rank];
+            ranks[completion] = rank;
+            byRank[rank] = completion;
+        }
+
+        long[] keys = wordStarts(texts);
+        SuggestIndex index = new SuggestIndex(texts, directors, ordinals, ranks, byRank, keys, new HashMap<>());
+        FoldedTexts folded = new FoldedTexts(texts);
+        folded.sort(keys);
+        index.precomputeLargeRanges(folded);
+        return index;
+    }
+
+    private static long[] wordStarts(String[] texts) {
+        long[] keys = new long[texts.length * 2];
+        int size = 0;
+        for (int completion = 0; completion < texts.length; completion++) {
+            String text = texts[completion];
+            int limit = Math.min(text.length(), MAX_OFFSET + 1);
+            for (int offset = 0; offset < limit; offset++) {
+                boolean wordStart = Character.isLetterOrDigit(text.charAt(offset))
+                    && (offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1)));
+                if (wordStart) {
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                    }
+                    keys[size++] = (long) completion << 8 | offset;
+                }
+            }
+        }
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * @param prefix typed text, case-insensitive; leading blanks are ignored
+     * @param limit most completions to return, capped at {@link #MAX_SUGGESTIONS}
+     * @return completions best first
+     */
+    int[] suggest(String prefix, int limit) {
+        String typed = normalize(prefix);
+        int count = Math.min(limit, MAX_SUGGESTIONS);
+        if (typed.isEmpty() || count <= 0) {
+            return NO_COMPLETIONS;
+        }
+        int start = lowerBound(typed);
+        int end = upperBound(typed, start);
+        if (start == end) {
+            return NO_COMPLETIONS;
+        }
+        int[] best = end - start > SCAN_LIMIT ? topByRange.get(range(start, end)) : top(start, end);
+        return best.length <= count ? best : Arrays.copyOf(best, count);
+    }
+
+    String text(int completion) {
+        return texts[completion];
+    }
+
+    boolean isDirector(int completion) {
+        return directors[completion];
+    }
+
+    /**
+     * @return ordinal of the best-rated movie carrying the completion
+     */
+    int ordinal(int completion) {
+        return ordinals[completion];
+    }
+
+    int size() {
+        return texts.length;
+    }
+
+    private static String normalize(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        int start = 0;
+        while (start < prefix.length() && Character.isWhitespace(prefix.charAt(start))) {
+            start++;
+        }
+        char[] folded = new char[prefix.length() - start];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(prefix.charAt(start + i));
+        }
+        return new String(folded);
+    }
+
+    private static long range(int start, int end) {
+        return (long) start << 32 | end;
+    }
+
+    /**
+     * Ranks the completions of keys {@code [start, end)}, each completion once.
+     *
+     * @return up to {@link #MAX_SUGGESTIONS} completions, best first
+     */
+    private int[] top(int start, int end) {
+        int[] best = new int[MAX_SUGGESTIONS];
+        int size = 0;
+        for (int i = start; i < end; i++) {
+            int rank = ranks[(int) (keys[i] >>> 8)];
+            if (size == best.length && rank >= best[size - 1]) {
+                continue;
+            }
+            int position = Arrays.binarySearch(best, 0, size, rank);
+            if (position >= 0) {
+                continue;
+            }
+            position = -position - 1;
+            int moved = Math.min(size, best.length - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = rank;
+            size = Math.min(size + 1, best.length);
+        }
+        int[] completions = new int[size];
+        for (int i = 0; i < size; i++) {
+            completions[i] = byRank[best[i]];
+        }
+        return completions;
+    }
+
+    /**
+     * Finds every trie node (range of keys sharing a prefix) above {@link #SCAN_LIMIT} keys with one pass over the
+     * common-prefix lengths of neighbouring keys, and stores its best completions.
+     */
+    private void precomputeLargeRanges(FoldedTexts folded) {
+        int[] depths = new int[64];
+        int[] starts = new int[64];
+        int top = 0;
+        depths[0] = 0;
+        starts[0] = 0;
+        for (int i = 1; i <= keys.length; i++) {
+            int depth = i < keys.length ? folded.commonPrefix(keys[i - 1], keys[i]) : -1;
+            int start = i - 1;
+            while (top >= 0 && depth < depths[top]) {
+                start = starts[top];
+                if (i - start > SCAN_LIMIT) {
+                    topByRange.put(range(start, i), top(start, i));
+                }
+                top--;
+            }
+            if (top < 0 || depth > depths[top]) {
+                if (++top == depths.length) {
+                    depths = Arrays.copyOf(depths, top * 2);
+                    starts = Arrays.copyOf(starts, top * 2);
+                }
+                depths[top] = depth;
+                starts[top] = start;
+            }
+        }
+    }
+
+    private char charAt(long key, int i) {
+        return Character.toLowerCase(texts[(int) (key >>> 8)].charAt((int) (key & MAX_OFFSET) + i));
+    }
+
+    private int length(long key) {
+        return texts[(int) (key >>> 8)].length() - (int) (key & MAX_OFFSET);
+    }
+
+    /**
+     * @return negative if the key sorts before every key starting with the prefix, zero if it starts with it,
+     *         positive if it sorts after them
+     */
+    private int comparePrefix(long key, String prefix) {
+        int length = Math.min(length(key), prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = charAt(key, i) - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(keys[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(keys[middle], prefix) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Build-time copy of the lower-cased texts in one contiguous array. Sorting millions of keys then reads
+     * neighbouring memory instead of a separate string per key.
+     */
+    private static final class FoldedTexts {
+        private final char[] chars;
+        /** Start of each completion's text in {@link #chars}, with the end of the last one appended. */
+        private final int[] starts;
+
+        FoldedTexts(String[] texts) {
+            starts = new int[texts.length + 1];
+            for (int completion = 0; completion < texts.length; completion++) {
+                starts[completion + 1] = starts[completion] + texts[completion].length();
+            }
+            chars = new char[starts[texts.length]];
+            for (int completion = 0; completion < texts.length; completion++) {
+                String text = texts[completion];
+                for (int i = 0; i < text.length(); i++) {
+                    chars[starts[completion] + i] = Character.toLowerCase(text.charAt(i));
+                }
+            }
+        }
+
+        char charAt(long key, int i) {
+            return chars[starts[(int) (key >>> 8)] + (int) (key & MAX_OFFSET) + i];
+        }
+
+        int length(long key) {
+            int completion = (int) (key >>> 8);
+            return starts[completion + 1] - starts[completion] - (int) (key & MAX_OFFSET);
+        }
+
+        int commonPrefix(long a, long b) {
+            int length = Math.min(length(a), length(b));
+            int i = 0;
+            while (i < length && charAt(a, i) == charAt(b, i)) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * Three-way radix quicksort of the keys by their text, {@link #CHUNK_CHARS} characters at a time: keys are
+         * partitioned on one chunk and a shared prefix is never compared twice, which matters for titles that differ
+         * only in a trailing number. Each key's chunk for the current depth is read once and kept beside it, so
+         * partitioning compares primitive arrays.
+         */
+        void sort(long[] keys) {
+            long[] chunks = new long[keys.length];
+            fillChunks(keys, chunks, 0, keys.length, 0);
+            sort(keys, chunks, 0, keys.length, 0);
+        }
+
+        private void sort(long[] keys, long[] chunks, int low, int high, int depth) {
+            while (high - low > INSERTION_SORT_LIMIT) {
+                long pivot = chunks[(low + high) >>> 1];
+                int less = low;
+                int greater = high - 1;
+                int i = low;
+                while (i <= greater) {
+                    int order = Long.compareUnsigned(chunks[i], pivot);
+                    if (order < 0) {
+                        swap(keys, chunks, less++, i++);
+                    } else if (order > 0) {
+                        swap(keys, chunks, i, greater--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(keys, chunks, low, less, depth);
+                // A chunk padded with zeros ends its text: the equal keys are then equal in full
+                if ((pivot & 0xFFFF) != 0) {
+                    fillChunks(keys, chunks, less, greater + 1, depth + 1);
+                    sort(keys, chunks, less, greater + 1, depth + 1);
+                }
+                low = greater + 1;
+            }
+            for (int i = low + 1; i < high; i++) {
+                for (int j = i; j > low && compareKeys(keys, chunks, j - 1, j, depth) > 0; j--) {
+                    swap(keys, chunks, j - 1, j);
+                }
+            }
+        }
+
+        private void fillChunks(long[] keys, long[] chunks, int low, int high, int depth) {
+            for (int i = low; i < high; i++) {
+                long key = keys[i];
+                int from = depth * CHUNK_CHARS;
+                int length = length(key);
+                long chunk = 0;
+                for (int c = from; c < from + CHUNK_CHARS; c++) {
+                    chunk = chunk << 16 | (c < length ? charAt(key, c) : 0);
+                }
+                chunks[i] = chunk;
+            }
+        }
+
+        /**
+         * Compares two keys whose chunks before {@code depth} are known to be equal.
+         */
+        private int compareKeys(long[] keys, long[] chunks, int i, int j, int depth) {
+            int order = Long.compareUnsigned(chunks[i], chunks[j]);
+            if (order != 0 || (chunks[i] & 0xFFFF) == 0) {
+                return order;
+            }
+            long a = keys[i];
+            long b = keys[j];
+            int from = (depth + 1) * CHUNK_CHARS;
+            int length = Math.min(length(a), length(b));
+            for (int c = from; c < length; c++) {
+                int difference = charAt(a, c) - charAt(b, c);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return length(a) - length(b);
+        }
+
+        private void swap(long[] keys, long[] chunks, int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long chunk = chunks[i];
+            chunks[i] = chunks[j];
+            chunks[j] = chunk;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Ranked full-text index over several text fields of the catalog, scored with BM25F.
+ *
+ * Each field is tokenized into lower-cased words. A term's postings hold the ordinals containing it together with a
+ * precomputed impact: the boost-weighted, length-normalized term frequency over all fields, saturated as in BM25.
+ * A query only adds {@code idf * impact} per posting into a hash table sized to the postings it reads and keeps the
+ * best {@code k} ordinals in a bounded min-heap, so neither the catalog size nor the full match set is ever paid for.
+ */
+final class TextIndex {
+    static final float K1 = 1.2f;
+    private static final int[] NO_MATCHES = new int[0];
+    /** Words too common to help ranking; leaving them out keeps the longest postings off the query path. */
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "he", "her", "his", "in", "into", "is",
+        "it", "its", "of", "on", "or", "she", "that", "the", "their", "them", "they", "this", "to", "was", "who",
+        "with"));
+    private static final int MAX_STOP_WORD_LENGTH = STOP_WORDS.stream().mapToInt(String::length).max().orElse(0);
+
+    /**
+     * One indexed field: where its text comes from, how much a match in it counts, and how strongly its length
+     * normalizes the term frequency (BM25's {@code b}).
+     */
+    static final class Field {
+        final String name;
+        final IntFunction<String> values;
+        final float boost;
+        final float lengthNormalization;
+
+        Field(String name, IntFunction<String> values, float boost, float lengthNormalization) {
+            this.name = name;
+            this.values = values;
+            this.boost = boost;
+            this.lengthNormalization = lengthNormalization;
+        }
+    }
+
+    /**
+     * The best-ranked ordinals of a query, best first, and how many ordinals matched in total.
+     */
+    static final class TopHits {
+        final int[] ordinals;
+        final float[] scores;
+        final int total;
+
+        TopHits(int[] ordinals, float[] scores, int total) {
+            this.ordinals = ordinals;
+            this.scores = scores;
+            this.total = total;
+        }
+    }
+
+    private static final class Posting {
+        final int[] ordinals;
+        final float[] impacts;
+        final float idf;
+
+        Posting(int[] ordinals, float[] impacts, int documentCount) {
+            this.ordinals = ordinals;
+            this.impacts = impacts;
+            this.idf = (float) Math.log(1 + (documentCount - ordinals.length + 0.5) / (ordinals.length + 0.5));
+        }
+    }
+
+    private final int size;
+    private final Map<String, Posting> postings;
+
+    private TextIndex(int size, Map<String, Posting> postings) {
+        this.size = size;
+        this.postings = postings;
+    }
+
+    static TextIndex build(int size, List<Field> fields) {
+        // First pass: field lengths, needed to normalize every term frequency in the second pass
+        int[][] lengths = new int[fields.size()][size];
+        float[] averageLengths = new float[fields.size()];
+        for (int f = 0; f < fields.size(); f++) {
+            long total = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                lengths[f][ordinal] = tokenize(fields.get(f).values.apply(ordinal), null);
+                total += lengths[f][ordinal];
+            }
+            averageLengths[f] = size == 0 ? 1f : Math.max(1f, (float) total / size);
+        }
+
+        // Second pass: count each term per field in its builder, then turn the counts into one impact per movie
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        List<PostingBuilder> touched = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (int f = 0; f < fields.size(); f++) {
+                tokens.clear();
+                tokenize(fields.get(f).values.apply(ordinal), tokens);
+                for (String term : tokens) {
+                    PostingBuilder builder = builders.computeIfAbsent(term, t -> new PostingBuilder(fields.size()));
+                    if (builder.count(ordinal, f)) {
+                        touched.add(builder);
+                    }
+                }
+            }
+            for (PostingBuilder builder : touched) {
+                float weighted = 0;
+                for (int f = 0; f < fields.size(); f++) {
+                    Field field = fields.get(f);
+                    float normalization = 1 - field.lengthNormalization
+                        + field.lengthNormalization * lengths[f][ordinal] / averageLengths[f];
+                    weighted += field.boost * builder.frequencies[f] / normalization;
+                }
+                builder.add(ordinal, weighted / (K1 + weighted));
+            }
+            touched.clear();
+        }
+
+        Map<String, Posting> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> postings.put(term, builder.build(size)));
+        return new TextIndex(size, postings);
+    }
+
+    /**
+     * Splits text into lower-cased words of letters and digits, dropping stop words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens);
+        return tokens;
+    }
+
+    /**
+     * @param tokens receives the words, or null to only count them without creating strings for long words
+     * @return the number of words
+     */
+    private static int tokenize(String text, List<String> tokens) {
+        if (text == null) {
+            return 0;
+        }
+        // Lower-casing once up front leaves one substring per word
+        text = text.toLowerCase(Locale.ROOT);
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (tokens == null && i - start > MAX_STOP_WORD_LENGTH) {
+                    count++;
+                } else {
+                    String token = text.substring(start, i);
+                    if (!STOP_WORDS.contains(token)) {
+                        count++;
+                        if (tokens != null) {
+                            tokens.add(token);
+                        }
+                    }
+                }
+                start = -1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return postings of the distinct query terms present in the index
+     */
+    private List<Posting> terms(String query) {
+        List<Posting> terms = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Posting posting = postings.get(term);
+            if (posting != null) {
+                terms.add(posting);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @return ascending ordinals containing any query term
+     */
+    int[] matches(String query) {
+        List<Posting> terms = terms(query);
+        if (terms.isEmpty()) {
+            return NO_MATCHES;
+        }
+        int[] union = terms.get(0).ordinals;
+        for (int i = 1; i < terms.size(); i++) {
+            union = union(union, terms.get(i).ordinals);
+        }
+        return union;
+    }
+
+    /**
+     * Ranks the ordinals containing any query term by BM25F score.
+     *
+     * @param allowed ascending ordinals the results must come from, or null for the whole catalog
+     * @param k most results to return
+     * @return the top {@code k} ordinals best first, ties in catalog order, and the number of matches
+     */
+    TopHits search(String query, int[] allowed, int k) {
+        List<Posting> terms = terms(query);
+        if (terms.isEmpty() || k <= 0 || (allowed != null && allowed.length == 0)) {
+            return new TopHits(NO_MATCHES, new float[0], 0);
+        }
+        long[] allowedMask = allowed == null ? null : mask(allowed);
+        ScoreAccumulator scores = new ScoreAccumulator(Math.min(size, terms.stream().mapToInt(t -> t.ordinals.length).sum()));
+        for (Posting term : terms) {
+            for (int i = 0; i < term.ordinals.length; i++) {
+                int ordinal = term.ordinals[i];
+                if (allowedMask == null || (allowedMask[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                    scores.add(ordinal, term.idf * term.impacts[i]);
+                }
+            }
+        }
+        return top(scores.ordinals, scores.scores, scores.count, Math.min(k, scores.count));
+    }
+
+    /**
+     * Selects the best {@code k} of the scored hits with a bounded min-heap of hit positions whose root is the
+     * weakest kept hit.
+     */
+    private static TopHits top(int[] hits, float[] scores, int hitCount, int k) {
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int hit = 0; hit < hitCount; hit++) {
+            if (heapSize < k) {
+                heap[heapSize] = hit;
+                siftUp(heap, heapSize++, hits, scores);
+            } else if (better(hit, heap[0], hits, scores)) {
+                heap[0] = hit;
+                siftDown(heap, heapSize, hits, scores);
+            }
+        }
+        int[] ordinals = new int[heapSize];
+        float[] ranked = new float[heapSize];
+        for (int position = heapSize - 1; position >= 0; position--) {
+            ordinals[position] = hits[heap[0]];
+            ranked[position] = scores[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, hits, scores);
+        }
+        return new TopHits(ordinals, ranked, hitCount);
+    }
+
+    /**
+     * Higher score wins; equal scores go to the lower ordinal so rankings are stable.
+     */
+    private static boolean better(int a, int b, int[] hits, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && hits[a] < hits[b]);
+    }
+
+    private static void siftUp(int[] heap, int position, int[] hits, float[] scores) {
+        int hit = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!better(heap[parent], hit, hits, scores)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = hit;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int[] hits, float[] scores) {
+        if (heapSize == 0) {
+            return;
+        }
+        int hit = heap[0];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && better(heap[child], heap[child + 1], hits, scores)) {
+                child++;
+            }
+            if (!better(hit, heap[child], hits, scores)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = hit;
+    }
+
+    private long[] mask(int[] ordinals) {
+        long[] mask = new long[(size + 63) >>> 6];
+        for (int ordinal : ordinals) {
+            mask[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return mask;
+    }
+
+    private static int[] union(int[] left, int[] right) {
+        int[] result = new int[left.length + right.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                result[size++] = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                result[size++] = right[j++];
+            } else {
+                result[size++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * One query's scores, kept per touched ordinal rather than per catalog entry. An open-addressing table at most
+     * half full maps each ordinal to its position in the dense {@code ordinals} and {@code scores} arrays, so the
+     * accumulator is sized by the postings the query reads and is dropped with the query.
+     */
+    private static final class ScoreAccumulator {
+        private final int[] slots;
+        private final int mask;
+        final int[] ordinals;
+        final float[] scores;
+        int count;
+
+        /**
+         * @param capacity most distinct ordinals that will be added
+         */
+        ScoreAccumulator(int capacity) {
+            int tableSize = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+            this.slots = new int[tableSize];
+            this.mask = tableSize - 1;
+            this.ordinals = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        void add(int ordinal, float score) {
+            // Slots hold hit position + 1, so 0 means empty
+            int slot = (ordinal * 0x9E3779B9) & mask;
+            while (slots[slot] != 0) {
+                int hit = slots[slot] - 1;
+                if (ordinals[hit] == ordinal) {
+                    scores[hit] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = count + 1;
+            ordinals[count] = ordinal;
+            scores[count++] = score;
+        }
+    }
+
+    /**
+     * Growable ordinal and impact arrays used while collecting one term's postings, plus the term's per-field
+     * counts in the movie being indexed.
+     */
+    private static final class PostingBuilder {
+        private int[] ordinals = new int[4];
+        private float[] impacts = new float[4];
+        private int size;
+        private final float[] frequencies;
+        private int countingOrdinal = -1;
+
+        PostingBuilder(int fieldCount) {
+            this.frequencies = new float[fieldCount];
+        }
+
+        /**
+         * @return true for the term's first occurrence in this movie
+         */
+        boolean count(int ordinal, int field) {
+            boolean first = ordinal != countingOrdinal;
+            if (first) {
+                Arrays.fill(frequencies, 0f);
+                countingOrdinal = ordinal;
+            }
+            frequencies[field]++;
+            return first;
+        }
+
+        void add(int ordinal, float impact) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                impacts = Arrays.copyOf(impacts, size * 2);
+            }
+            ordinals[size] = ordinal;
+            impacts[size++] = impact;
+        }
+
+        Posting build(int documentCount) {
+            return new Posting(Arrays.copyOf(ordinals, size), Arrays.copyOf(impacts, size), documentCount);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the movie endpoints' web interceptors, the timed JSON converter and the streaming executors.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConditionalRequestInterceptor conditionalRequestInterceptor;
+
+    @Autowired
+    private RenderTimingInterceptor renderTimingInterceptor;
+
+    @Autowired
+    private AccessLogInterceptor accessLogInterceptor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${movies.stream.threads:32}")
+    private int streamThreads;
+
+    @Value("${movies.stream.ndjson-threads:16}")
+    private int ndjsonThreads;
+
+    @Value("${movies.stream.queue:64}")
+    private int streamQueue;
+
+    @Value("${movies.stream.timeout-ms:600000}")
+    private long streamTimeoutMillis;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(accessLogInterceptor)
+            .addPathPatterns("/movies", "/movies/**");
+        registry.addInterceptor(conditionalRequestInterceptor)
+            .addPathPatterns("/movies", "/movies/search", "/movies/facets", "/movies/suggest", "/movies/*/details");
+        registry.addInterceptor(renderTimingInterceptor)
+            .addPathPatterns("/movies", "/movies/*/details");
+    }
+
+    /**
+     * Asynchronous MVC responses, such as the reactive search stream, are written on this bounded pool, which frees
+     * the servlet container's threads. Writes block while a client is slow to read, so a stream holds one pool thread
+     * for as long as it is being written. Streams beyond the pool and its queue are turned away with 503.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamTaskExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMillis);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor streamTaskExecutor() {
+        return boundedExecutor("movie-stream-", streamThreads, streamQueue);
+    }
+
+    /**
+     * Writes {@code format=ndjson} search responses, each holding a thread for its whole response, apart from the
+     * reactive streams so neither can starve the other.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ndjsonTaskExecutor() {
+        return boundedExecutor("movie-ndjson-", ndjsonThreads, streamQueue);
+    }
+
+    /**
+     * A fixed-size pool whose full queue rejects new work instead of letting it wait until the stream timeout.
+     */
+    static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i).getClass() == MappingJackson2HttpMessageConverter.class) {
+                converters.set(i, new TimedJsonMessageConverter(objectMapper));
+            }
+        }
+    }
+}
@@ -1,22 +1,66 @@
 package com.amazonaws.samples.qdevmovies.utils;
 
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Resolves a movie's icon from the title mapping in movie-icons.json, matching titles case-insensitively.
+ * Catalog movies resolve their icon once when they are loaded; see {@code Movie#getIcon()}.
+ */
 public class MovieIconUtils {
-    
+    static final String ICONS_RESOURCE = "movie-icons.json";
+
+    private static final IconMapping MAPPING = IconMapping.load();
+
+    /**
+     * @return the icon mapped to the title, or the default icon for titles without one
+     */
     public static String getMovieIcon(String movieName) {
-        switch (movieName.toLowerCase()) {
-            case "the prison escape": return "🔒";
-            case "the family boss": return "👔";
-            case "the masked hero": return "🦇";
-            case "urban stories": return "🌆";
-            case "life journey": return "🏃";
-            case "dream heist": return "💭";
-            case "the virtual world": return "🕶️";
-            case "the wise guys": return "🤵";
-            case "the quest for the ring": return "💍";
-            case "space wars: the beginning": return "🚀";
-            case "the factory owner": return "🏭";
-            case "underground club": return "👊";
-            default: return "🎬";
+        String icon = MAPPING.byTitle.get(titleKey(movieName));
+        return icon != null ? icon : MAPPING.defaultIcon;
+    }
+
+    /**
+     * Normalizes a title the way the mapping's keys are written: trimmed and lower-cased.
+     */
+    public static String titleKey(String movieName) {
+        return movieName == null ? "" : movieName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IconMapping {
+        private final Map<String, String> byTitle;
+        private final String defaultIcon;
+
+        private IconMapping(Map<String, String> byTitle, String defaultIcon) {
+            this.byTitle = byTitle;
+            this.defaultIcon = defaultIcon;
+        }
+
+        static IconMapping load() {
+            try (InputStream in = MovieIconUtils.class.getClassLoader().getResourceAsStream(ICONS_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Icon mapping " + ICONS_RESOURCE + " not found on the classpath");
+                }
+                Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name());
+                JSONObject mapping = new JSONObject(scanner.useDelimiter("\\A").next());
+                JSONObject titles = mapping.getJSONObject("titles");
+                Map<String, String> byTitle = new HashMap<>(titles.length() * 2);
+                for (String title : titles.keySet()) {
+                    byTitle.put(titleKey(title), titles.getString(title));
+                }
+                return new IconMapping(Collections.unmodifiableMap(byTitle), mapping.getString("default"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Icon mapping " + ICONS_RESOURCE + " could not be read", e);
+            }
         }
     }
 }
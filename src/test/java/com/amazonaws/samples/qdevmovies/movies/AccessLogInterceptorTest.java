@@ -0,0 +1,74 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for the sampled access log, matey!
+ */
+public class AccessLogInterceptorTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(3);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(750);
+
+    @Test
+    @DisplayName("Errors and slow requests are always recorded, successes only when sampled")
+    public void testReason() {
+        AccessLogInterceptor never = new AccessLogInterceptor(0, 500);
+        assertNull(never.reason(200, null, FAST), "A fast success should be sampled out, arrr!");
+        assertNull(never.reason(304, null, FAST));
+        assertEquals("error", never.reason(404, null, FAST));
+        assertEquals("error", never.reason(500, null, FAST));
+        assertEquals("error", never.reason(200, new IllegalStateException("kraken"), FAST),
+                     "An exception counts as an error whatever the status, matey!");
+        assertEquals("slow", never.reason(200, null, SLOW));
+
+        AccessLogInterceptor always = new AccessLogInterceptor(1, 500);
+        assertEquals("sampled", always.reason(200, null, FAST));
+        assertEquals("error", always.reason(503, null, SLOW), "Errors win over slowness, savvy!");
+    }
+
+    @Test
+    @DisplayName("A record holds the request, its timings and why it was kept, as escaped JSON fields")
+    public void testRecord() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/search");
+        request.setQueryString("name=\"the\"&genre=drama");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/movies/search");
+        long start = 1_000_000L;
+        long end = start + TimeUnit.MICROSECONDS.toNanos(2500);
+
+        assertEquals("\"method\":\"GET\",\"route\":\"/movies/search\",\"path\":\"/movies/search\","
+                     + "\"query\":\"name=\\\"the\\\"&genre=drama\",\"status\":200,\"durationUs\":2500,\"reason\":\"sampled\"",
+                     AccessLogInterceptor.record(request, 200, null, start, end, "sampled"));
+
+        MockHttpServletRequest details = new MockHttpServletRequest("GET", "/movies/3/details");
+        details.setAttribute(RenderTimingInterceptor.RENDER_START, end - TimeUnit.MICROSECONDS.toNanos(1500));
+        String record = AccessLogInterceptor.record(details, 500, new IllegalStateException("kraken"), start, end, "error");
+        assertTrue(record.contains("\"renderUs\":1500"), "Render time should be recorded, arrr!");
+        assertTrue(record.contains("\"exception\":\"java.lang.IllegalStateException\""));
+        assertFalse(record.contains("route"), "Unmatched requests have no route, matey!");
+    }
+
+    @Test
+    @DisplayName("The async dispatch of a streamed response keeps the original start time")
+    public void testPreHandle_KeepsStart() {
+        AccessLogInterceptor interceptor = new AccessLogInterceptor(1, 500);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/search/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        Object start = request.getAttribute(AccessLogInterceptor.START);
+        assertTrue(start instanceof Long);
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertEquals(start, request.getAttribute(AccessLogInterceptor.START),
+                     "The second dispatch should not restart the clock, savvy!");
+        interceptor.afterCompletion(request, response, null, null);
+    }
+}
@@ -0,0 +1,130 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the audience-score order and its incremental updates, matey!
+ */
+public class AudienceScoresTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure", "Hunt for buried treasure", 110, 4.0),
+        new Movie(3L, "Ghost Ship", "Davy Jones", 2021, "Horror", "Haunted seas", 95, 3.5),
+        new Movie(4L, "Calm Waters", "First Mate", 2020, "Drama", "A quiet voyage", 100, 3.0)
+    );
+
+    private static ReviewSummary summary(double... ratings) {
+        ReviewSummary summary = ReviewSummary.NONE;
+        for (double rating : ratings) {
+            summary = summary.plus(rating);
+        }
+        return summary;
+    }
+
+    @Test
+    @DisplayName("Movies order by mean audience rating, unreviewed treasures first")
+    public void testBuild_Order() {
+        Map<Long, ReviewSummary> summaries = new HashMap<>();
+        summaries.put(1L, summary(3.0, 4.0));
+        summaries.put(2L, summary(5.0));
+        summaries.put(4L, summary(3.5));
+
+        AudienceScores scores = AudienceScores.build(new ObjectMovieStore(TREASURES), TREASURES.size(), summaries);
+
+        assertArrayEquals(new int[] {2, 3, 0, 1}, scores.order(), "Ghost Ship has no reviews; equal means go to the better-reviewed, arrr!");
+        for (int position = 0; position < scores.order().length; position++) {
+            assertEquals(position, scores.rank()[scores.order()[position]]);
+        }
+        assertEquals(0, scores.summary(2).getCount());
+    }
+
+    @Test
+    @DisplayName("Incremental updates match a full rebuild")
+    public void testWith_MatchesRebuild() {
+        MovieStore store = new ObjectMovieStore(TREASURES);
+        Map<Long, ReviewSummary> summaries = new HashMap<>();
+        AudienceScores scores = AudienceScores.empty(TREASURES.size());
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int ordinal = random.nextInt(TREASURES.size());
+            long id = TREASURES.get(ordinal).getId();
+            ReviewSummary updated = summaries.getOrDefault(id, ReviewSummary.NONE).plus(1 + random.nextInt(5));
+            summaries.put(id, updated);
+            AudienceScores previous = scores;
+            scores = scores.with(ordinal, updated);
+
+            AudienceScores rebuilt = AudienceScores.build(store, TREASURES.size(), summaries);
+            assertArrayEquals(rebuilt.order(), scores.order(), "Moved treasure should land where a rebuild puts it, savvy!");
+            assertArrayEquals(rebuilt.rank(), scores.rank());
+            assertNotSame(previous.order(), scores.order(), "Readers of the old scores should not see the move, matey!");
+        }
+    }
+
+    @Test
+    @DisplayName("On a large catalog, changes are visible at once and the order catches up in batches")
+    public void testWith_OverlayUntilReranked() {
+        int catalogSize = 64 * AudienceScores.RERANK_DIVISOR;
+        List<Movie> catalog = new ArrayList<>();
+        for (int ordinal = 0; ordinal < catalogSize; ordinal++) {
+            catalog.add(new Movie(ordinal + 1L, "Treasure " + ordinal, "Captain", 2000, "Drama", "", 100, 3.0));
+        }
+        MovieStore store = new ObjectMovieStore(catalog);
+        AudienceScores empty = AudienceScores.empty(catalogSize);
+
+        AudienceScores scores = empty.with(17, summary(5.0)).with(3, summary(2.0));
+        assertSame(empty.order(), scores.order(), "A few reviews should not copy the catalog-sized order, arrr!");
+        assertEquals(2, scores.pendingChanges());
+        assertEquals(5.0, scores.summary(17).getAverageRating(), "New summaries should be visible at once, matey!");
+        assertEquals(ReviewSummary.NONE, scores.summary(4));
+        assertArrayEquals(new int[] {3, 17}, scores.filterMinimum(null, 1.0));
+        assertArrayEquals(new int[] {17}, scores.filterMinimum(new int[] {4, 17, 30}, 4.0));
+
+        Map<Long, ReviewSummary> summaries = new HashMap<>();
+        summaries.put(18L, summary(5.0));
+        summaries.put(4L, summary(2.0));
+        AudienceScores reranked = scores.reranked();
+        assertEquals(0, reranked.pendingChanges());
+        assertArrayEquals(AudienceScores.build(store, catalogSize, summaries).order(), reranked.order());
+
+        for (int ordinal = 0; ordinal < 62; ordinal++) {
+            scores = scores.with(100 + ordinal, summary(4.0));
+        }
+        assertEquals(0, scores.pendingChanges(), "A full overlay should be folded into the order, savvy!");
+        assertNotSame(empty.order(), scores.order());
+    }
+
+    @Test
+    @DisplayName("Minimum score filter keeps reviewed treasures at or above it")
+    public void testFilterMinimum() {
+        AudienceScores scores = AudienceScores.empty(TREASURES.size())
+            .with(0, summary(4.0, 5.0))
+            .with(1, summary(3.0))
+            .with(3, summary(4.0));
+
+        assertArrayEquals(new int[] {0, 3}, scores.filterMinimum(null, 4.0));
+        assertArrayEquals(new int[] {3}, scores.filterMinimum(new int[] {1, 2, 3}, 4.0));
+        assertArrayEquals(new int[] {0, 1, 3}, scores.filterMinimum(null, 0.0), "Unreviewed treasure never passes, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Summary keeps count, mean and whole-star histogram")
+    public void testReviewSummary_Histogram() {
+        ReviewSummary summary = summary(4.5, 3.0, 0.5, 5.0);
+
+        assertEquals(4, summary.getCount());
+        assertEquals(3.25, summary.getAverageRating(), 1e-9);
+        assertArrayEquals(new int[] {1, 0, 1, 0, 2}, summary.getHistogram(), "4.5 rounds up to five stars, 0.5 to one, arrr!");
+        assertEquals(0.0, ReviewSummary.NONE.getAverageRating());
+    }
+}
@@ -0,0 +1,137 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for compiling the catalog into a binary file and mapping it back, matey!
+ */
+public class BinaryCatalogTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(42L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(7L, "Trésor des Caraïbes 🏴‍☠️", "Captain Hook", 1999, "Adventure/Drama", "", 95, 3.25),
+        new Movie(1000L, "Treasure Island", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0)
+    );
+
+    private static Map<Long, List<Review>> reviews() {
+        Map<Long, List<Review>> reviews = new HashMap<>();
+        reviews.put(7L, Arrays.asList(new Review("Sailor", "⚓", 4.0, "Grand"), new Review("Bosun", "🧔", 2.5, "")));
+        reviews.put(99L, Collections.singletonList(new Review("Cook", "🍲", 5.0, "A movie not in the catalog")));
+        return reviews;
+    }
+
+    private static Path compile(Path dir) throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        MovieStore store = new ObjectMovieStore(TREASURES);
+        BinaryCatalog.write(store, reviews(), MovieService.fingerprint(store).getTag(), file);
+        return file;
+    }
+
+    @Test
+    @DisplayName("A compiled catalog maps back to the same movies, ids and reviews")
+    public void testWrite_RoundTrip(@TempDir Path dir) throws IOException {
+        Path file = compile(dir);
+        assertTrue(BinaryCatalog.isBinaryCatalog(file));
+
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+        MovieStore store = catalog.movies();
+        assertEquals(TREASURES.size(), store.size());
+        for (int ordinal = 0; ordinal < TREASURES.size(); ordinal++) {
+            Movie expected = TREASURES.get(ordinal);
+            Movie actual = store.movieAt(ordinal);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getMovieName(), actual.getMovieName(), "Names should survive the voyage, arrr!");
+            assertEquals(expected.getDirector(), actual.getDirector());
+            assertEquals(expected.getYear(), actual.getYear());
+            assertEquals(expected.getGenre(), actual.getGenre());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getDuration(), actual.getDuration());
+            assertEquals(expected.getImdbRating(), actual.getImdbRating(), 0.0);
+            assertEquals(expected.getIcon(), actual.getIcon());
+            assertEquals(expected.getGenres(), actual.getGenres(), "Genre parts should come from the dictionary, arrr!");
+            assertEquals(ordinal, store.ordinalOf(expected.getId()));
+        }
+        assertEquals(-1, store.ordinalOf(8L), "Unknown ids should not be found, matey!");
+        assertEquals(-1, store.ordinalOf(Long.MAX_VALUE));
+
+        Map<Long, List<Review>> reviews = catalog.reviews();
+        assertEquals(2, reviews.size());
+        assertEquals(2, reviews.get(7L).size());
+        assertEquals("Bosun", reviews.get(7L).get(1).getUserName());
+        assertEquals("🧔", reviews.get(7L).get(1).getAvatarEmoji());
+        assertEquals(2.5, reviews.get(7L).get(1).getRating(), 0.0);
+        assertEquals("A movie not in the catalog", reviews.get(99L).get(0).getComment());
+    }
+
+    @Test
+    @DisplayName("Services started from a binary catalog match the JSON ones, down to the catalog version")
+    public void testServices_FromBinaryCatalog(@TempDir Path dir) throws IOException {
+        Path json = dir.resolve("movies.json");
+        try (Writer out = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+            out.write("[");
+            for (int i = 0; i < TREASURES.size(); i++) {
+                Movie movie = TREASURES.get(i);
+                out.write((i > 0 ? "," : "") + new JSONObject()
+                    .put("id", movie.getId()).put("movieName", movie.getMovieName()).put("director", movie.getDirector())
+                    .put("year", movie.getYear()).put("genre", movie.getGenre()).put("description", movie.getDescription())
+                    .put("duration", movie.getDuration()).put("imdbRating", movie.getImdbRating()));
+            }
+            out.write("]");
+        }
+        Path file = compile(dir);
+
+        MovieService fromJson = new MovieService(json.toString());
+        MovieService fromBinary = new MovieService(file.toString());
+        assertEquals(fromJson.getCatalogVersion().getTag(), fromBinary.getCatalogVersion().getTag(),
+                     "The same catalog should carry the same ETag in either format, savvy!");
+        assertEquals(3, fromBinary.getAllMovies().size());
+        assertEquals("Long John Silver", fromBinary.getMovieById(1000L).get().getDirector());
+        assertEquals(Collections.singletonList(1000L),
+                     fromBinary.findMovieTreasures(MovieQuery.ALL.withText("buried"), MovieSort.CATALOG_ORDER, 0, 10)
+                         .getContent().stream().map(Movie::getId).collect(Collectors.toList()));
+
+        ReviewService reviewService = new ReviewService(file.toString(), null, 0);
+        assertEquals(2, reviewService.getReviewsForMovie(7L).size(), "Seed reviews should come from the binary file");
+    }
+
+    @Test
+    @DisplayName("A truncated or corrupted binary catalog is refused")
+    public void testOpen_Damaged(@TempDir Path dir) throws IOException {
+        byte[] bytes = Files.readAllBytes(compile(dir));
+
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        IOException cut = assertThrows(IOException.class, () -> BinaryCatalog.open(truncated));
+        assertTrue(cut.getMessage().contains("cut short"), cut.getMessage());
+
+        Path corrupted = dir.resolve("corrupted.bin");
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length - 1] ^= 1;
+        Files.write(corrupted, flipped);
+        IOException damaged = assertThrows(IOException.class, () -> BinaryCatalog.open(corrupted));
+        assertTrue(damaged.getMessage().contains("checksum"), damaged.getMessage());
+
+        Path text = dir.resolve("movies.json");
+        Files.write(text, "[]".getBytes(StandardCharsets.UTF_8));
+        assertFalse(BinaryCatalog.isBinaryCatalog(text), "JSON catalogs should still be read as JSON, arrr!");
+        assertEquals(12, new MovieService(corrupted.toString()).getAllMovies().size(),
+                     "A damaged binary catalog should fall back to the bundled one on startup");
+    }
+}
@@ -0,0 +1,137 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for the pre-encoded catalog snapshot, matey!
+ */
+public class CatalogSnapshotTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0)
+    );
+    private static final DataVersion VERSION = new MovieService(TREASURES).getCatalogVersion();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockHttpServletResponse send(CatalogSnapshot snapshot, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        snapshot.send(TREASURES, VERSION, request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("The snapshot is the catalog as JSON, or gzipped JSON when the client accepts gzip")
+    public void testSend_Encodings(@TempDir Path dir) throws IOException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(objectMapper, dir.toString());
+
+        MockHttpServletResponse plain = send(snapshot, new MockHttpServletRequest("GET", "/movies/snapshot"));
+        assertEquals(200, plain.getStatus());
+        assertEquals("application/json", plain.getContentType());
+        assertEquals("bytes", plain.getHeader("Accept-Ranges"));
+        assertNull(plain.getHeader("Content-Encoding"));
+        JsonNode movies = objectMapper.readTree(plain.getContentAsByteArray());
+        assertEquals(2, movies.size(), "Every movie should be in the snapshot, arrr!");
+        assertEquals("Treasure Island", movies.get(1).get("movieName").asText());
+        assertEquals(plain.getContentAsByteArray().length, plain.getContentLengthLong());
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest("GET", "/movies/snapshot");
+        gzipRequest.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse gzipped = send(snapshot, gzipRequest);
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertNotEquals(plain.getHeader("ETag"), gzipped.getHeader("ETag"), "Each encoding needs its own ETag, matey!");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertEquals(movies, objectMapper.readTree(in));
+        }
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/movies/snapshot");
+        conditional.addHeader("If-None-Match", plain.getHeader("ETag"));
+        MockHttpServletResponse notModified = send(snapshot, conditional);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Byte ranges resume a download, unless the snapshot has changed since")
+    public void testSend_Ranges(@TempDir Path dir) throws IOException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(objectMapper, dir.toString());
+        MockHttpServletResponse full = send(snapshot, new MockHttpServletRequest("GET", "/movies/snapshot"));
+        byte[] bytes = full.getContentAsByteArray();
+        String etag = full.getHeader("ETag");
+
+        MockHttpServletRequest resume = new MockHttpServletRequest("GET", "/movies/snapshot");
+        resume.addHeader("Range", "bytes=10-");
+        resume.addHeader("If-Range", etag);
+        MockHttpServletResponse partial = send(snapshot, resume);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 10-" + (bytes.length - 1) + "/" + bytes.length, partial.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(bytes, 10, bytes.length), partial.getContentAsByteArray());
+
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/movies/snapshot");
+        suffix.addHeader("Range", "bytes=-5");
+        assertArrayEquals(Arrays.copyOfRange(bytes, bytes.length - 5, bytes.length),
+                          send(snapshot, suffix).getContentAsByteArray());
+
+        MockHttpServletRequest changed = new MockHttpServletRequest("GET", "/movies/snapshot");
+        changed.addHeader("Range", "bytes=10-");
+        changed.addHeader("If-Range", "\"s-older\"");
+        MockHttpServletResponse restarted = send(snapshot, changed);
+        assertEquals(200, restarted.getStatus(), "A changed snapshot should be sent whole, arrr!");
+        assertArrayEquals(bytes, restarted.getContentAsByteArray());
+
+        MockHttpServletRequest beyond = new MockHttpServletRequest("GET", "/movies/snapshot");
+        beyond.addHeader("Range", "bytes=" + bytes.length + "-");
+        MockHttpServletResponse unsatisfiable = send(snapshot, beyond);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */" + bytes.length, unsatisfiable.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Snapshots are encoded once per catalog version and handed to sendfile when the container offers it")
+    public void testSend_EncodedOncePerVersion(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve(CatalogSnapshot.FILE_PREFIX + "stale.json"), new byte[]{1});
+        CatalogSnapshot snapshot = new CatalogSnapshot(objectMapper, dir.toString());
+        assertFalse(Files.exists(dir.resolve(CatalogSnapshot.FILE_PREFIX + "stale.json")),
+                    "Files of an earlier run should be swept, matey!");
+
+        CatalogSnapshot.Encoded first = snapshot.encoded(TREASURES, VERSION);
+        assertSame(first, snapshot.encoded(TREASURES, VERSION));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/snapshot");
+        request.setAttribute(CatalogSnapshot.SENDFILE_SUPPORTED, Boolean.TRUE);
+        MockHttpServletResponse response = send(snapshot, request);
+        assertEquals(0, response.getContentAsByteArray().length, "Tomcat writes the body itself, savvy!");
+        assertEquals(first.json.file.toAbsolutePath().toString(), request.getAttribute(CatalogSnapshot.SENDFILE_FILENAME));
+        assertEquals(0L, request.getAttribute(CatalogSnapshot.SENDFILE_START));
+        assertEquals(first.json.length, request.getAttribute(CatalogSnapshot.SENDFILE_END));
+
+        List<Movie> smaller = Collections.singletonList(TREASURES.get(0));
+        CatalogSnapshot.Encoded second = snapshot.encoded(smaller, new MovieService(smaller).getCatalogVersion());
+        assertNotEquals(first.json.file, second.json.file);
+        assertTrue(Files.exists(first.json.file), "The previous snapshot may still be in flight, arrr!");
+
+        List<Movie> third = Collections.singletonList(TREASURES.get(1));
+        snapshot.encoded(third, new MovieService(third).getCatalogVersion());
+        assertFalse(Files.exists(first.json.file), "Older snapshots should be deleted, ye landlubber!");
+        assertFalse(Files.exists(first.gzip.file));
+        assertTrue(Files.exists(second.json.file));
+    }
+}
@@ -0,0 +1,118 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for reloading the catalog and reviews when their files change, matey!
+ */
+public class CatalogWatcherTest {
+
+    private static final String RECORD = "{\"id\": %d, \"movieName\": \"Movie %d\", \"director\": \"Captain\", \"year\": 2000,"
+        + " \"genre\": \"Drama\", \"description\": \"Arrr\", \"duration\": 100, \"imdbRating\": 4.5}";
+
+    private static void writeCatalog(Path file, int movies) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= movies; id++) {
+            json.append(id > 1 ? "," : "").append(String.format(RECORD, id, id));
+        }
+        Files.write(file, json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeReviews(Path file, double... ratings) throws IOException {
+        StringBuilder json = new StringBuilder("{\"1\": [");
+        for (int i = 0; i < ratings.length; i++) {
+            json.append(i > 0 ? "," : "").append("{\"userName\": \"Sailor ").append(i)
+                .append("\", \"avatarEmoji\": \"⚓\", \"rating\": ").append(ratings[i]).append(", \"comment\": \"\"}");
+        }
+        Files.write(file, json.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    @Test
+    @DisplayName("Only files that changed since they were loaded are reloaded")
+    public void testReloadChanged_OnlyChangedFiles(@TempDir Path dir) throws IOException {
+        Path catalog = dir.resolve("movies.json");
+        Path reviews = dir.resolve("reviews.json");
+        writeCatalog(catalog, 2);
+        writeReviews(reviews, 4.0);
+        MovieService movieService = new MovieService(catalog.toString());
+        ReviewService reviewService = new ReviewService(reviews.toString(), null, 0);
+        movieService.setReviewService(reviewService);
+        CatalogWatcher watcher = new CatalogWatcher(movieService, reviewService, catalog.toString(),
+                                                    reviews.toString(), true, 100);
+        DataVersion catalogVersion = movieService.getCatalogVersion();
+        DataVersion reviewVersion = reviewService.getReviewVersion();
+
+        watcher.reloadChanged();
+        assertSame(catalogVersion, movieService.getCatalogVersion(), "Untouched files should not be reloaded, arrr!");
+        assertSame(reviewVersion, reviewService.getReviewVersion());
+
+        writeCatalog(catalog, 3);
+        watcher.reloadChanged();
+        assertEquals(3, movieService.getAllMovies().size());
+        assertSame(reviewVersion, reviewService.getReviewVersion());
+
+        writeReviews(reviews, 4.0, 2.0);
+        watcher.reloadChanged();
+        assertEquals(2, reviewService.getReviewsForMovie(1L).size());
+        assertEquals(3.0, movieService.getMovieById(1L).get().getAudience().getAverageRating(), 1e-9,
+                     "Reloaded reviews should reach the audience scores, matey!");
+    }
+
+    @Test
+    @DisplayName("The watcher thread reloads a catalog once its directory goes quiet")
+    public void testWatch_ReloadsOnChange(@TempDir Path dir) throws Exception {
+        Path catalog = dir.resolve("movies.json");
+        writeCatalog(catalog, 2);
+        MovieService movieService = new MovieService(catalog.toString());
+        CatalogWatcher watcher = new CatalogWatcher(movieService, new ReviewService(), catalog.toString(),
+                                                    "", true, 100);
+        watcher.afterPropertiesSet();
+        try {
+            Path staged = dir.resolve("movies.json.new");
+            writeCatalog(staged, 5);
+            Files.move(staged, catalog, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+
+            assertTrue(await(() -> movieService.getAllMovies().size() == 5),
+                       "A catalog renamed into place should be picked up, ye landlubber!");
+        } finally {
+            watcher.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Nothing is watched when reloading is disabled")
+    public void testDisabled(@TempDir Path dir) throws IOException {
+        Path catalog = dir.resolve("movies.json");
+        writeCatalog(catalog, 2);
+        MovieService movieService = new MovieService(catalog.toString());
+        CatalogWatcher watcher = new CatalogWatcher(movieService, new ReviewService(), catalog.toString(),
+                                                    "", false, 100);
+
+        writeCatalog(catalog, 3);
+        watcher.reloadChanged();
+        assertEquals(2, movieService.getAllMovies().size());
+    }
+}
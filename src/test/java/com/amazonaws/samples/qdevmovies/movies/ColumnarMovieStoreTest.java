@@ -0,0 +1,89 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy! Tests that the columnar treasure hold gives back the same movies as the plain object one, matey!
+ */
+public class ColumnarMovieStoreTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(7L, "Treasure Island", "Captain Director", 1990, "Adventure", "Buried gold", 120, 4.5),
+        new Movie(3L, "Sea Legs", "Captain Director", 2001, "Comedy/Adventure", "Wobbly sailors", 95, 3.8),
+        new Movie(42L, "Kraken Rising", "Deep Diver", 2015, "Adventure", "Tentacles ahoy", 131, 4.25)
+    );
+
+    @Test
+    @DisplayName("Columnar store materializes the same movies in load order")
+    public void testMovieAt_MatchesSource() {
+        MovieStore store = ColumnarMovieStore.of(TREASURES);
+
+        assertEquals(TREASURES.size(), store.size());
+        for (int ordinal = 0; ordinal < TREASURES.size(); ordinal++) {
+            Movie expected = TREASURES.get(ordinal);
+            Movie actual = store.movieAt(ordinal);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getMovieName(), actual.getMovieName());
+            assertEquals(expected.getDirector(), actual.getDirector());
+            assertEquals(expected.getYear(), actual.getYear());
+            assertEquals(expected.getGenre(), actual.getGenre());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getDuration(), actual.getDuration());
+            assertEquals(expected.getImdbRating(), actual.getImdbRating(), 0.0, "Ratings must survive exactly, arrr!");
+            assertEquals(expected.getIcon(), actual.getIcon());
+            assertEquals(expected.getGenres(), actual.getGenres());
+        }
+    }
+
+    @Test
+    @DisplayName("Columnar store resolves ids to ordinals")
+    public void testOrdinalOf() {
+        MovieStore store = ColumnarMovieStore.of(TREASURES);
+
+        assertEquals(0, store.ordinalOf(7L));
+        assertEquals(2, store.ordinalOf(42L));
+        assertEquals(-1, store.ordinalOf(999L), "Unknown treasure should have no ordinal, savvy!");
+    }
+
+    @Test
+    @DisplayName("Columnar and object stores answer searches identically")
+    public void testMovieService_ColumnarMatchesObjects() {
+        List<Movie> catalog = new MovieService().getAllMovies();
+        MovieService objects = new MovieService(new ObjectMovieStore(catalog));
+        MovieService columnar = new MovieService(ColumnarMovieStore.of(catalog));
+
+        MovieSort byRating = MovieSort.parse("rating,desc");
+        assertEquals(ids(objects.findMovieTreasures("the", null, null, byRating, 0, 50).getContent()),
+                     ids(columnar.findMovieTreasures("the", null, null, byRating, 0, 50).getContent()));
+        assertEquals(ids(objects.huntForMovieTreasures(null, null, "drama")),
+                     ids(columnar.huntForMovieTreasures(null, null, "drama")));
+        assertEquals(objects.getTreasureFacets(null, null, null), columnar.getTreasureFacets(null, null, null));
+        assertEquals(objects.getMovieById(5L).get().getMovieName(), columnar.getMovieById(5L).get().getMovieName());
+    }
+
+    @Test
+    @DisplayName("Primitive id map keeps every key across rehashes")
+    public void testLongIntMap_Rehash() {
+        LongIntMap map = new LongIntMap(2);
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i * 31L - 5_000, i);
+        }
+
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, map.get(i * 31L - 5_000));
+        }
+        assertEquals(-1, map.get(Long.MAX_VALUE), "Missing keys should report -1, ye scallywag!");
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,155 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for conditional GETs on the treasure endpoints, matey!
+ */
+public class ConditionalRequestInterceptorTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0)
+    );
+    private static final Map<Long, List<Review>> REVIEWS = Collections.singletonMap(1L,
+        Collections.singletonList(new Review("Sailor", "🏴‍☠️", 4.5, "Fine plunder")));
+
+    private ConditionalRequestInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        interceptor = interceptor(new MovieService(TREASURES), new ReviewService(REVIEWS));
+    }
+
+    private static ConditionalRequestInterceptor interceptor(MovieService movieService, ReviewService reviewService) {
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor();
+        try {
+            java.lang.reflect.Field movieServiceField = ConditionalRequestInterceptor.class.getDeclaredField("movieService");
+            movieServiceField.setAccessible(true);
+            movieServiceField.set(interceptor, movieService);
+
+            java.lang.reflect.Field reviewServiceField = ConditionalRequestInterceptor.class.getDeclaredField("reviewService");
+            reviewServiceField.setAccessible(true);
+            reviewServiceField.set(interceptor, reviewService);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to inject services, ye scurvy dog!", e);
+        }
+        return interceptor;
+    }
+
+    private static MockHttpServletRequest get(String pattern, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    @Test
+    @DisplayName("First request gets validators and proceeds to the controller")
+    public void testPreHandle_SetsValidators() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get("/movies", "/movies"), response, null), "Fresh request should reach the controller, arrr!");
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"), "Response should carry an ETag, matey!");
+        assertTrue(response.getHeader("ETag").startsWith("\""), "ETag should be strong: " + response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    @DisplayName("Matching If-None-Match gets a 304 without running the search")
+    public void testPreHandle_NotModified() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(get("/movies/search", "/movies/search"), first, null);
+
+        MockHttpServletRequest revalidation = get("/movies/search", "/movies/search");
+        revalidation.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(revalidation, second, null), "Unchanged treasure should not be searched again!");
+        assertEquals(304, second.getStatus());
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Same catalog content gives the same ETag, changed content a new one")
+    public void testETag_FollowsCatalogContent() {
+        MockHttpServletResponse original = new MockHttpServletResponse();
+        interceptor.preHandle(get("/movies", "/movies"), original, null);
+
+        MockHttpServletResponse reloaded = new MockHttpServletResponse();
+        interceptor(new MovieService(TREASURES), new ReviewService(REVIEWS))
+            .preHandle(get("/movies", "/movies"), reloaded, null);
+        assertEquals(original.getHeader("ETag"), reloaded.getHeader("ETag"), "Same treasure should keep its ETag, savvy!");
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        interceptor(new MovieService(TREASURES.subList(0, 1)), new ReviewService(REVIEWS))
+            .preHandle(get("/movies", "/movies"), changed, null);
+        assertNotEquals(original.getHeader("ETag"), changed.getHeader("ETag"), "Changed treasure needs a new ETag, arrr!");
+    }
+
+    @Test
+    @DisplayName("Details and list ETags also follow the reviews")
+    public void testETag_IncludesReviews() {
+        for (String[] endpoint : new String[][] {{"/movies/{id}/details", "/movies/1/details"}, {"/movies", "/movies"}}) {
+            MockHttpServletResponse withReviews = new MockHttpServletResponse();
+            interceptor.preHandle(get(endpoint[0], endpoint[1]), withReviews, null);
+
+            MockHttpServletResponse withoutReviews = new MockHttpServletResponse();
+            interceptor(new MovieService(TREASURES), new ReviewService(Collections.emptyMap()))
+                .preHandle(get(endpoint[0], endpoint[1]), withoutReviews, null);
+
+            assertNotEquals(withReviews.getHeader("ETag"), withoutReviews.getHeader("ETag"),
+                            "New reviews should change the " + endpoint[1] + " ETag, ye scallywag!");
+        }
+    }
+
+    @Test
+    @DisplayName("Suggestion ETags follow the catalog but not the reviews")
+    public void testETag_SuggestIgnoresReviews() {
+        MockHttpServletResponse withReviews = new MockHttpServletResponse();
+        interceptor.preHandle(get("/movies/suggest", "/movies/suggest"), withReviews, null);
+
+        MockHttpServletResponse withoutReviews = new MockHttpServletResponse();
+        interceptor(new MovieService(TREASURES), new ReviewService(Collections.emptyMap()))
+            .preHandle(get("/movies/suggest", "/movies/suggest"), withoutReviews, null);
+        assertEquals(withReviews.getHeader("ETag"), withoutReviews.getHeader("ETag"),
+                     "New reviews should not spoil cached suggestions, matey!");
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        interceptor(new MovieService(TREASURES.subList(0, 1)), new ReviewService(REVIEWS))
+            .preHandle(get("/movies/suggest", "/movies/suggest"), changed, null);
+        assertNotEquals(withReviews.getHeader("ETag"), changed.getHeader("ETag"), "Changed treasure needs a new ETag, arrr!");
+    }
+
+    @Test
+    @DisplayName("Suggestions get their own, longer-lived Cache-Control")
+    public void testPreHandle_SuggestCacheControl() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get("/movies/suggest", "/movies/suggest"), response, null));
+        assertEquals("max-age=60", response.getHeader("Cache-Control"), "Keystrokes may reuse suggestions a while, arrr!");
+        assertNotNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Other endpoints are left alone")
+    public void testPreHandle_OtherEndpoints() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get("/movies/search/cache", "/movies/search/cache"), response, null));
+        assertNull(response.getHeader("ETag"), "Cache stats change every request and need no ETag, matey!");
+    }
+}
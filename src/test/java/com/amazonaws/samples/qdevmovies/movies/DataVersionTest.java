@@ -0,0 +1,39 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests that content fingerprints change whenever the content does, matey!
+ */
+public class DataVersionTest {
+
+    private static String tag(String... values) {
+        DataVersion.Fingerprint fingerprint = DataVersion.fingerprint();
+        for (String value : values) {
+            fingerprint.add(value);
+        }
+        return fingerprint.endRecord().toVersion().getTag();
+    }
+
+    @Test
+    @DisplayName("Strings with the same hash code still get different fingerprints")
+    public void testFingerprint_HashCollisions() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(tag("Aa"), tag("BB"), "Colliding hash codes should not collide here, arrr!");
+        assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+        assertNotEquals(tag("AaAa"), tag("BBBB"));
+        assertNotEquals(tag("Pirate"), tag("Pirate "));
+        assertEquals(tag("Pirate"), tag("Pirate"), "The same content should keep its fingerprint, savvy!");
+    }
+
+    @Test
+    @DisplayName("Field boundaries and nulls are part of the fingerprint")
+    public void testFingerprint_FieldBoundaries() {
+        assertNotEquals(tag("ab", "c"), tag("a", "bc"), "Moving a char between fields should change the fingerprint!");
+        assertNotEquals(tag((String) null), tag(""));
+        assertNotEquals(tag(null, "a"), tag("a", null));
+    }
+}
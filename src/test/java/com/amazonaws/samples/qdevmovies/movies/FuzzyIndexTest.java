@@ -0,0 +1,120 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the typo-tolerant title and director index, matey!
+ */
+public class FuzzyIndexTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "", 142, 5.0),
+        new Movie(2L, "The Poison Garden", "Jane Gardener", 2001, "Drama", "", 120, 3.0),
+        new Movie(3L, "Treasure Island", "Long John Silver", 2022, "Adventure", "", 110, 4.0),
+        new Movie(4L, "Treasure Island 2", "Long John Silver", 2024, "Adventure", "", 112, 3.5)
+    );
+
+    private static FuzzyIndex index(List<Movie> movies, int maxEdits) {
+        List<IntFunction<String>> fields = Arrays.asList(
+            ordinal -> movies.get(ordinal).getMovieName(), ordinal -> movies.get(ordinal).getDirector());
+        return FuzzyIndex.build(movies.size(), fields, maxEdits);
+    }
+
+    /**
+     * Plain optimal-string-alignment distance, to check the index against.
+     */
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                    continue;
+                }
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    @DisplayName("Mistyped titles still find their treasure, closest spelling first")
+    public void testSearch_Typos() {
+        FuzzyIndex index = index(TREASURES, 2);
+
+        FuzzyIndex.Matches matches = index.search("the prisn escape");
+        assertArrayEquals(new int[] {0}, matches.ordinals, "One dropped letter should be forgiven, arrr!");
+        assertArrayEquals(new int[] {1}, matches.edits);
+
+        assertArrayEquals(new int[] {0, 1}, index.search("pirson").ordinals, "Swapped letters count as one edit");
+        TextIndex.TopHits closest = FuzzyIndex.closest(index.search("poison"), null, 10);
+        assertArrayEquals(new int[] {1, 0}, closest.ordinals, "The exact spelling should come first, matey!");
+        assertEquals(2, closest.total);
+    }
+
+    @Test
+    @DisplayName("Directors match too, every word must match, and numbers must be exact")
+    public void testSearch_DirectorsWordsAndNumbers() {
+        FuzzyIndex index = index(TREASURES, 2);
+
+        assertArrayEquals(new int[] {2, 3}, index.search("long jon silvr").ordinals);
+        assertArrayEquals(new int[] {0}, index.search("jon escpe").ordinals, "Director and title words combine, savvy!");
+        assertArrayEquals(new int[] {3}, index.search("tresure island 2").ordinals);
+        assertEquals(0, index.search("treasure island 3").ordinals.length, "Sequel numbers should not be guessed!");
+        assertEquals(0, index.search("the").ordinals.length, "Stop words alone find nothing, ye landlubber!");
+        assertEquals(0, index.search("kraken").ordinals.length);
+    }
+
+    @Test
+    @DisplayName("Allowed edits grow with word length up to the configured maximum")
+    public void testAllowedEdits() {
+        FuzzyIndex index = index(TREASURES, 2);
+        assertEquals(0, index.allowedEdits("ox"));
+        assertEquals(0, index.allowedEdits("1994"));
+        assertEquals(1, index.allowedEdits("ship"));
+        assertEquals(2, index.allowedEdits("treasure"));
+        assertEquals(2, index.allowedEdits("swashbuckling"), "Never more than the configured maximum, arrr!");
+        assertEquals(0, index(TREASURES, 0).allowedEdits("treasure"));
+        assertThrows(IllegalArgumentException.class, () -> index(TREASURES, 4));
+    }
+
+    @Test
+    @DisplayName("The automaton walk finds exactly the words a full scan would")
+    public void testWithinDistance_MatchesFullScan() {
+        Random random = new Random(11);
+        List<Movie> movies = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int c = 0; c < 3 + random.nextInt(6); c++) {
+                word.append((char) ('a' + random.nextInt(6)));
+            }
+            words.add(word.toString());
+            movies.add(new Movie(i + 1, word.toString(), "", 2000, "Drama", "", 90, 3.0));
+        }
+        FuzzyIndex index = index(movies, 2);
+
+        for (String query : Arrays.asList("abcde", "fedcba", "aaa", "bacdef", "ffffffff")) {
+            for (int edits = 0; edits <= 2; edits++) {
+                int within = edits;
+                long expected = words.stream().distinct().filter(word -> !TextIndex.tokenize(word).isEmpty())
+                    .filter(word -> distance(query, word) <= within).count();
+                assertEquals(expected, index.withinDistance(query, edits).length / 2,
+                             "Walk and scan should agree for '" + query + "' within " + edits + ", matey!");
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for the rendered movie card cache, matey!
+ */
+public class MovieCardCacheTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(2L, "Treasure <Island>", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0)
+    );
+
+    /**
+     * A cache rendering with the application's templates, as Spring Boot configures them.
+     */
+    static MovieCardCache cardCache(int maxEntries, String contextPath) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return new MovieCardCache(engine, maxEntries, contextPath);
+    }
+
+    private static DataVersion version(List<Movie> movies) {
+        return new MovieService(movies).getCatalogVersion();
+    }
+
+    @Test
+    @DisplayName("Cards show the movie, escaped, with stars and a details link")
+    public void testRender() {
+        String card = cardCache(10, "/chest").render(TREASURES.get(1));
+
+        assertTrue(card.startsWith("<div class=\"movie-card\">"), "Only the card fragment should be rendered, arrr!");
+        assertTrue(card.contains("Treasure &lt;Island&gt;"), "Names should be escaped, matey!");
+        assertTrue(card.contains("<span>★</span><span>★</span><span>★</span><span>★</span><span>☆</span>"));
+        assertTrue(card.contains("4.0/5"));
+        assertTrue(card.contains("href=\"/chest/movies/2/details\""), "Links should start with the context path");
+        assertFalse(card.contains("Audience"), "No audience line without reviews, savvy!");
+    }
+
+    @Test
+    @DisplayName("A page of cards is built from the cache once each card has been rendered")
+    public void testCards_ReusesRenderedCards() {
+        MovieCardCache cache = cardCache(10, "");
+        DataVersion version = version(TREASURES);
+
+        String page = cache.cards(TREASURES, version);
+        assertEquals(2, cache.misses());
+        assertEquals(page, cache.cards(TREASURES, version), "The cached page should match the rendered one, arrr!");
+        assertEquals(2, cache.hits());
+        assertEquals(cache.render(TREASURES.get(0)) + cache.render(TREASURES.get(1)), page);
+
+        Movie reviewed = TREASURES.get(0).withAudience(ReviewSummary.NONE.plus(4.0));
+        String updated = cache.cards(Arrays.asList(reviewed, TREASURES.get(1)), version);
+        assertTrue(updated.contains("👥 Audience 4.0/5 (1)"), "A new review should re-render the card, matey!");
+        assertEquals(3, cache.misses());
+
+        cache.cards(TREASURES, version(Collections.singletonList(TREASURES.get(0))));
+        assertEquals(5, cache.misses(), "A new catalog version should start from scratch, savvy!");
+    }
+
+    @Test
+    @DisplayName("The cache keeps at most its configured number of cards")
+    public void testCards_Bounded() {
+        MovieCardCache cache = cardCache(1, "");
+        cache.cards(TREASURES, version(TREASURES));
+        assertEquals(1, cache.size());
+
+        MovieCardCache off = cardCache(0, "");
+        off.cards(TREASURES, version(TREASURES));
+        assertEquals(0, off.size(), "A zero-sized cache should keep nothing, ye landlubber!");
+        assertThrows(IllegalArgumentException.class, () -> cardCache(-1, ""));
+    }
+}
@@ -0,0 +1,144 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for streaming the movie catalog in from JSON, matey!
+ */
+public class MovieCatalogLoaderTest {
+
+    private static final String GOOD_RECORD = "{\"id\": %d, \"movieName\": \"Movie %d\", \"director\": \"Captain\", \"year\": 2000,"
+        + " \"genre\": \"Drama\", \"description\": \"Arrr\", \"duration\": 100, \"imdbRating\": 4.5}";
+
+    private static String good(int id) {
+        return String.format(GOOD_RECORD, id, id);
+    }
+
+    private static byte[] catalog(int... ids) {
+        StringJoiner records = new StringJoiner(",", "[", "]");
+        for (int id : ids) {
+            records.add(good(id));
+        }
+        return records.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Bundled catalog loads completely")
+    public void testLoad_BundledCatalog() {
+        MovieCatalogLoader.Result result = MovieCatalogLoader.load(null);
+
+        assertEquals(12, result.getMovies().size(), "Should load all 12 treasures, arrr!");
+        assertEquals(0, result.getSkipped());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    @DisplayName("Malformed records are skipped and counted")
+    public void testRead_SkipsMalformedRecords() {
+        String json = "[" + good(1) + ", {\"id\": 2, \"movieName\": \"No Director\"}, 42, " + good(1) + ", " + good(3) + "]";
+
+        MovieCatalogLoader.Result result = MovieCatalogLoader.read(new StringReader(json));
+
+        assertEquals(2, result.getMovies().size(), "Only the valid treasures should be kept, matey!");
+        assertEquals(1L, result.getMovies().get(0).getId());
+        assertEquals(3L, result.getMovies().get(1).getId());
+        assertEquals(3, result.getSkipped(), "Missing field, non-object and duplicate id should be skipped, arrr!");
+        assertEquals(3, result.getErrors().size());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    @DisplayName("Syntax errors keep the records read so far")
+    public void testRead_TruncatedCatalog() {
+        String json = "[" + good(1) + ", " + good(2) + ", {\"id\": 3, \"movieName\": ";
+
+        MovieCatalogLoader.Result result = MovieCatalogLoader.read(new StringReader(json));
+
+        assertEquals(2, result.getMovies().size(), "Treasures before the break should survive, ye scallywag!");
+        assertFalse(result.isComplete());
+        assertFalse(result.getErrors().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Empty array loads an empty catalog")
+    public void testRead_EmptyArray() {
+        MovieCatalogLoader.Result result = MovieCatalogLoader.read(new StringReader("  [ ] "));
+
+        assertTrue(result.getMovies().isEmpty());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    @DisplayName("External catalog file is used when configured")
+    public void testLoad_ExternalFile(@TempDir Path tempDir) throws IOException {
+        Path catalog = tempDir.resolve("movies.json");
+        Files.write(catalog, ("[" + good(7) + "]").getBytes(StandardCharsets.UTF_8));
+
+        MovieService movieService = new MovieService(catalog.toString());
+
+        assertEquals(1, movieService.getAllMovies().size());
+        assertEquals("Movie 7", movieService.getMovieById(7L).get().getMovieName());
+    }
+
+    @Test
+    @DisplayName("Missing external catalog falls back to the bundled one")
+    public void testLoad_MissingExternalFile(@TempDir Path tempDir) {
+        MovieCatalogLoader.Result result = MovieCatalogLoader.load(tempDir.resolve("missing.json").toString());
+
+        assertEquals(12, result.getMovies().size(), "Should fall back to the bundled treasure chest, savvy!");
+    }
+
+    @Test
+    @DisplayName("Reloading swaps in a changed catalog while running searches finish on the old one")
+    public void testReload_SwapsChangedCatalog(@TempDir Path tempDir) throws IOException {
+        Path catalog = tempDir.resolve("movies.json");
+        Files.write(catalog, catalog(1, 2));
+        MovieService movieService = new MovieService(catalog.toString());
+        movieService.setReviewService(new ReviewService(Collections.singletonMap(
+            3L, Collections.singletonList(new Review("Sailor", "⚓", 4.0, "Grand")))));
+        DataVersion before = movieService.getCatalogVersion();
+        Iterator<Movie> inFlight = movieService.streamMovieTreasures(MovieQuery.ALL, MovieSort.CATALOG_ORDER).iterator();
+        assertEquals(1L, inFlight.next().getId());
+
+        Files.write(catalog, catalog(1, 2, 3));
+        assertTrue(movieService.reloadCatalog(), "A changed catalog should be published, matey!");
+
+        assertEquals(3, movieService.getAllMovies().size());
+        assertNotEquals(before.getTag(), movieService.getCatalogVersion().getTag());
+        assertEquals(1, movieService.getMovieById(3L).get().getAudience().getCount(),
+                     "Audience scores should carry over to the new catalog, arrr!");
+        assertEquals(2L, inFlight.next().getId());
+        assertFalse(inFlight.hasNext(), "A running search should finish on the catalog it started with!");
+        assertFalse(movieService.reloadCatalog(), "An unchanged catalog should not be published again");
+    }
+
+    @Test
+    @DisplayName("A catalog caught mid-write or gone missing is not published on reload")
+    public void testReload_KeepsCatalogOnFailure(@TempDir Path tempDir) throws IOException {
+        Path catalog = tempDir.resolve("movies.json");
+        Files.write(catalog, catalog(1, 2));
+        MovieService movieService = new MovieService(catalog.toString());
+        DataVersion before = movieService.getCatalogVersion();
+
+        Files.write(catalog, ("[" + good(1) + "," + good(2) + ",{\"id\": 3, \"movieN").getBytes(StandardCharsets.UTF_8));
+        assertFalse(movieService.reloadCatalog(), "A truncated catalog should be rejected, savvy!");
+        Files.delete(catalog);
+        assertFalse(movieService.reloadCatalog(), "A missing catalog should not fall back to the bundled one on reload");
+
+        assertEquals(2, movieService.getAllMovies().size());
+        assertEquals(before.getTag(), movieService.getCatalogVersion().getTag());
+    }
+}
@@ -0,0 +1,137 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Tests for the concurrent movie-details assembly and its fallbacks, matey!
+ */
+public class MovieDetailsAssemblerTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "The Prison Escape", "Captain Hook", 1994, "Drama", "A swashbuckling escape", 142, 5.0)
+    );
+    private static final List<Review> REVIEWS = Collections.singletonList(new Review("Sailor", "🏴‍☠️", 4.5, "Fine plunder"));
+
+    private MovieService movieService;
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setUp() {
+        movieService = new MovieService(TREASURES);
+        executor = MovieDetailsAssembler.boundedExecutor(2, 1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private ReviewService slowReviews() {
+        return new ReviewService(Collections.singletonMap(1L, REVIEWS)) {
+            @Override
+            public List<Review> getReviewsForMovie(long movieId) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getReviewsForMovie(movieId);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Details carry the movie, its icon and its reviews")
+    public void testAssemble_AllParts() {
+        MovieDetailsAssembler assembler = new MovieDetailsAssembler(movieService,
+            new ReviewService(Collections.singletonMap(1L, REVIEWS)), executor, 1_000);
+
+        MovieDetails details = assembler.assemble(1L).get();
+        assertEquals("The Prison Escape", details.getMovie().getMovieName());
+        assertEquals("🔒", details.getIcon());
+        assertEquals(REVIEWS, details.getReviews());
+        assertTrue(details.isReviewsAvailable());
+    }
+
+    @Test
+    @DisplayName("Unknown movie gives no details")
+    public void testAssemble_NotFound() {
+        MovieDetailsAssembler assembler = new MovieDetailsAssembler(movieService,
+            new ReviewService(Collections.emptyMap()), executor, 1_000);
+
+        assertEquals(Optional.empty(), assembler.assemble(999L));
+    }
+
+    @Test
+    @DisplayName("Slow reviews time out and the page renders without them")
+    public void testAssemble_ReviewTimeout() {
+        MovieDetailsAssembler assembler = new MovieDetailsAssembler(movieService, slowReviews(), executor, 50);
+
+        long start = System.nanoTime();
+        MovieDetails details = assembler.assemble(1L).get();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(details.isReviewsAvailable(), "Reviews should be marked unavailable, arrr!");
+        assertTrue(details.getReviews().isEmpty());
+        assertEquals("🔒", details.getIcon(), "The icon should still arrive, matey!");
+        assertTrue(elapsedMillis < 2_000, "Should not wait for the slow reviews: " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Failing reviews fall back to an empty list")
+    public void testAssemble_ReviewFailure() {
+        ReviewService brokenReviews = new ReviewService(Collections.emptyMap()) {
+            @Override
+            public List<Review> getReviewsForMovie(long movieId) {
+                throw new IllegalStateException("Review store sank");
+            }
+        };
+        MovieDetailsAssembler assembler = new MovieDetailsAssembler(movieService, brokenReviews, executor, 1_000);
+
+        MovieDetails details = assembler.assemble(1L).get();
+        assertFalse(details.isReviewsAvailable(), "Broken reviews should be marked unavailable, ye scallywag!");
+        assertTrue(details.getReviews().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A full executor falls back instead of queueing without bound")
+    public void testAssemble_Rejected() throws Exception {
+        MovieDetailsAssembler assembler = new MovieDetailsAssembler(movieService, slowReviews(), executor, 20);
+        // Two busy workers and a full one-slot queue leave no room for another lookup
+        executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+        MovieDetails details = assembler.assemble(1L).get();
+        assertEquals("🔒", details.getIcon(), "The icon was resolved at load and needs no lookup, arrr!");
+        assertFalse(details.isReviewsAvailable());
+    }
+
+    @Test
+    @DisplayName("Virtual mode works on any JDK")
+    public void testCreateExecutor_Virtual() throws Exception {
+        ExecutorService virtual = MovieDetailsAssembler.createExecutor(MovieDetailsAssembler.EXECUTOR_VIRTUAL, 2, 4);
+        try {
+            assertEquals("ahoy", virtual.submit(() -> "ahoy").get(1, TimeUnit.SECONDS));
+        } finally {
+            virtual.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> MovieDetailsAssembler.createExecutor("galleon", 2, 4));
+    }
+}
@@ -0,0 +1,120 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy! Tests that the treasure hunting paths record their timers, matey!
+ */
+public class MovieMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    /**
+     * Timers are shared across tests, so every one registered so far shows up in a new registry; add up the matches.
+     */
+    private static long count(Search search) {
+        return search.timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    @Test
+    @DisplayName("Filter and result-size tags stay low-cardinality")
+    public void testTags() {
+        assertEquals("none", MovieMetrics.primaryFilter(MovieQuery.ALL));
+        assertEquals("none", MovieMetrics.primaryFilter(MovieQuery.of("  ", 0L, null)));
+        assertEquals("name", MovieMetrics.primaryFilter(MovieQuery.of("pirate", null, "drama")));
+        assertEquals("id", MovieMetrics.primaryFilter(MovieQuery.of("pirate", 1L, "drama")));
+        assertEquals("genre", MovieMetrics.primaryFilter(MovieQuery.of(null, null, "drama").withMinAudience(3.0)));
+        assertEquals("text", MovieMetrics.primaryFilter(MovieQuery.of(null, null, "drama").withText("treasure")));
+        assertEquals("text", MovieMetrics.primaryFilter(MovieQuery.ALL.withText("treasure").withFuzzy("tresure")));
+        assertEquals("genre", MovieMetrics.primaryFilter(MovieQuery.of(null, null, "drama")
+            .withYears(1990, null).withMaxDuration(120).withMinRating(4.0)));
+        assertEquals("rating", MovieMetrics.primaryFilter(MovieQuery.ALL.withMinRating(4.0).withMinAudience(3.0)));
+        assertEquals("0", MovieMetrics.resultBucket(0));
+        assertEquals("2-10", MovieMetrics.resultBucket(10));
+        assertEquals("1001+", MovieMetrics.resultBucket(250_000));
+    }
+
+    @Test
+    @DisplayName("Timers are registered once and reused")
+    public void testTimer_Reused() {
+        Timer first = MovieMetrics.timer(MovieMetrics.LOOKUP, "found", "true");
+        assertSame(first, MovieMetrics.timer(MovieMetrics.LOOKUP, "found", "true"), "No new timer per call, arrr!");
+        assertNotSame(first, MovieMetrics.timer(MovieMetrics.LOOKUP, "found", "false"));
+
+        first.record(java.time.Duration.ofMillis(1));
+        assertEquals(1, registry.find(MovieMetrics.LOOKUP).tag("found", "true").timer().count(),
+                     "A reused timer should still reach the registries added since, matey!");
+    }
+
+    @Test
+    @DisplayName("Hunts, lookups and review fetches are timed")
+    public void testTimersRecorded() {
+        MovieService movieService = new MovieService();
+        movieService.huntForMovieTreasures(null, null, "drama");
+        movieService.huntForMovieTreasures("zzz-no-such-treasure", null, null);
+        movieService.findMovieTreasures(null, null, "drama", MovieSort.CATALOG_ORDER, 0, 5);
+        movieService.getMovieById(1L);
+        new ReviewService(Collections.emptyMap()).getReviewsForMovie(1L);
+
+        assertEquals(1, count(registry.find(MovieMetrics.HUNT).tags("mode", "list", "filter", "genre")),
+                     "Genre hunt should be timed, arrr!");
+        assertEquals(1, count(registry.find(MovieMetrics.HUNT).tags("filter", "name", "results", "0")));
+        assertEquals(1, count(registry.find(MovieMetrics.HUNT).tags("mode", "page", "filter", "genre")),
+                     "Paged hunts should be timed too, matey!");
+        assertEquals(1, registry.find(MovieMetrics.LOOKUP).tag("found", "true").timer().count());
+        assertEquals(1, registry.find(MovieMetrics.REVIEWS).timer().count());
+        assertTrue(movieService.getCatalogLoadDurationNanos() > 0, "Loading the chest takes some time, savvy!");
+    }
+
+    @Test
+    @DisplayName("Cache hits and misses are published as counters")
+    public void testCacheCounters() throws Exception {
+        MovieService movieService = new MovieService();
+        CatalogMetricsBinder binder = new CatalogMetricsBinder();
+        java.lang.reflect.Field movieServiceField = CatalogMetricsBinder.class.getDeclaredField("movieService");
+        movieServiceField.setAccessible(true);
+        movieServiceField.set(binder, movieService);
+        java.lang.reflect.Field movieCardCacheField = CatalogMetricsBinder.class.getDeclaredField("movieCardCache");
+        movieCardCacheField.setAccessible(true);
+        movieCardCacheField.set(binder, MovieCardCacheTest.cardCache(10, ""));
+        SimpleMeterRegistry cacheRegistry = new SimpleMeterRegistry();
+        binder.bindTo(cacheRegistry);
+
+        movieService.findMovieTreasures(null, null, "drama", MovieSort.CATALOG_ORDER, 0, 5);
+        movieService.findMovieTreasures(null, null, "drama", MovieSort.CATALOG_ORDER, 0, 5);
+
+        FunctionCounter hits = cacheRegistry.find("movies.search.cache.hits").functionCounter();
+        assertNotNull(hits, "Cache hits should be a counter, arrr!");
+        assertEquals(1.0, hits.count());
+        assertEquals(1.0, cacheRegistry.find("movies.search.cache.misses").functionCounter().count());
+        assertNotNull(cacheRegistry.find("movies.search.cache.evictions").functionCounter());
+        assertNotNull(cacheRegistry.find("movies.view.card-cache.hits").functionCounter());
+        assertNotNull(cacheRegistry.find("movies.view.card-cache.misses").functionCounter());
+        assertNotNull(cacheRegistry.find("movies.view.card-cache.entries").gauge(), "Sizes stay gauges, savvy!");
+        cacheRegistry.close();
+    }
+}
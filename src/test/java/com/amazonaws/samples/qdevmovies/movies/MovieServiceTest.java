@@ -4,7 +4,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -209,6 +215,315 @@ public class MovieServiceTest {
         assertTrue(genres.contains("Action/Crime"), "Should contain Action/Crime genre, matey!");
     }
 
+    @Test
+    @DisplayName("Indexed treasure hunt matches a full scan")
+    public void testHuntForMovieTreasures_MatchesFullScan() {
+        String[] queries = {"t", "th", "the", "the ", "he w", "rison esc", "ing", "Dream Heist", "xyz", "a", "/", "sci-fi", "ME/"};
+        for (String name : queries) {
+            for (String genre : new String[] {null, "dr", "Crime/", "sci", "ama"}) {
+                List<Movie> expected = movieService.getAllMovies().stream()
+                    .filter(movie -> movie.getMovieName().toLowerCase().contains(name.trim().toLowerCase()))
+                    .filter(movie -> genre == null || movie.getGenre().toLowerCase().contains(genre.toLowerCase()))
+                    .collect(Collectors.toList());
+
+                assertEquals(expected, movieService.huntForMovieTreasures(name, null, genre),
+                            "Index should find the same treasures as a scan for name '" + name + "' and genre '" + genre + "'");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Treasure hunt by ID combined with a non-matching name")
+    public void testHuntForMovieTreasures_IdAndNameMismatch() {
+        List<Movie> treasureHaul = movieService.huntForMovieTreasures("Prison", 3L, null);
+
+        assertTrue(treasureHaul.isEmpty(), "ID and name point at different treasures, arrr!");
+    }
+
+    @Test
+    @DisplayName("Paged treasure hunt walks the whole haul without repeats")
+    public void testFindMovieTreasures_PagesCoverAllResults() {
+        MovieSort byYear = MovieSort.parse("year,desc");
+        List<Movie> sorted = movieService.huntForMovieTreasures(null, null, "Drama").stream()
+            .sorted(MovieSort.Field.YEAR.comparator().reversed())
+            .collect(Collectors.toList());
+
+        List<Movie> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            MoviePage moviePage = movieService.findMovieTreasures(null, null, "Drama", byYear, page, 3);
+            assertEquals(sorted.size(), moviePage.getTotalElements(), "Every page should report the full count, arrr!");
+            paged.addAll(moviePage.getContent());
+        }
+
+        assertEquals(sorted, paged, "Pages should follow the sort order, matey!");
+    }
+
+    @Test
+    @DisplayName("Page past the end is empty")
+    public void testFindMovieTreasures_PastTheEnd() {
+        MoviePage moviePage = movieService.findMovieTreasures(null, null, null, MovieSort.CATALOG_ORDER, 5, 10);
+
+        assertTrue(moviePage.getContent().isEmpty(), "No treasures past the end of the chest, ye scallywag!");
+        assertEquals(12, moviePage.getTotalElements());
+        assertFalse(moviePage.hasNext());
+    }
+
+    @Test
+    @DisplayName("Streamed treasure hunt matches the list hunt")
+    public void testStreamMovieTreasures() {
+        List<Movie> streamed = movieService.streamMovieTreasures("the", null, null, MovieSort.CATALOG_ORDER)
+            .collect(Collectors.toList());
+
+        assertEquals(movieService.huntForMovieTreasures("the", null, null), streamed);
+    }
+
+    @Test
+    @DisplayName("Unknown sort field is rejected")
+    public void testMovieSort_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("booty"));
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("name,sideways"));
+    }
+
+    @Test
+    @DisplayName("Facet counts split compound genres")
+    public void testGetTreasureFacets_WholeChest() {
+        Map<String, Map<String, Integer>> facets = movieService.getTreasureFacets(null, null, null);
+
+        long dramaTreasures = movieService.getAllMovies().stream()
+            .filter(movie -> Arrays.asList(movie.getGenre().split("/")).contains("Drama"))
+            .count();
+        assertEquals(dramaTreasures, (long) facets.get("genre").get("Drama"), "Drama count should include compound genres, arrr!");
+        assertFalse(facets.get("genre").containsKey("Crime/Drama"), "Compound genres should be split, matey!");
+        assertEquals(12, facets.get("decade").values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(12, facets.get("rating").values().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(facets.get("director").containsKey("Chris Moviemaker"));
+    }
+
+    @Test
+    @DisplayName("Facet counts follow the treasure hunt")
+    public void testGetTreasureFacets_SearchResults() {
+        List<Movie> haul = movieService.huntForMovieTreasures(null, null, "Sci");
+        Map<String, Map<String, Integer>> facets = movieService.getTreasureFacets(null, null, "Sci");
+
+        assertEquals(haul.size(), (int) facets.get("genre").get("Sci-Fi"), "Every sci-fi treasure should be counted, savvy!");
+        assertEquals(haul.size(), facets.get("decade").values().stream().mapToInt(Integer::intValue).sum());
+        assertFalse(facets.get("genre").containsKey("Romance"), "Genres outside the haul should not appear, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Batch lookup resolves ids in order, skipping unknown and repeated ones")
+    public void testGetMoviesByIds() {
+        List<Movie> haul = movieService.getMoviesByIds(Arrays.asList(5L, 999L, 1L, 5L, null, -2L));
+
+        assertEquals(Arrays.asList(5L, 1L), haul.stream().map(Movie::getId).collect(Collectors.toList()),
+                     "Should find treasures 5 and 1 in request order, arrr!");
+    }
+
+    @Test
+    @DisplayName("Movies carry audience scores that can sort and filter the haul")
+    public void testAudienceScores_SortAndFilter() {
+        Map<Long, List<Review>> reviews = new HashMap<>();
+        reviews.put(1L, Arrays.asList(new Review("Sailor", "🏴‍☠️", 3.0, "Fair"), new Review("Bosun", "⚓", 4.0, "Good")));
+        reviews.put(2L, Collections.singletonList(new Review("Cook", "🍲", 5.0, "Grand")));
+        MovieService audienceService = new MovieService(movieService.getAllMovies());
+        audienceService.setReviewService(new ReviewService(reviews));
+
+        Movie first = audienceService.getMovieById(1L).get();
+        assertEquals(2, first.getAudience().getCount(), "Audience count should ride along with the movie, matey!");
+        assertEquals(3.5, first.getAudience().getAverageRating(), 1e-9);
+        assertNull(audienceService.getMovieById(3L).get().getAudience(), "Unreviewed treasure carries no audience score!");
+
+        MoviePage favourites = audienceService.findMovieTreasures(null, null, null, null,
+                                                                  MovieSort.parse("audience,desc"), 0, 3);
+        assertEquals(Arrays.asList(2L, 1L), favourites.getContent().subList(0, 2).stream().map(Movie::getId)
+                     .collect(Collectors.toList()), "Best loved treasures should come first, arrr!");
+
+        List<Movie> loved = audienceService.huntForMovieTreasures(null, null, null, 4.0);
+        assertEquals(Collections.singletonList(2L), loved.stream().map(Movie::getId).collect(Collectors.toList()));
+        assertEquals(0, audienceService.findMovieTreasures(null, 1L, null, 4.0, MovieSort.CATALOG_ORDER, 0, 10)
+                     .getTotalElements(), "Minimum score should narrow a cached search too, savvy!");
+    }
+
+    @Test
+    @DisplayName("Posted reviews move a movie in the audience order")
+    public void testAudienceScores_FollowPostedReviews() {
+        ReviewService reviewService = new ReviewService(Collections.emptyMap());
+        MovieService audienceService = new MovieService(movieService.getAllMovies());
+        audienceService.setReviewService(reviewService);
+        MovieSort favourites = MovieSort.parse("audience,desc");
+
+        reviewService.addReview(5L, new Review("Sailor", "⚓", 4.0, ""));
+        reviewService.addReview(9L, new Review("Bosun", "⚓", 5.0, ""));
+        assertEquals(9L, audienceService.findMovieTreasures(null, null, null, favourites, 0, 1).getContent().get(0).getId());
+
+        reviewService.addReview(5L, new Review("Cook", "⚓", 5.0, ""));
+        reviewService.addReview(5L, new Review("Mate", "⚓", 5.0, ""));
+        reviewService.addReview(9L, new Review("Gunner", "⚓", 1.0, ""));
+        Movie top = audienceService.findMovieTreasures(null, null, null, favourites, 0, 1).getContent().get(0);
+        assertEquals(5L, top.getId(), "Movie 5 should sail to the top, arrr!");
+        assertEquals(3, top.getAudience().getCount());
+    }
+
+    @Test
+    @DisplayName("On a large catalog, posted reviews show at once and the audience order catches up on its timer")
+    public void testAudienceScores_RerankedOnTimer() throws InterruptedException {
+        List<Movie> catalog = new ArrayList<>();
+        for (long id = 1; id <= 64L * AudienceScores.RERANK_DIVISOR; id++) {
+            catalog.add(new Movie(id, "Treasure " + id, "Captain", 2000, "Drama", "", 100, 3.0));
+        }
+        ReviewService reviewService = new ReviewService(Collections.emptyMap());
+        MovieService audienceService = new MovieService(catalog);
+        audienceService.setReviewService(reviewService, 20);
+        MovieSort favourites = MovieSort.parse("audience,desc");
+        try {
+            reviewService.addReview(4000L, new Review("Sailor", "⚓", 5.0, ""));
+            assertEquals(1, audienceService.getMovieById(4000L).get().getAudience().getCount(),
+                         "The summary should not wait for the re-rank, arrr!");
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            long top = -1;
+            while (top != 4000L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                top = audienceService.findMovieTreasures(null, null, null, favourites, 0, 1).getContent().get(0).getId();
+            }
+            assertEquals(4000L, top, "The re-rank timer should move the reviewed movie to the top, matey!");
+        } finally {
+            audienceService.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Text search ranks titles first and combines with filters and sorts")
+    public void testTextSearch_Ranked() {
+        MovieQuery world = MovieQuery.ALL.withText("World");
+
+        MoviePage ranked = movieService.findMovieTreasures(world, MovieSort.RELEVANCE, 0, 10);
+        assertEquals(4, ranked.getTotalElements(), "Four treasures speak of a world, arrr!");
+        assertEquals(7L, ranked.getContent().get(0).getId(), "The Virtual World has it in its title, matey!");
+
+        MoviePage secondPage = movieService.findMovieTreasures(world, MovieSort.RELEVANCE, 1, 2);
+        assertEquals(ranked.getContent().subList(2, 4), secondPage.getContent(), "Pages should follow the ranking, savvy!");
+        assertEquals(4, secondPage.getTotalElements());
+
+        List<Long> byYear = movieService.findMovieTreasures(world, MovieSort.parse("year"), 0, 10).getContent().stream()
+            .map(Movie::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(10L, 11L, 7L, 9L), byYear, "A field sort should order the text matches by year!");
+
+        MovieQuery sciFiWorld = MovieQuery.of(null, null, "sci-fi").withText("world");
+        assertEquals(Arrays.asList(7L, 10L), movieService.huntForMovieTreasures(sciFiWorld).stream()
+            .map(Movie::getId).collect(Collectors.toList()), "Genre filter should narrow the ranked haul, arrr!");
+        assertEquals(Arrays.asList(7L, 10L), movieService.streamMovieTreasures(sciFiWorld, MovieSort.RELEVANCE)
+            .map(Movie::getId).collect(Collectors.toList()));
+        assertEquals(2, movieService.getTreasureFacets(sciFiWorld).get("genre").get("Sci-Fi"));
+
+        assertEquals(0, movieService.findMovieTreasures(MovieQuery.ALL.withText("kraken"), MovieSort.RELEVANCE, 0, 10)
+            .getTotalElements(), "No treasure mentions the kraken, ye landlubber!");
+    }
+
+    @Test
+    @DisplayName("Typo-tolerant search forgives misspelled titles and directors")
+    public void testFuzzySearch_Typos() {
+        List<Movie> prison = movieService.huntForMovieTreasures(MovieQuery.ALL.withFuzzy("the prisn escpe"));
+        assertEquals(1, prison.size(), "A couple of dropped letters should still find the prison, arrr!");
+        assertEquals(1L, prison.get(0).getId());
+
+        List<Long> chris = movieService.findMovieTreasures(MovieQuery.ALL.withFuzzy("Cris Moviemakr"), MovieSort.RELEVANCE, 0, 10)
+            .getContent().stream().map(Movie::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(3L, 6L), chris, "Directors should be found through typos too, matey!");
+
+        List<Long> director = movieService.huntForMovieTreasures(MovieQuery.ALL.withFuzzy("Director")).stream()
+            .map(Movie::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(1L, 4L, 7L, 10L), director, "Exact spellings tie and keep catalog order, savvy!");
+
+        MovieQuery sciFiDirector = MovieQuery.of(null, null, "sci-fi").withFuzzy("Directr");
+        assertEquals(Arrays.asList(7L, 10L), movieService.huntForMovieTreasures(sciFiDirector).stream()
+            .map(Movie::getId).collect(Collectors.toList()), "Other filters should still narrow the haul, arrr!");
+        assertEquals(Arrays.asList(7L), movieService.huntForMovieTreasures(sciFiDirector.withText("virtual")).stream()
+            .map(Movie::getId).collect(Collectors.toList()), "Fuzzy and full-text criteria should both apply!");
+
+        assertTrue(movieService.huntForMovieTreasures(MovieQuery.ALL.withFuzzy("Kraken")).isEmpty(),
+                   "No treasure is anything like the kraken, ye landlubber!");
+    }
+
+    @Test
+    @DisplayName("Year, duration and rating ranges narrow the haul together")
+    public void testRangeFilters() {
+        List<Long> nineties = movieService.huntForMovieTreasures(MovieQuery.ALL.withYears(1990, 1999)).stream()
+            .map(Movie::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(1L, 4L, 5L, 7L, 8L, 11L, 12L), nineties, "Both year bounds are inclusive, arrr!");
+
+        MovieQuery shortNineties = MovieQuery.ALL.withYears(1990, 1999).withMaxDuration(142);
+        assertEquals(Arrays.asList(1L, 5L, 7L, 12L), movieService.huntForMovieTreasures(shortNineties).stream()
+            .map(Movie::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1L), movieService.huntForMovieTreasures(shortNineties.withMinRating(5.0)).stream()
+            .map(Movie::getId).collect(Collectors.toList()), "Every range should apply, matey!");
+
+        assertEquals(Arrays.asList(2L, 10L), movieService.huntForMovieTreasures(MovieQuery.ALL.withYears(null, 1980))
+            .stream().map(Movie::getId).collect(Collectors.toList()), "An open lower bound reaches the oldest treasures");
+        assertEquals(Arrays.asList(3L, 6L, 9L), movieService.huntForMovieTreasures(
+            MovieQuery.of(null, null, null).withYears(2000, null).withMinRating(4.5)).stream()
+            .map(Movie::getId).collect(Collectors.toList()));
+
+        MoviePage page = movieService.findMovieTreasures(MovieQuery.of("the", null, "drama").withMinRating(4.5),
+                                                          MovieSort.parse("year,desc"), 0, 10);
+        assertEquals(Arrays.asList(1L, 11L, 8L, 2L), page.getContent().stream().map(Movie::getId)
+            .collect(Collectors.toList()), "Ranges combine with name and genre and keep the sort, savvy!");
+        assertEquals(Arrays.asList(1L, 4L, 7L), movieService.findMovieTreasures(
+            MovieQuery.ALL.withFuzzy("Directr").withYears(1990, 2000), MovieSort.RELEVANCE, 0, 10).getContent().stream()
+            .map(Movie::getId).collect(Collectors.toList()), "Ranked searches should honour the ranges too, arrr!");
+        assertTrue(movieService.huntForMovieTreasures(MovieQuery.ALL.withYears(2000, 1990)).isEmpty(),
+                   "An upside-down range finds nothing, ye landlubber!");
+        assertEquals(7, movieService.getTreasureFacets(MovieQuery.ALL.withYears(1990, 1999)).get("decade").get("1990s"));
+    }
+
+    @Test
+    @DisplayName("Suggestions complete titles and directors, best rated first")
+    public void testSuggestMovieTreasures() {
+        List<MovieSuggestion> chris = movieService.suggestMovieTreasures("chr", 10);
+        assertEquals(1, chris.size());
+        assertEquals("Chris Moviemaker", chris.get(0).getText());
+        assertEquals(MovieSuggestion.DIRECTOR, chris.get(0).getType());
+        assertNull(chris.get(0).getMovieId(), "Directors have no single movie, matey!");
+
+        List<MovieSuggestion> the = movieService.suggestMovieTreasures("the", 3);
+        assertEquals(3, the.size(), "The limit should be respected, arrr!");
+        assertEquals("The Prison Escape", the.get(0).getText());
+        assertEquals(1L, the.get(0).getMovieId());
+        assertEquals(MovieSuggestion.TITLE, the.get(0).getType());
+        for (int i = 1; i < the.size(); i++) {
+            assertTrue(the.get(i - 1).getRating() >= the.get(i).getRating(), "Best rated should come first, savvy!");
+        }
+        assertTrue(movieService.suggestMovieTreasures("kraken", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Movies carry their icon and genre parts from load, and compound genre hunts ignore part order")
+    public void testEnrichment_IconsAndGenreParts() {
+        Movie familyBoss = movieService.getMovieById(2L).get();
+        assertEquals("👔", familyBoss.getIcon(), "Icons should come from movie-icons.json, arrr!");
+        assertEquals(Arrays.asList("Crime", "Drama"), familyBoss.getGenres());
+        assertEquals("🎬", new Movie(99L, "Uncharted Waters", "Nobody", 2000, "Drama", "", 90, 3.0).getIcon(),
+                     "Unknown titles should get the default icon, matey!");
+        assertEquals(Arrays.asList("Crime", "Drama"),
+                     new Movie(99L, "X", "Nobody", 2000, " Crime / Drama/Crime/ ", "", 90, 3.0).getGenres());
+
+        List<String> crimeDramas = movieService.getAllMovies().stream()
+            .filter(movie -> movie.getGenres().containsAll(Arrays.asList("Crime", "Drama")))
+            .map(Movie::getMovieName)
+            .collect(Collectors.toList());
+        assertFalse(crimeDramas.isEmpty());
+        assertEquals(crimeDramas, movieService.huntForMovieTreasures(null, null, "drama / CRIME").stream()
+                         .map(Movie::getMovieName).collect(Collectors.toList()),
+                     "Every part should match, in any order, savvy!");
+    }
+
+    @Test
+    @DisplayName("Genre list is built once")
+    public void testGetAllTreasureGenres_Cached() {
+        assertSame(movieService.getAllTreasureGenres(), movieService.getAllTreasureGenres(),
+                  "Genres should not be recomputed per call, arrr!");
+    }
+
     @Test
     @DisplayName("Test individual movie properties")
     public void testMovieProperties() {
@@ -1,19 +1,36 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.ui.Model;
 import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.bind.ServletRequestDataBinder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 /**
  * Arrr! Unit tests for the MoviesController treasure hunting endpoints, matey!
@@ -25,6 +42,8 @@ public class MoviesControllerTest {
     private Model model;
     private MockMovieService mockMovieService;
     private ReviewService mockReviewService;
+    private ThreadPoolTaskExecutor streamTaskExecutor;
+    private ThreadPoolTaskExecutor ndjsonTaskExecutor;
 
     @BeforeEach
     public void setUp() {
@@ -44,6 +63,31 @@ public class MoviesControllerTest {
             java.lang.reflect.Field reviewServiceField = MoviesController.class.getDeclaredField("reviewService");
             reviewServiceField.setAccessible(true);
             reviewServiceField.set(moviesController, mockReviewService);
+
+            java.lang.reflect.Field detailsAssemblerField = MoviesController.class.getDeclaredField("detailsAssembler");
+            detailsAssemblerField.setAccessible(true);
+            detailsAssemblerField.set(moviesController, new MovieDetailsAssembler(mockMovieService, mockReviewService,
+                MovieDetailsAssembler.boundedExecutor(2, 8), 1_000));
+
+            java.lang.reflect.Field movieCardCacheField = MoviesController.class.getDeclaredField("movieCardCache");
+            movieCardCacheField.setAccessible(true);
+            movieCardCacheField.set(moviesController, MovieCardCacheTest.cardCache(100, ""));
+
+            java.lang.reflect.Field objectMapperField = MoviesController.class.getDeclaredField("objectMapper");
+            objectMapperField.setAccessible(true);
+            objectMapperField.set(moviesController, new ObjectMapper());
+
+            streamTaskExecutor = WebConfig.boundedExecutor("test-stream-", 1, 0);
+            streamTaskExecutor.initialize();
+            java.lang.reflect.Field streamTaskExecutorField = MoviesController.class.getDeclaredField("streamTaskExecutor");
+            streamTaskExecutorField.setAccessible(true);
+            streamTaskExecutorField.set(moviesController, streamTaskExecutor);
+
+            ndjsonTaskExecutor = WebConfig.boundedExecutor("test-ndjson-", 1, 0);
+            ndjsonTaskExecutor.initialize();
+            java.lang.reflect.Field ndjsonTaskExecutorField = MoviesController.class.getDeclaredField("ndjsonTaskExecutor");
+            ndjsonTaskExecutorField.setAccessible(true);
+            ndjsonTaskExecutorField.set(moviesController, ndjsonTaskExecutor);
         } catch (Exception e) {
             throw new RuntimeException("Failed to inject mock services, ye scurvy dog!", e);
         }
@@ -52,7 +96,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Ahoy! Test getting all movies without search parameters")
     public void testGetMovies_NoSearchParameters() {
-        String result = moviesController.getMovies(model, null, null, null);
+        String result = moviesController.getMovies(model, new MovieSearchForm());
         
         assertEquals("movies", result, "Should return movies template, matey!");
         
@@ -69,7 +113,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Treasure hunt by movie name")
     public void testGetMovies_SearchByName() {
-        String result = moviesController.getMovies(model, "Pirate", null, null);
+        String result = moviesController.getMovies(model, new MovieSearchForm().setName("Pirate"));
         
         assertEquals("movies", result, "Should return movies template, arrr!");
         
@@ -88,7 +132,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Treasure hunt by movie ID")
     public void testGetMovies_SearchById() {
-        String result = moviesController.getMovies(model, null, 2L, null);
+        String result = moviesController.getMovies(model, new MovieSearchForm().setId(2L));
         
         assertEquals("movies", result, "Should return movies template, matey!");
         
@@ -105,7 +149,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Treasure hunt by genre")
     public void testGetMovies_SearchByGenre() {
-        String result = moviesController.getMovies(model, null, null, "Adventure");
+        String result = moviesController.getMovies(model, new MovieSearchForm().setGenre("Adventure"));
         
         assertEquals("movies", result, "Should return movies template, arrr!");
         
@@ -121,7 +165,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Treasure hunt with no results")
     public void testGetMovies_NoResults() {
-        String result = moviesController.getMovies(model, "NonexistentMovie", null, null);
+        String result = moviesController.getMovies(model, new MovieSearchForm().setName("NonexistentMovie"));
         
         assertEquals("movies", result, "Should return movies template, arrr!");
         
@@ -139,7 +183,8 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("REST API treasure hunt - valid search")
     public void testSearchMovieTreasures_ValidSearch() {
-        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures("Pirate", null, null);
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setName("Pirate"));
         
         assertEquals(200, response.getStatusCodeValue(), "Should return OK status, matey!");
         
@@ -160,7 +205,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("REST API treasure hunt - no parameters")
     public void testSearchMovieTreasures_NoParameters() {
-        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(null, null, null);
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(new MovieSearchForm());
         
         assertEquals(400, response.getStatusCodeValue(), "Should return bad request status, ye scallywag!");
         
@@ -173,6 +218,319 @@ public class MoviesControllerTest {
         assertTrue(message.contains("at least one search parameter"), "Should mention missing parameters, ye landlubber!");
     }
 
+    @Test
+    @DisplayName("Search parameters bind by name onto the hunt form")
+    public void testSearchForm_BindsRequestParameters() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/search");
+        request.addParameter("genre", "Adventure");
+        request.addParameter("q", "treasure");
+        request.addParameter("yearFrom", "2000");
+        request.addParameter("minRating", "4.5");
+        request.addParameter("size", "5");
+        request.addParameter("sort", "rating,desc");
+        MovieSearchForm hunt = new MovieSearchForm();
+        ServletRequestDataBinder binder = new ServletRequestDataBinder(hunt);
+        binder.bind(request);
+
+        assertFalse(binder.getBindingResult().hasErrors(), "Every parameter should bind, matey!");
+        MovieQuery query = hunt.toQuery();
+        assertEquals("Adventure", query.getGenre());
+        assertEquals("treasure", query.getText());
+        assertEquals(Integer.valueOf(2000), query.getYearFrom());
+        assertEquals(Double.valueOf(4.5), query.getMinRating());
+        assertFalse(query.hasName(), "Criteria left out should stay unset, savvy!");
+        assertEquals(Integer.valueOf(5), hunt.getSize());
+        assertEquals("rating,desc", hunt.getSort());
+    }
+
+    @Test
+    @DisplayName("Treasure chest pages and sorts results")
+    public void testGetMovies_PagedAndSorted() {
+        String result = moviesController.getMovies(model,
+            new MovieSearchForm().setPage(1).setSize(2).setSort("rating,desc"));
+
+        assertEquals("movies", result, "Should return movies template, matey!");
+
+        @SuppressWarnings("unchecked")
+        List<Movie> movies = (List<Movie>) model.getAttribute("movies");
+        assertEquals(1, movies.size(), "Second page of two should hold the last treasure, arrr!");
+        assertEquals(2L, movies.get(0).getId(), "Lowest rated treasure should come last, savvy!");
+
+        MoviePage moviePage = (MoviePage) model.getAttribute("moviePage");
+        assertEquals(3, moviePage.getTotalElements());
+        assertEquals(2, moviePage.getTotalPages());
+        assertEquals("/movies?sort=rating,desc&page=0&size=2", model.getAttribute("previousPageUrl"));
+        assertNull(model.getAttribute("nextPageUrl"), "No page after the last one, ye landlubber!");
+    }
+
+    @Test
+    @DisplayName("REST API treasure hunt - paged results keep the full count")
+    public void testSearchMovieTreasures_Paged() {
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setGenre("Adventure").setPage(0).setSize(1).setSort("name,desc"));
+
+        assertEquals(200, response.getStatusCodeValue(), "Should return OK status, matey!");
+        Map<String, Object> body = response.getBody();
+        assertEquals(2, body.get("totalFound"), "Total should count every match, arrr!");
+        assertEquals(2, body.get("totalPages"));
+
+        @SuppressWarnings("unchecked")
+        List<Movie> treasures = (List<Movie>) body.get("treasures");
+        assertEquals(1, treasures.size(), "Page should hold a single treasure, savvy!");
+        assertEquals("Treasure Island", treasures.get(0).getMovieName());
+    }
+
+    @Test
+    @DisplayName("REST API treasure hunt - invalid sort")
+    public void testSearchMovieTreasures_InvalidSort() {
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setName("Pirate").setSort("plunder"));
+
+        assertEquals(400, response.getStatusCodeValue(), "Unknown sort should be rejected, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Streaming treasure hunt writes one JSON line per match")
+    public void testStreamMovieTreasures_Ndjson() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(moviesController).build();
+        MvcResult result = mockMvc.perform(get("/movies/search")
+                .param("format", "ndjson").param("genre", "Adventure").param("sort", "id,desc"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult(5_000);
+
+        MockHttpServletResponse response = result.getResponse();
+        assertEquals(200, response.getStatus(), "Should return OK status, matey!");
+        assertEquals("application/x-ndjson", response.getContentType());
+        String[] lines = response.getContentAsString().trim().split("\n");
+        assertEquals(2, lines.length, "Should stream both adventure treasures, arrr!");
+        assertTrue(lines[0].contains("\"id\":2"), "Highest id should stream first: " + lines[0]);
+        assertTrue(lines[1].contains("\"movieName\":\"Pirate Adventure\""), "Pirate Adventure should stream second: " + lines[1]);
+    }
+
+    @Test
+    @DisplayName("Streaming treasure hunts are turned away with 503 when every writer is busy")
+    public void testStreamMovieTreasures_Busy() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable slowClient = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        streamTaskExecutor.execute(slowClient);
+        ndjsonTaskExecutor.execute(slowClient);
+        try {
+            started.await();
+            MovieSearchForm hunt = new MovieSearchForm().setGenre("Adventure");
+            assertEquals(503, moviesController.streamMovieTreasures(hunt).getStatusCodeValue(),
+                "A full NDJSON crew should turn the hunt away, arrr!");
+            assertEquals(503, moviesController.streamMovieTreasuresReactive(hunt).getStatusCodeValue(),
+                "A full reactive crew should turn the hunt away, savvy!");
+        } finally {
+            release.countDown();
+            streamTaskExecutor.shutdown();
+            ndjsonTaskExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Reactive treasure stream emits matches in sort order")
+    public void testStreamMovieTreasuresReactive() {
+        ResponseEntity<Flux<Movie>> response = moviesController.streamMovieTreasuresReactive(
+            new MovieSearchForm().setGenre("Adventure").setSort("id,desc"));
+
+        assertEquals(200, response.getStatusCodeValue(), "Should return OK status, matey!");
+        List<Movie> treasures = response.getBody().collectList().block();
+        assertEquals(2, treasures.size(), "Should stream both adventure treasures, arrr!");
+        assertEquals(2L, treasures.get(0).getId());
+        assertEquals(1L, treasures.get(1).getId());
+
+        assertEquals(1, response.getBody().take(1).collectList().block().size(), "Cancelling early should be fine, savvy!");
+        assertEquals(400, moviesController.streamMovieTreasuresReactive(new MovieSearchForm()).getStatusCodeValue());
+        assertEquals(400, moviesController.streamMovieTreasuresReactive(new MovieSearchForm().setName("a").setSort("bogus"))
+            .getStatusCodeValue());
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test text search API, best match first")
+    public void testSearchMovieTreasures_Text() {
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setQ("treasure"));
+
+        assertEquals(200, response.getStatusCodeValue(), "A text query alone should be enough, matey!");
+        Map<String, Object> body = response.getBody();
+        assertEquals("relevance,asc", body.get("sort"), "Text searches should rank by relevance by default, arrr!");
+        @SuppressWarnings("unchecked")
+        List<Movie> treasures = (List<Movie>) body.get("treasures");
+        assertEquals(2L, treasures.get(0).getId(), "Treasure Island should top the haul, savvy!");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> searchParams = (Map<String, Object>) body.get("searchParameters");
+        assertEquals("treasure", searchParams.get("q"));
+
+        String result = moviesController.getMovies(model, new MovieSearchForm().setQ("space"));
+        assertEquals("movies", result);
+        assertEquals("space", model.getAttribute("searchText"));
+        assertEquals(1, ((MoviePage) model.getAttribute("moviePage")).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Range filters alone make a search and carry over to the next page")
+    public void testSearchMovieTreasures_Ranges() {
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setYearFrom(2000).setMaxDuration(130));
+
+        assertEquals(200, response.getStatusCodeValue(), "A year range alone should be enough, matey!");
+        Map<String, Object> body = response.getBody();
+        @SuppressWarnings("unchecked")
+        List<Movie> treasures = (List<Movie>) body.get("treasures");
+        assertEquals(2, treasures.size(), "Only the short voyages since 2000 should be found, arrr!");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> searchParams = (Map<String, Object>) body.get("searchParameters");
+        assertEquals(2000, searchParams.get("yearFrom"));
+        assertEquals(130, searchParams.get("maxDuration"));
+
+        String result = moviesController.getMovies(model,
+            new MovieSearchForm().setPage(0).setSize(1).setYearTo(2022).setMinRating(4.0));
+        assertEquals("movies", result);
+        assertEquals(4.0, model.getAttribute("searchMinRating"));
+        assertEquals(2, ((MoviePage) model.getAttribute("moviePage")).getTotalElements());
+        assertEquals("/movies?yearTo=2022&minRating=4.0&page=1&size=1", model.getAttribute("nextPageUrl"));
+    }
+
+    @Test
+    @DisplayName("Typo-tolerant search finds treasures despite misspellings")
+    public void testSearchMovieTreasures_Fuzzy() {
+        ResponseEntity<Map<String, Object>> response = moviesController.searchMovieTreasures(
+            new MovieSearchForm().setFuzzy("Tresure Iland"));
+
+        assertEquals(200, response.getStatusCodeValue(), "A fuzzy query alone should be enough, matey!");
+        Map<String, Object> body = response.getBody();
+        assertEquals("relevance,asc", body.get("sort"), "Fuzzy searches should come closest first by default, arrr!");
+        @SuppressWarnings("unchecked")
+        List<Movie> treasures = (List<Movie>) body.get("treasures");
+        assertEquals(1, treasures.size());
+        assertEquals(2L, treasures.get(0).getId(), "Treasure Island should be found through the typos, savvy!");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> searchParams = (Map<String, Object>) body.get("searchParameters");
+        assertEquals("Tresure Iland", searchParams.get("fuzzy"));
+
+        String result = moviesController.getMovies(model, new MovieSearchForm().setFuzzy("Stanly Kubrik"));
+        assertEquals("movies", result);
+        assertEquals("Stanly Kubrik", model.getAttribute("searchFuzzy"));
+        assertEquals(1, ((MoviePage) model.getAttribute("moviePage")).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Suggest endpoint completes titles and directors")
+    public void testSuggestMovieTreasures() {
+        ResponseEntity<Map<String, Object>> response = moviesController.suggestMovieTreasures("s", null);
+
+        assertEquals(200, response.getStatusCodeValue(), "Suggestions should always answer, matey!");
+        @SuppressWarnings("unchecked")
+        List<MovieSuggestion> suggestions = (List<MovieSuggestion>) response.getBody().get("suggestions");
+        assertEquals(Arrays.asList("Space Odyssey", "Stanley Kubrick", "Long John Silver"),
+                     suggestions.stream().map(MovieSuggestion::getText).collect(java.util.stream.Collectors.toList()));
+        assertEquals("s", response.getBody().get("prefix"));
+
+        @SuppressWarnings("unchecked")
+        List<MovieSuggestion> limited = (List<MovieSuggestion>) moviesController.suggestMovieTreasures("s", 1).getBody().get("suggestions");
+        assertEquals(1, limited.size(), "The limit should be respected, arrr!");
+        @SuppressWarnings("unchecked")
+        List<MovieSuggestion> none = (List<MovieSuggestion>) moviesController.suggestMovieTreasures(null, 5).getBody().get("suggestions");
+        assertTrue(none.isEmpty(), "Nothing typed, nothing suggested!");
+    }
+
+    @Test
+    @DisplayName("Batch lookup returns movies and review summaries in request order")
+    public void testGetMovieBatch() {
+        ResponseEntity<Map<String, Object>> response = moviesController.getMovieBatch(Arrays.asList(3L, 1L, 999L, 3L));
+
+        assertEquals(200, response.getStatusCodeValue(), "Should return OK status, matey!");
+        Map<String, Object> body = response.getBody();
+        assertEquals(2, body.get("found"));
+        assertEquals(Arrays.asList(999L), body.get("missingIds"), "Unknown treasure should be reported, arrr!");
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> movies = (List<Map<String, Object>>) body.get("movies");
+        assertEquals(3L, ((Movie) movies.get(0).get("movie")).getId(), "Request order should be kept, savvy!");
+        assertEquals(1L, ((Movie) movies.get(1).get("movie")).getId());
+        assertNotNull(movies.get(0).get("reviews"), "Every found treasure should carry a review summary, matey!");
+    }
+
+    @Test
+    @DisplayName("Posting a review stores it and returns the new audience summary")
+    public void testPostReview() {
+        Map<String, Object> review = new HashMap<>();
+        review.put("userName", "Sailor");
+        review.put("rating", 4.5);
+        review.put("comment", "Fine plunder");
+
+        ResponseEntity<Map<String, Object>> response = moviesController.postReview(1L, review);
+
+        assertEquals(201, response.getStatusCodeValue(), "Should return Created, matey!");
+        assertEquals("/movies/1/details", response.getHeaders().getLocation().toString());
+        assertTrue(((ReviewSummary) response.getBody().get("audience")).getCount() >= 1);
+    }
+
+    @Test
+    @DisplayName("Invalid reviews and unknown movies are turned away")
+    public void testPostReview_Invalid() {
+        Map<String, Object> review = new HashMap<>();
+        review.put("userName", "Sailor");
+        review.put("rating", 9);
+        assertEquals(400, moviesController.postReview(1L, review).getStatusCodeValue(), "Rating be off the charts!");
+        review.put("rating", "five");
+        assertEquals(400, moviesController.postReview(1L, review).getStatusCodeValue());
+        assertEquals(400, moviesController.postReview(1L, null).getStatusCodeValue());
+        review.put("rating", 3);
+        assertEquals(404, moviesController.postReview(999L, review).getStatusCodeValue(), "No such treasure to review, arrr!");
+    }
+
+    @Test
+    @DisplayName("Batch lookup rejects empty and oversized batches")
+    public void testPostMovieBatch_Invalid() {
+        assertEquals(400, moviesController.postMovieBatch(null).getStatusCodeValue());
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= MoviesController.MAX_BATCH_SIZE + 1; id++) {
+            tooMany.add(id);
+        }
+        assertEquals(400, moviesController.postMovieBatch(tooMany).getStatusCodeValue(), "Too big a haul, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Facet counts for a treasure hunt")
+    public void testGetMovieFacets() {
+        ResponseEntity<Map<String, Object>> response = moviesController.getMovieFacets(
+            new MovieSearchForm().setGenre("Adventure"));
+
+        assertEquals(200, response.getStatusCodeValue(), "Should return OK status, matey!");
+        Map<String, Object> body = response.getBody();
+        assertEquals(2, body.get("totalFound"), "Should count both adventure treasures, arrr!");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Integer>> facets = (Map<String, Map<String, Integer>>) body.get("facets");
+        assertEquals(2, facets.get("genre").get("Adventure"));
+        assertEquals(1, facets.get("genre").get("Drama"), "Adventure/Drama should count towards Drama, savvy!");
+        assertEquals(2, facets.get("decade").get("2020s"));
+    }
+
+    @Test
+    @DisplayName("Search cache counters are reported")
+    public void testGetSearchCacheStats() {
+        moviesController.getMovieFacets(new MovieSearchForm().setGenre("Sci"));
+        moviesController.getMovieFacets(new MovieSearchForm().setGenre("  SCI "));
+
+        QueryResultCache.Stats stats = moviesController.getSearchCacheStats().getBody();
+        assertNotNull(stats, "Cache stats should not be null, matey!");
+        assertEquals(1, stats.getHits(), "Normalized repeat hunt should hit the cache, arrr!");
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
     @Test
     @DisplayName("Test movie details endpoint")
     public void testGetMovieDetails_ValidId() {
@@ -198,17 +556,95 @@ public class MoviesControllerTest {
         assertTrue(message.contains("999"), "Error message should mention the ID, ye landlubber!");
     }
 
+    @Test
+    @DisplayName("A reload between two catalog reads cannot file one catalog's movies under another's version")
+    public void testCatalogReads_ReloadBetweenReads(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("movies.json");
+        Files.write(file, galleon("Old Galleon"));
+        SwappingMovieService swapping = new SwappingMovieService(file);
+        java.lang.reflect.Field movieServiceField = MoviesController.class.getDeclaredField("movieService");
+        movieServiceField.setAccessible(true);
+        movieServiceField.set(moviesController, swapping);
+        java.lang.reflect.Field catalogSnapshotField = MoviesController.class.getDeclaredField("catalogSnapshot");
+        catalogSnapshotField.setAccessible(true);
+        catalogSnapshotField.set(moviesController, new CatalogSnapshot(new ObjectMapper(), dir.resolve("snapshots").toString()));
+
+        moviesController.getMovies(model, new MovieSearchForm());
+        MockHttpServletResponse snapshot = new MockHttpServletResponse();
+        moviesController.getCatalogSnapshot(new MockHttpServletRequest("GET", "/movies/snapshot"), snapshot);
+        // Whether or not a read above raced the reload, the catalog has now moved on
+        swapping.swap();
+
+        Model after = new ExtendedModelMap();
+        moviesController.getMovies(after, new MovieSearchForm());
+        assertTrue(((String) after.getAttribute("movieCards")).contains("New Galleon"),
+                   "Cards should not be served from the old catalog, arrr!");
+        MockHttpServletResponse latest = new MockHttpServletResponse();
+        moviesController.getCatalogSnapshot(new MockHttpServletRequest("GET", "/movies/snapshot"), latest);
+        assertTrue(latest.getContentAsString().contains("New Galleon"),
+                   "The snapshot should not be served from the old catalog, matey!");
+    }
+
+    private static byte[] galleon(String name) {
+        return ("[{\"id\": 1, \"movieName\": \"" + name + "\", \"director\": \"Captain\", \"year\": 2000,"
+                + " \"genre\": \"Drama\", \"description\": \"Arrr\", \"duration\": 100, \"imdbRating\": 4.5}]")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Reloads a changed catalog the first time anyone reads the catalog reference a second way, arrr!
+    private static class SwappingMovieService extends MovieService {
+        private final Path file;
+        private boolean swapped;
+
+        SwappingMovieService(Path file) {
+            super(file.toString());
+            this.file = file;
+        }
+
+        void swap() throws java.io.IOException {
+            if (!swapped) {
+                swapped = true;
+                Files.write(file, galleon("New Galleon"));
+                assertTrue(reloadCatalog());
+            }
+        }
+
+        @Override
+        public List<Movie> getAllMovies() {
+            List<Movie> movies = super.getAllMovies();
+            try {
+                swap();
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            return movies;
+        }
+
+        @Override
+        public DataVersion getCatalogVersion() {
+            try {
+                swap();
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            return super.getCatalogVersion();
+        }
+    }
+
     // Mock MovieService for testing, arrr!
     private static class MockMovieService extends MovieService {
         private final List<Movie> testMovies;
         private final List<String> testGenres;
 
+        private static final List<Movie> TEST_MOVIES = Arrays.asList(
+            new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+            new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0),
+            new Movie(3L, "Space Odyssey", "Stanley Kubrick", 2001, "Sci-Fi", "A journey through space", 150, 5.0)
+        );
+
         public MockMovieService() {
-            this.testMovies = Arrays.asList(
-                new Movie(1L, "Pirate Adventure", "Captain Hook", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
-                new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure/Drama", "Hunt for buried treasure", 110, 4.0),
-                new Movie(3L, "Space Odyssey", "Stanley Kubrick", 2001, "Sci-Fi", "A journey through space", 150, 5.0)
-            );
+            super(TEST_MOVIES);
+            this.testMovies = TEST_MOVIES;
             this.testGenres = Arrays.asList("Adventure", "Adventure/Drama", "Sci-Fi");
         }
 
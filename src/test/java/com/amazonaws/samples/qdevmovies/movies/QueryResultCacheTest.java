@@ -0,0 +1,95 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy! Tests for the bounded search result cache, matey!
+ */
+public class QueryResultCacheTest {
+
+    @Test
+    @DisplayName("Keys are normalized before lookup")
+    public void testKey_Normalized() {
+        assertEquals(QueryResultCache.key(" The Prison ", null, "DRAMA"), QueryResultCache.key("the prison", 0L, "drama"));
+        assertNotEquals(QueryResultCache.key("prison", null, null), QueryResultCache.key(null, null, "prison"));
+        assertTrue(QueryResultCache.key("  ", -3L, null).isEmpty(), "Blank criteria should make an empty key, arrr!");
+    }
+
+    @Test
+    @DisplayName("Least recently used searches are evicted by count")
+    public void testPut_EvictsLeastRecentlyUsed() {
+        QueryResultCache cache = new QueryResultCache(2, 1_000);
+        QueryResultCache.Key first = QueryResultCache.key("first", null, null);
+        QueryResultCache.Key second = QueryResultCache.key("second", null, null);
+        QueryResultCache.Key third = QueryResultCache.key("third", null, null);
+
+        cache.put(first, 0, new int[] {1});
+        cache.put(second, 0, new int[] {2});
+        assertNotNull(cache.get(first, 0), "First treasure map should still be cached, matey!");
+        cache.put(third, 0, new int[] {3});
+
+        assertNull(cache.get(second, 0), "Least recently used map should walk the plank, arrr!");
+        assertNotNull(cache.get(first, 0));
+        assertNotNull(cache.get(third, 0));
+        QueryResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Total weight bounds the cache")
+    public void testPut_EvictsByWeight() {
+        int entryWeight = 10 + QueryResultCache.ENTRY_OVERHEAD;
+        QueryResultCache cache = new QueryResultCache(100, 2L * entryWeight);
+
+        cache.put(QueryResultCache.key("a", null, null), 0, new int[10]);
+        cache.put(QueryResultCache.key("b", null, null), 0, new int[10]);
+        cache.put(QueryResultCache.key("c", null, null), 0, new int[10]);
+        cache.put(QueryResultCache.key("huge", null, null), 0, new int[1_000]);
+
+        QueryResultCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getEntries(), "Only two maps fit in the hold, savvy!");
+        assertEquals(2L * entryWeight, stats.getWeight());
+        assertNull(cache.get(QueryResultCache.key("huge", null, null), 0), "Oversized results should never be cached!");
+    }
+
+    @Test
+    @DisplayName("A new catalog version drops every cached search")
+    public void testGet_InvalidatesOnCatalogVersion() {
+        QueryResultCache cache = new QueryResultCache(10, 1_000);
+        QueryResultCache.Key key = QueryResultCache.key("prison", null, null);
+        cache.put(key, 0, new int[] {4});
+
+        assertNull(cache.get(key, 1), "Results from an old catalog must not be served, ye scallywag!");
+        cache.put(key, 0, new int[] {4});
+        assertNull(cache.get(key, 1), "Late results for an old catalog should be ignored, arrr!");
+        assertEquals(0, cache.stats().getEntries());
+    }
+
+    @Test
+    @DisplayName("Cached hunts return the same treasures as uncached ones")
+    public void testMovieService_CachedResultsMatch() {
+        List<Movie> catalog = new MovieService().getAllMovies();
+        MovieService cached = new MovieService(new ObjectMovieStore(catalog), new QueryResultCache(16, 1_000));
+        MovieService uncached = new MovieService(new ObjectMovieStore(catalog), new QueryResultCache(0, 0));
+
+        for (int round = 0; round < 2; round++) {
+            assertEquals(ids(uncached.huntForMovieTreasures("the", null, null)), ids(cached.huntForMovieTreasures("The ", null, null)));
+            assertEquals(ids(uncached.huntForMovieTreasures(null, 1L, "drama")), ids(cached.huntForMovieTreasures(null, 1L, "Drama")));
+        }
+        assertEquals(2, cached.getResultCacheStats().getHits());
+        assertEquals(0, uncached.getResultCacheStats().getEntries(), "A disabled cache should stay empty, matey!");
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the year, duration and rating range indexes, matey!
+ */
+public class RangeIndexTest {
+
+    private static RangeIndex index(int[] values) {
+        int[] order = IntStream.range(0, values.length).boxed()
+            .sorted((a, b) -> Integer.compare(values[a], values[b])).mapToInt(Integer::intValue).toArray();
+        int[] rank = new int[order.length];
+        for (int position = 0; position < order.length; position++) {
+            rank[order[position]] = position;
+        }
+        return RangeIndex.build(order, rank, ordinal -> values[ordinal]);
+    }
+
+    private static int[] scan(int[] values, int[] matches, int min, int max) {
+        IntStream ordinals = matches == null ? IntStream.range(0, values.length) : IntStream.of(matches);
+        return ordinals.filter(ordinal -> values[ordinal] >= min && values[ordinal] <= max).toArray();
+    }
+
+    @Test
+    @DisplayName("Value bounds find their sorted positions and bitmaps hold exactly those treasures")
+    public void testBoundsAndBitmap() {
+        int[] years = {1994, 1972, 2008, 1994, 1994, 2010, 1999, 1990, 2001, 1977, 1993, 1999};
+        RangeIndex index = index(years);
+
+        RangeIndex.Bounds nineties = index.bounds(1990, 1999);
+        assertEquals(7, nineties.count(), "Seven treasures sailed in the nineties, arrr!");
+        assertArrayEquals(new int[] {0, 3, 4, 6, 7, 10, 11}, index.ordinals(nineties.from, nineties.to));
+        assertArrayEquals(new int[] {0, 3, 4, 6, 7, 10, 11},
+                          RangeIndex.ordinals(index.bitmap(nineties.from, nineties.to)));
+
+        assertEquals(0, index.bounds(2020, Double.POSITIVE_INFINITY).count(), "Nothing from the future, matey!");
+        assertEquals(0, index.bounds(2000, 1990).count(), "An upside-down range keeps nothing");
+        assertEquals(years.length, index.bounds(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY).count());
+    }
+
+    @Test
+    @DisplayName("Several ranges keep only the treasures inside all of them")
+    public void testFilter_CombinesRanges() {
+        int[] years = {1994, 1972, 2008, 1994, 1994, 2010, 1999, 1990, 2001, 1977, 1993, 1999};
+        int[] durations = {142, 175, 152, 154, 142, 148, 136, 146, 178, 121, 195, 139};
+        RangeIndex yearIndex = index(years);
+        RangeIndex durationIndex = index(durations);
+        List<RangeIndex.Bounds> ranges = Arrays.asList(yearIndex.bounds(1990, 1999),
+                                                       durationIndex.bounds(Double.NEGATIVE_INFINITY, 145));
+
+        assertArrayEquals(new int[] {0, 4, 6, 11}, RangeIndex.filter(null, years.length, ranges));
+        assertArrayEquals(new int[] {4, 11}, RangeIndex.filter(new int[] {1, 4, 5, 11}, years.length, ranges),
+                          "Earlier matches should be narrowed, not replaced, savvy!");
+        int[] matches = {2, 3};
+        assertSame(matches, RangeIndex.filter(matches, years.length, Collections.emptyList()));
+        assertNull(RangeIndex.filter(null, years.length, Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("Sparse and dense paths agree with a full scan")
+    public void testFilter_MatchesFullScan() {
+        Random random = new Random(19);
+        int size = 20000;
+        int[] years = new int[size];
+        int[] durations = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            years[ordinal] = 1920 + random.nextInt(100);
+            durations[ordinal] = 80 + random.nextInt(120);
+        }
+        RangeIndex yearIndex = index(years);
+        RangeIndex durationIndex = index(durations);
+
+        List<int[]> matchSets = new ArrayList<>();
+        matchSets.add(null);
+        for (int every : new int[] {2, 7, 500}) {
+            matchSets.add(IntStream.range(0, size).filter(ordinal -> ordinal % every == 0).toArray());
+        }
+        int[][] yearRanges = {{1920, 2019}, {1950, 1990}, {2000, 2001}, {1999, 1999}, {2050, 2060}};
+        int[][] durationRanges = {{0, 1000}, {80, 150}, {100, 101}};
+        for (int[] matches : matchSets) {
+            for (int[] years2 : yearRanges) {
+                for (int[] minutes : durationRanges) {
+                    int[] expected = scan(durations, scan(years, matches, years2[0], years2[1]), minutes[0], minutes[1]);
+                    int[] actual = RangeIndex.filter(matches, size, Arrays.asList(
+                        yearIndex.bounds(years2[0], years2[1]), durationIndex.bounds(minutes[0], minutes[1])));
+                    assertArrayEquals(expected, actual, "Index and scan should agree for years "
+                        + Arrays.toString(years2) + " and minutes " + Arrays.toString(minutes) + ", matey!");
+                }
+            }
+        }
+    }
+}
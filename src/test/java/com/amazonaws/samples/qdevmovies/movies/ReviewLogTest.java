@@ -0,0 +1,254 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the durable review log: group commit, replay, torn records and checkpoints, matey!
+ */
+public class ReviewLogTest {
+
+    private static ReviewService open(Path dir, long checkpointInterval) {
+        return new ReviewService(new ReviewLog(dir, 1 << 20, 64, 1000, checkpointInterval), 5000);
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ReviewLog.SEGMENT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Posted reviews are visible at once and survive a restart")
+    public void testAddReview_ReplayedOnRestart(@TempDir Path dir) throws IOException {
+        ReviewService reviewService = open(dir, 1000);
+        int seeded = reviewService.getReviewsForMovie(1L).size();
+        String versionBefore = reviewService.getReviewVersion().getTag();
+
+        ReviewSummary summary = reviewService.addReview(1L, new Review("Sailor", "", 2.0, "Leaky hull"));
+        assertEquals(seeded + 1, summary.getCount(), "New review should count at once, arrr!");
+        assertEquals(seeded + 1, reviewService.getReviewsForMovie(1L).size());
+        assertEquals(ReviewService.DEFAULT_AVATAR, reviewService.getReviewsForMovie(1L).get(seeded).getAvatarEmoji());
+        assertNotEquals(versionBefore, reviewService.getReviewVersion().getTag(), "Reviews changed, so must the version!");
+        reviewService.destroy();
+
+        ReviewService restarted = open(dir, 1000);
+        List<Review> reviews = restarted.getReviewsForMovie(1L);
+        assertEquals(seeded + 1, reviews.size(), "Review should be replayed from the log, savvy!");
+        assertEquals("Leaky hull", reviews.get(seeded).getComment());
+        restarted.destroy();
+    }
+
+    @Test
+    @DisplayName("Concurrent posts are group-committed and none are lost")
+    public void testAddReview_Concurrent(@TempDir Path dir) throws Exception {
+        ReviewService reviewService = open(dir, 100000);
+        int seeded = reviewService.getReviewsForMovie(7L).size();
+        ExecutorService crew = Executors.newFixedThreadPool(16);
+        List<Future<ReviewSummary>> posts = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int sailor = i;
+            posts.add(crew.submit(() -> reviewService.addReview(7L, new Review("Sailor " + sailor, "⚓", 1 + sailor % 5, ""))));
+        }
+        for (Future<ReviewSummary> post : posts) {
+            post.get(10, TimeUnit.SECONDS);
+        }
+        crew.shutdown();
+        assertEquals(seeded + 400, reviewService.getReviewSummary(7L).getCount(), "Every post should be counted, arrr!");
+        reviewService.destroy();
+
+        ReviewService restarted = open(dir, 100000);
+        assertEquals(seeded + 400, restarted.getReviewsForMovie(7L).size(), "Every post should be on disk, matey!");
+        restarted.destroy();
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log is cut off on restart")
+    public void testRecover_TornTail(@TempDir Path dir) throws IOException {
+        ReviewService reviewService = open(dir, 1000);
+        int seeded = reviewService.getReviewsForMovie(2L).size();
+        reviewService.addReview(2L, new Review("Sailor", "⚓", 4.0, "Kept"));
+        reviewService.destroy();
+
+        // Half a record, as if the ship sank mid-write
+        Path last = segments(dir).get(segments(dir).size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        ReviewService restarted = open(dir, 1000);
+        assertEquals(seeded + 1, restarted.getReviewsForMovie(2L).size(), "Committed review should survive the wreck!");
+        restarted.addReview(2L, new Review("Bosun", "⚓", 5.0, "After the storm"));
+        restarted.destroy();
+
+        ReviewService again = open(dir, 1000);
+        assertEquals(seeded + 2, again.getReviewsForMovie(2L).size(), "Reviews after the cut should replay too, savvy!");
+        again.destroy();
+    }
+
+    @Test
+    @DisplayName("Checkpoints compact the log so replay stays short")
+    public void testCheckpoint_CompactsSegments(@TempDir Path dir) throws Exception {
+        ReviewLog log = new ReviewLog(dir, 1 << 20, 64, 1000, 10);
+        ReviewService reviewService = new ReviewService(log, 5000);
+        int seeded = reviewService.getReviewsForMovie(3L).size();
+        for (int i = 0; i < 25; i++) {
+            reviewService.addReview(3L, new Review("Sailor " + i, "⚓", 3.0, ""));
+        }
+        reviewService.destroy();
+
+        assertTrue(Files.exists(dir.resolve(ReviewLog.CHECKPOINT_FILE)), "A checkpoint should have been written, arrr!");
+        ReviewLog reopened = new ReviewLog(dir, 1 << 20, 64, 1000, 10);
+        ReviewLog.Recovery recovery = reopened.recover();
+        assertTrue(recovery.entries.size() < 10, "Only reviews after the last checkpoint should replay: " + recovery.entries.size());
+        assertEquals(seeded, recovery.checkpoint.seed.get(3L).size(), "The seed should be kept apart, matey!");
+        assertEquals(25, recovery.checkpoint.posted.get(3L).size() + recovery.entries.size());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Reloads running while checkpoints compact the log never read a deleted segment")
+    public void testReload_DuringCompaction(@TempDir Path dir) throws Exception {
+        ReviewService reviewService = new ReviewService(new ReviewLog(dir, 1 << 20, 1, 1000, 1), 5000);
+        int seeded = reviewService.getReviewsForMovie(4L).size();
+        ExecutorService poster = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> posts = poster.submit(() -> {
+                for (int i = 0; i < 400; i++) {
+                    reviewService.addReview(4L, new Review("Sailor " + i, "⚓", 3.0, ""));
+                }
+            });
+            while (!posts.isDone()) {
+                assertTrue(reviewService.reloadReviews(), "A reload should never trip over compaction, arrr!");
+            }
+            posts.get();
+        } finally {
+            poster.shutdownNow();
+        }
+        assertEquals(seeded + 400, reviewService.getReviewsForMovie(4L).size());
+        reviewService.destroy();
+    }
+
+    @Test
+    @DisplayName("A failing commit listener counts the durable batch as stored and the writer keeps committing")
+    public void testAppend_ListenerFailure(@TempDir Path dir) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.globalRegistry.add(registry);
+        try {
+            ReviewLog log = new ReviewLog(dir, 1 << 20, 64, 1000, 1000);
+            log.recover();
+            List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+            log.start(entries -> {
+                if (entries.get(0).movieId == 13L) {
+                    throw new IllegalStateException("Unlucky movie");
+                }
+                entries.forEach(entry -> applied.add(entry.movieId));
+            }, () -> ReviewLog.Checkpoint.EMPTY);
+
+            ReviewLog.Entry unlucky = log.append(13L, new Review("Sailor", "⚓", 3.0, "")).get(5, TimeUnit.SECONDS);
+            assertEquals(13L, unlucky.movieId, "A durable review should not be reported as lost, arrr!");
+            assertEquals(1.0, registry.find(MovieMetrics.REVIEW_APPLY_FAILED).counter().count(),
+                         "The failed apply should be counted, matey!");
+
+            ReviewLog.Entry later = log.append(7L, new Review("Bosun", "🧔", 4.0, "")).get(5, TimeUnit.SECONDS);
+            assertEquals(7L, later.movieId, "The writer should survive a failing listener, arrr!");
+            assertEquals(Collections.singletonList(7L), applied);
+            log.close();
+
+            ReviewLog reopened = new ReviewLog(dir, 1 << 20, 64, 1000, 1000);
+            assertEquals(2, reopened.recover().entries.size(), "The unapplied batch was still durable, matey!");
+            reopened.close();
+        } finally {
+            Metrics.globalRegistry.remove(registry);
+            registry.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Unreadable seed reviews fail the first start instead of checkpointing an empty state")
+    public void testFirstStart_SeedUnreadable(@TempDir Path dir) throws IOException {
+        Path seed = dir.resolve("mock-reviews.json");
+        Path logDir = dir.resolve("log");
+        assertThrows(UncheckedIOException.class,
+                     () -> new ReviewService(seed.toString(), new ReviewLog(logDir, 1 << 20, 64, 1000, 1000), 5000));
+        assertFalse(Files.exists(logDir.resolve(ReviewLog.CHECKPOINT_FILE)), "No checkpoint should hide the seed, arrr!");
+
+        Files.write(seed, "{\"7\": [{\"userName\": \"Sailor\", \"avatarEmoji\": \"⚓\", \"rating\": 4.0, \"comment\": \"Grand\"}]}"
+            .getBytes(StandardCharsets.UTF_8));
+        ReviewService recovered = new ReviewService(seed.toString(), new ReviewLog(logDir, 1 << 20, 64, 1000, 1000), 5000);
+        assertEquals(1, recovered.getReviewsForMovie(7L).size(), "Once readable, the seed should be loaded, matey!");
+        recovered.destroy();
+    }
+
+    @Test
+    @DisplayName("Reloading an edited seed file keeps the posted reviews on top of it, also after a restart")
+    public void testReloadReviews_EditedSeed(@TempDir Path dir) throws Exception {
+        Path seed = dir.resolve("mock-reviews.json");
+        Path logDir = dir.resolve("log");
+        Files.write(seed, "{\"7\": [{\"userName\": \"Sailor\", \"avatarEmoji\": \"⚓\", \"rating\": 2.0, \"comment\": \"Leaky\"}]}"
+            .getBytes(StandardCharsets.UTF_8));
+        ReviewService reviewService = new ReviewService(seed.toString(), new ReviewLog(logDir, 1 << 20, 64, 1000, 1000), 5000);
+        reviewService.addReview(7L, new Review("Bosun", "🧔", 5.0, "Posted"));
+        assertTrue(Files.exists(logDir.resolve(ReviewLog.CHECKPOINT_FILE)), "The first start should checkpoint, arrr!");
+
+        Files.write(seed, ("{\"7\": [{\"userName\": \"Sailor\", \"avatarEmoji\": \"⚓\", \"rating\": 4.0, \"comment\": \"Mended\"}],"
+                           + " \"9\": [{\"userName\": \"Cook\", \"avatarEmoji\": \"🍲\", \"rating\": 3.0, \"comment\": \"New\"}]}")
+            .getBytes(StandardCharsets.UTF_8));
+        assertTrue(reviewService.reloadReviews(), "Reload should succeed, savvy!");
+        assertEquals(Arrays.asList("Mended", "Posted"), comments(reviewService.getReviewsForMovie(7L)),
+                     "The edited seed should sit under the posted review, matey!");
+        assertEquals(Collections.singletonList("New"), comments(reviewService.getReviewsForMovie(9L)));
+        assertEquals(4.5, reviewService.getReviewSummary(7L).getAverageRating(), 1e-9);
+        reviewService.addReview(9L, new Review("Gunner", "💣", 1.0, "After"));
+        reviewService.destroy();
+
+        ReviewService restarted = new ReviewService(seed.toString(), new ReviewLog(logDir, 1 << 20, 64, 1000, 1000), 5000);
+        assertEquals(Arrays.asList("Mended", "Posted"), comments(restarted.getReviewsForMovie(7L)),
+                     "The rebased checkpoint should survive a restart, arrr!");
+        assertEquals(Arrays.asList("New", "After"), comments(restarted.getReviewsForMovie(9L)));
+        restarted.destroy();
+    }
+
+    private static List<String> comments(List<Review> reviews) {
+        return reviews.stream().map(Review::getComment).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Closed log turns posts away")
+    public void testAppend_Closed(@TempDir Path dir) throws IOException {
+        ReviewLog log = new ReviewLog(dir, 1 << 20, 64, 1000, 1000);
+        log.recover();
+        log.start(entries -> { }, () -> ReviewLog.Checkpoint.EMPTY);
+        log.close();
+
+        CompletableFuture<ReviewLog.Entry> append = log.append(1L, new Review("Sailor", "⚓", 3.0, ""));
+        assertTrue(append.isCompletedExceptionally(), "A closed log should not take new reviews, ye scallywag!");
+    }
+}
@@ -0,0 +1,137 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the ReviewService review index, matey!
+ */
+public class ReviewServiceTest {
+
+    private ReviewService reviewService;
+
+    @BeforeEach
+    public void setUp() {
+        reviewService = new ReviewService();
+    }
+
+    @Test
+    @DisplayName("Reviews are served from the index for a known movie")
+    public void testGetReviewsForMovie_KnownMovie() {
+        List<Review> reviews = reviewService.getReviewsForMovie(1L);
+
+        assertEquals(3, reviews.size(), "Movie 1 should have three reviews, arrr!");
+        assertEquals("MovieBuff87", reviews.get(0).getUserName());
+        assertEquals(5.0, reviews.get(0).getRating());
+    }
+
+    @Test
+    @DisplayName("Review summaries match the indexed reviews")
+    public void testGetReviewSummaries() {
+        List<Review> reviews = reviewService.getReviewsForMovie(1L);
+        double average = reviews.stream().mapToDouble(Review::getRating).average().orElse(0);
+
+        Map<Long, ReviewSummary> summaries = reviewService.getReviewSummaries(Arrays.asList(1L, 999L));
+        assertEquals(Arrays.asList(1L, 999L), new ArrayList<>(summaries.keySet()), "Ids should keep their order, arrr!");
+        assertEquals(reviews.size(), summaries.get(1L).getCount());
+        assertEquals(average, summaries.get(1L).getAverageRating(), 1e-9);
+        assertEquals(0, summaries.get(999L).getCount(), "Unknown movie should have an empty summary, matey!");
+    }
+
+    @Test
+    @DisplayName("Unknown movie has no reviews")
+    public void testGetReviewsForMovie_UnknownMovie() {
+        assertTrue(reviewService.getReviewsForMovie(999L).isEmpty(), "Unknown movie should have no reviews, matey!");
+    }
+
+    @Test
+    @DisplayName("Repeated lookups reuse the same parsed reviews")
+    public void testGetReviewsForMovie_NoReparse() {
+        assertSame(reviewService.getReviewsForMovie(2L), reviewService.getReviewsForMovie(2L),
+                  "Lookups should not re-parse the review file, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Indexed review lists are read-only")
+    public void testGetReviewsForMovie_Immutable() {
+        List<Review> reviews = reviewService.getReviewsForMovie(1L);
+
+        assertThrows(UnsupportedOperationException.class, () -> reviews.add(reviews.get(0)));
+    }
+
+    @Test
+    @DisplayName("Posted reviews update the list, summary and listeners")
+    public void testAddReview_InMemory() {
+        int seeded = reviewService.getReviewsForMovie(4L).size();
+        List<Map<Long, ReviewSummary>> changes = new ArrayList<>();
+        reviewService.addSummaryListener(new ReviewService.SummaryListener() {
+            @Override
+            public void summariesReplaced(Map<Long, ReviewSummary> summaries) {
+            }
+
+            @Override
+            public void summariesChanged(Map<Long, ReviewSummary> changed) {
+                changes.add(changed);
+            }
+        });
+
+        ReviewSummary summary = reviewService.addReview(4L, new Review("  Sailor  ", "⚓", 1.0, "Too much rum"));
+
+        assertEquals(seeded + 1, reviewService.getReviewsForMovie(4L).size());
+        assertEquals("Sailor", reviewService.getReviewsForMovie(4L).get(seeded).getUserName(), "Names should be trimmed, arrr!");
+        assertEquals(1, changes.size(), "Listeners should hear about the new review, matey!");
+        assertSame(summary, changes.get(0).get(4L));
+        assertEquals(1, summary.getHistogram()[0]);
+    }
+
+    @Test
+    @DisplayName("Invalid reviews are turned away")
+    public void testAddReview_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> reviewService.addReview(1L, new Review(" ", "⚓", 3.0, "")));
+        assertThrows(IllegalArgumentException.class, () -> reviewService.addReview(1L, new Review("Sailor", "⚓", 6.0, "")));
+        assertThrows(IllegalArgumentException.class, () -> reviewService.addReview(1L, new Review("Sailor", "⚓", Double.NaN, "")));
+        assertEquals(3, reviewService.getReviewsForMovie(1L).size(), "No bad review should be stored, ye scallywag!");
+    }
+
+    @Test
+    @DisplayName("Lists handed out before a review is posted do not change")
+    public void testAddReview_EarlierListsUnchanged() {
+        List<Review> seeded = reviewService.getReviewsForMovie(1L);
+        List<List<Review>> handedOut = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            handedOut.add(reviewService.getReviewsForMovie(1L));
+            reviewService.addReview(1L, new Review("Sailor " + i, "⚓", 3.0, ""));
+        }
+
+        for (int i = 0; i < handedOut.size(); i++) {
+            assertEquals(seeded.size() + i, handedOut.get(i).size(), "Earlier lists should keep their length, arrr!");
+        }
+        List<Review> latest = reviewService.getReviewsForMovie(1L);
+        assertEquals(seeded, latest.subList(0, seeded.size()));
+        assertEquals("Sailor 39", latest.get(latest.size() - 1).getUserName());
+        assertThrows(UnsupportedOperationException.class, () -> latest.add(new Review("Stowaway", "🐀", 1.0, "")));
+    }
+
+    @Test
+    @DisplayName("Reloading publishes a fresh index")
+    public void testReloadReviews() {
+        List<Review> before = reviewService.getReviewsForMovie(3L);
+
+        assertTrue(reviewService.reloadReviews(), "Reload should succeed, savvy!");
+
+        List<Review> after = reviewService.getReviewsForMovie(3L);
+        assertNotSame(before, after, "Reload should swap in a new index, arrr!");
+        assertEquals(before.stream().map(Review::getComment).collect(Collectors.toList()),
+                     after.stream().map(Review::getComment).collect(Collectors.toList()),
+                     "An unchanged reviews file should reload the same reviews, matey!");
+    }
+}
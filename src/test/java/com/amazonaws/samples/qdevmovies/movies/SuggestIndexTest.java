@@ -0,0 +1,123 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the type-ahead prefix index over titles and directors, matey!
+ */
+public class SuggestIndexTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Dream Heist", "Chris Moviemaker", 2010, "Sci-Fi", "", 148, 4.5),
+        new Movie(2L, "Dream Voyage", "Dora Explorer", 2015, "Adventure", "", 100, 3.0),
+        new Movie(3L, "The Great Heist", "Chris Moviemaker", 2018, "Crime", "", 120, 4.0),
+        new Movie(4L, "Drama Queen", "Drew Director", 2001, "Drama", "", 95, 2.5),
+        new Movie(5L, "Dream Heist", "Other Maker", 2020, "Sci-Fi", "", 130, 4.8)
+    );
+
+    private static List<String> suggest(SuggestIndex index, String prefix, int limit) {
+        return Arrays.stream(index.suggest(prefix, limit)).mapToObj(index::text).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Titles and directors starting with the prefix come best rated first")
+    public void testSuggest_RankedByRating() {
+        SuggestIndex index = SuggestIndex.build(new ObjectMovieStore(TREASURES));
+
+        assertEquals(Arrays.asList("Dream Heist", "Dream Voyage", "Dora Explorer", "Drama Queen"),
+                     suggest(index, "d", 4), "Best rating first, ties in catalog order, titles before directors, savvy!");
+        assertEquals(Arrays.asList("Dream Heist", "Dream Voyage"), suggest(index, "  DREAM", 10), "Case and leading blanks are ignored");
+        assertEquals(Arrays.asList("Dream Heist"), suggest(index, "dream h", 10), "Spaces inside the prefix count, arrr!");
+        assertTrue(suggest(index, "dreamh", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Later words of a title or director match too")
+    public void testSuggest_WordStarts() {
+        SuggestIndex index = SuggestIndex.build(new ObjectMovieStore(TREASURES));
+
+        assertEquals(Arrays.asList("Dream Heist", "The Great Heist"), suggest(index, "hei", 10));
+        assertEquals(Arrays.asList("Other Maker", "Chris Moviemaker"), suggest(index, "m", 10),
+                     "A director's best movie sets their rank, matey!");
+        assertTrue(suggest(index, "eist", 10).isEmpty(), "Only word starts match, not the middle of words!");
+    }
+
+    @Test
+    @DisplayName("Duplicate titles point at their best-rated movie, and directors are marked")
+    public void testSuggest_Completions() {
+        SuggestIndex index = SuggestIndex.build(new ObjectMovieStore(TREASURES));
+
+        int[] heist = index.suggest("dream heist", 1);
+        assertEquals(1, heist.length);
+        assertEquals(4, index.ordinal(heist[0]), "The 4.8 Dream Heist should be offered, arrr!");
+        assertFalse(index.isDirector(heist[0]));
+        assertTrue(index.isDirector(index.suggest("chris", 1)[0]));
+        assertEquals(0, index.suggest("", 10).length);
+        assertEquals(0, index.suggest(null, 10).length);
+        assertEquals(0, index.suggest("d", 0).length);
+        assertEquals(0, SuggestIndex.build(new ObjectMovieStore(new ArrayList<>())).suggest("d", 10).length);
+    }
+
+    @Test
+    @DisplayName("Precomputed and scanned rankings agree with a full scan for every prefix")
+    public void testSuggest_MatchesFullScan() {
+        Random random = new Random(5);
+        String[] words = {"sea", "sear", "search", "seven", "ship", "shipwreck", "s", "storm"};
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + random.nextInt(400);
+            movies.add(new Movie(i + 1, title, "Captain " + words[random.nextInt(words.length)], 2000, "Drama", "", 90,
+                                 random.nextInt(11) * 0.5));
+        }
+        SuggestIndex index = SuggestIndex.build(new ObjectMovieStore(movies));
+
+        for (String prefix : Arrays.asList("s", "se", "sea", "sea ", "sear", "search s", "sh", "ship 1", "st", "c",
+                                           "captain s", "1", "12", "399", "x")) {
+            assertEquals(fullScan(movies, prefix, SuggestIndex.MAX_SUGGESTIONS), suggest(index, prefix, SuggestIndex.MAX_SUGGESTIONS),
+                         "Index and scan should agree for '" + prefix + "', matey!");
+        }
+    }
+
+    /**
+     * Ranks every title, then every director, with a word starting with the prefix.
+     */
+    private static List<String> fullScan(List<Movie> movies, String prefix, int limit) {
+        Map<String, Double> best = new LinkedHashMap<>();
+        for (int pass = 0; pass < 2; pass++) {
+            for (Movie movie : movies) {
+                String text = pass == 0 ? movie.getMovieName() : movie.getDirector();
+                best.merge(text, movie.getImdbRating(), Math::max);
+            }
+        }
+        Map<String, Integer> catalogOrder = new HashMap<>();
+        best.keySet().forEach(text -> catalogOrder.put(text, catalogOrder.size()));
+        return best.keySet().stream()
+            .filter(text -> hasWordStartingWith(text.toLowerCase(Locale.ROOT), prefix))
+            .sorted(Comparator.comparingDouble((String text) -> -best.get(text)).thenComparing(catalogOrder::get))
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean hasWordStartingWith(String text, String prefix) {
+        for (int i = 0; i < text.length(); i++) {
+            if ((i == 0 || text.charAt(i - 1) == ' ') && text.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
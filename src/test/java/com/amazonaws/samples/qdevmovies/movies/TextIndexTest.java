@@ -0,0 +1,104 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arrr! Unit tests for the ranked full-text index: tokens, BM25F ranking, field boosts and top-k, matey!
+ */
+public class TextIndexTest {
+
+    private static final List<Movie> TREASURES = Arrays.asList(
+        new Movie(1L, "Calm Waters", "First Mate", 2020, "Drama", "A quiet voyage across the treasure seas", 100, 3.0),
+        new Movie(2L, "Treasure Island", "Long John Silver", 2022, "Adventure", "Hunt for buried gold", 110, 4.0),
+        new Movie(3L, "Ghost Ship", "Davy Jones", 2021, "Horror", "Haunted seas and a cursed treasure, treasure, treasure", 95, 3.5),
+        new Movie(4L, "Pirate Adventure", "Captain Treasure", 2023, "Adventure", "A swashbuckling tale", 120, 4.5),
+        new Movie(5L, "Silent Harbour", "Old Salt", 2019, "Drama", "Nothing to find here", 90, 2.5)
+    );
+
+    private static TextIndex index(List<Movie> movies) {
+        return TextIndex.build(movies.size(), Arrays.asList(
+            new TextIndex.Field("movieName", ordinal -> movies.get(ordinal).getMovieName(), 3f, 0.75f),
+            new TextIndex.Field("director", ordinal -> movies.get(ordinal).getDirector(), 2f, 0.75f),
+            new TextIndex.Field("description", ordinal -> movies.get(ordinal).getDescription(), 1f, 0.75f)));
+    }
+
+    @Test
+    @DisplayName("Text splits into lower-cased words without punctuation or stop words")
+    public void testTokenize() {
+        assertEquals(Arrays.asList("ghost", "ship", "c", "e", "o", "2021"), TextIndex.tokenize("The GHOST-ship of a C.E.O. (2021)"));
+        assertTrue(TextIndex.tokenize("  ").isEmpty());
+        assertTrue(TextIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Title matches outrank director matches, which outrank description matches")
+    public void testSearch_FieldBoosts() {
+        TextIndex.TopHits hits = index(TREASURES).search("treasure", null, 10);
+
+        assertEquals(4, hits.total, "Four treasures mention treasure, arrr!");
+        assertArrayEquals(new int[] {1, 3, 2, 0}, hits.ordinals, "Title, then director, then the most repeated description");
+        for (int i = 1; i < hits.scores.length; i++) {
+            assertTrue(hits.scores[i - 1] >= hits.scores[i], "Scores should come best first, matey!");
+        }
+    }
+
+    @Test
+    @DisplayName("Rarer words weigh more and every query word adds to the score")
+    public void testSearch_Idf() {
+        TextIndex.TopHits hits = index(TREASURES).search("the seas gold", null, 10);
+
+        assertEquals(3, hits.total, "'the' is a stop word, so only seas and gold count, savvy!");
+        assertEquals(1, hits.ordinals[0], "Gold appears once in the chest and so weighs the most");
+        assertArrayEquals(new int[] {0, 1, 2}, Arrays.stream(index(TREASURES).matches("the seas gold")).toArray());
+        assertEquals(0, index(TREASURES).search("kraken", null, 10).total);
+    }
+
+    @Test
+    @DisplayName("Only allowed treasures are ranked, and top-k keeps the best k")
+    public void testSearch_AllowedAndTopK() {
+        TextIndex index = index(TREASURES);
+
+        TextIndex.TopHits allowed = index.search("treasure", new int[] {0, 2, 4}, 10);
+        assertArrayEquals(new int[] {2, 0}, allowed.ordinals, "Only the allowed matches should be ranked, arrr!");
+        assertEquals(2, allowed.total);
+
+        TextIndex.TopHits top = index.search("treasure", null, 2);
+        assertArrayEquals(new int[] {1, 3}, top.ordinals);
+        assertEquals(4, top.total, "The total should count every match, not just the top k!");
+        assertEquals(0, index.search("treasure", new int[0], 10).total);
+    }
+
+    @Test
+    @DisplayName("Top-k matches a full sort of the scores, ties in catalog order")
+    public void testSearch_TopKMatchesFullSort() {
+        Random random = new Random(7);
+        String[] words = {"sea", "ship", "gold", "storm", "map", "reef"};
+        Movie[] movies = new Movie[500];
+        for (int i = 0; i < movies.length; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 1 + random.nextInt(4); w++) {
+                description.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            movies[i] = new Movie(i + 1, "Voyage " + i, "Captain", 2000, "Drama", description.toString(), 90, 3.0);
+        }
+        TextIndex index = index(Arrays.asList(movies));
+
+        TextIndex.TopHits all = index.search("gold storm", null, movies.length);
+        TextIndex.TopHits top = index.search("gold storm", null, 25);
+        assertArrayEquals(Arrays.copyOf(all.ordinals, 25), top.ordinals, "The heap should keep the same best 25, matey!");
+        for (int i = 1; i < all.ordinals.length; i++) {
+            boolean ordered = all.scores[i - 1] > all.scores[i]
+                || (all.scores[i - 1] == all.scores[i] && all.ordinals[i - 1] < all.ordinals[i]);
+            assertTrue(ordered, "Equal scores should keep catalog order, savvy!");
+        }
+        // Repeating the query must score from scratch, not on top of the previous one
+        assertArrayEquals(all.scores, index.search("gold storm", null, movies.length).scores);
+    }
+}